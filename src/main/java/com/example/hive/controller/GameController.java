@@ -53,6 +53,9 @@ public class GameController {
     private Pane gameBoardPane;
 
     private static final int HEX_SIZE = 25;
+    // Limits of the alpha-beta search of the AI: the deepest iteration, and the thinking time per move.
+    private static final int SEARCH_DEPTH = 8;
+    private static final long SEARCH_TIME_MILLIS = 2000;
     private GameModel gameModel;
     private Stage primaryStage;
     private ImageView selectedPiece = null;
@@ -64,8 +67,14 @@ public class GameController {
     private ArrayList<ImageView> whitePlacementPieces = new ArrayList<>();
     private ArrayList<ImageView> blackPlacementPieces = new ArrayList<>();
 
-    private ArrayList<PieceWrapper> blackPanelPieces = new ArrayList<>(5);
-    private ArrayList<PieceWrapper> whitePanelPieces = new ArrayList<>(5);
+    // The piece instance behind each side panel view, one per piece type and colour.
+    private final Map<Piece, PieceWrapper> panelPieces = new HashMap<>();
+
+    // The model pieces hold no UI state; each piece instance shown on screen gets its view here.
+    private final Map<PieceWrapper, ImageView> pieceViews = new IdentityHashMap<>();
+    private final Map<ImageView, PieceWrapper> viewPieces = new IdentityHashMap<>();
+    // Views of the empty frontier cells, which have no piece to bind to.
+    private final Map<HexCoordinate, ImageView> blankTileViews = new HashMap<>();
 
     private volatile boolean moveMade;
     private boolean[] disableAllPiecesExceptOfQueenBee = new boolean[2];
@@ -74,6 +83,7 @@ public class GameController {
 
     private BorderPane root;
     private AIPlayer aiPlayer;
+    private boolean useSearchEngine;
 
     private MoveAction markedMove = null;
 
@@ -86,16 +96,31 @@ public class GameController {
 
     /**
      * Constructs a GameController with the given stage and human player's piece color.
+     * The AI picks its moves with the alpha-beta search.
      *
      * @param stage             the primary stage for the game window
      * @param humanPiecesColor  the color of the pieces controlled by the human player
      */
     public GameController(Stage stage, PieceColor humanPiecesColor) {
+        this(stage, humanPiecesColor, true);
+    }
+
+    /**
+     * Constructs a GameController with the given stage and human player's piece color, choosing how the AI plays.
+     *
+     * @param stage             the primary stage for the game window
+     * @param humanPiecesColor  the color of the pieces controlled by the human player
+     * @param useSearchEngine   true for the alpha-beta search, false for the finite state machine
+     */
+    public GameController(Stage stage, PieceColor humanPiecesColor, boolean useSearchEngine) {
         primaryStage = stage;
         gameModel = new GameModel();
+        this.useSearchEngine = useSearchEngine;
         if (humanPiecesColor != null) {
             this.humanPiecesColor = humanPiecesColor;
-            aiPlayer = new AIPlayer(gameModel, humanPiecesColor.getOpposite());
+            aiPlayer = useSearchEngine
+                    ? new AIPlayer(gameModel, humanPiecesColor.getOpposite(), SEARCH_DEPTH, SEARCH_TIME_MILLIS)
+                    : new AIPlayer(gameModel, humanPiecesColor.getOpposite());
         }
     }
 
@@ -157,11 +182,11 @@ public class GameController {
         ImageView spiderBlackView = new ImageView(PieceImage.SPIDER_BLACK.getImage());
         ImageView grasshopperBlackView = new ImageView(PieceImage.GRASSHOPPER_BLACK.getImage());
         ImageView beetleBlackView = new ImageView(PieceImage.BEETLE_BLACK.getImage());
-        blackPanelPieces.add(new PieceWrapper(new Piece(PieceType.QUEEN_BEE, BLACK), queenBeeBlackView));
-        blackPanelPieces.add(new PieceWrapper(new Piece(PieceType.ANT, BLACK), antBlackView));
-        blackPanelPieces.add(new PieceWrapper(new Piece(PieceType.SPIDER, BLACK), spiderBlackView));
-        blackPanelPieces.add(new PieceWrapper(new Piece(PieceType.GRASSHOPPER, BLACK), grasshopperBlackView));
-        blackPanelPieces.add(new PieceWrapper(new Piece(PieceType.BEETLE, BLACK), beetleBlackView));
+        bindPanelPiece(Piece.of(PieceType.QUEEN_BEE, BLACK), queenBeeBlackView);
+        bindPanelPiece(Piece.of(PieceType.ANT, BLACK), antBlackView);
+        bindPanelPiece(Piece.of(PieceType.SPIDER, BLACK), spiderBlackView);
+        bindPanelPiece(Piece.of(PieceType.GRASSHOPPER, BLACK), grasshopperBlackView);
+        bindPanelPiece(Piece.of(PieceType.BEETLE, BLACK), beetleBlackView);
 
 
 
@@ -170,11 +195,11 @@ public class GameController {
         ImageView spiderWhiteView = new ImageView(PieceImage.SPIDER_WHITE.getImage());
         ImageView grasshopperWhiteView = new ImageView(PieceImage.GRASSHOPPER_WHITE.getImage());
         ImageView beetleWhiteView = new ImageView(PieceImage.BEETLE_WHITE.getImage());
-        whitePanelPieces.add(new PieceWrapper(new Piece(PieceType.QUEEN_BEE, WHITE), queenBeeWhiteView));
-        whitePanelPieces.add(new PieceWrapper(new Piece(PieceType.ANT, WHITE), antWhiteView));
-        whitePanelPieces.add(new PieceWrapper(new Piece(PieceType.SPIDER, WHITE), spiderWhiteView));
-        whitePanelPieces.add(new PieceWrapper(new Piece(PieceType.GRASSHOPPER, WHITE), grasshopperWhiteView));
-        whitePanelPieces.add(new PieceWrapper(new Piece(PieceType.BEETLE, WHITE), beetleWhiteView));
+        bindPanelPiece(Piece.of(PieceType.QUEEN_BEE, WHITE), queenBeeWhiteView);
+        bindPanelPiece(Piece.of(PieceType.ANT, WHITE), antWhiteView);
+        bindPanelPiece(Piece.of(PieceType.SPIDER, WHITE), spiderWhiteView);
+        bindPanelPiece(Piece.of(PieceType.GRASSHOPPER, WHITE), grasshopperWhiteView);
+        bindPanelPiece(Piece.of(PieceType.BEETLE, WHITE), beetleWhiteView);
 
         Collections.addAll(whitePlacementPieces, queenBeeWhiteView, antWhiteView, spiderWhiteView, grasshopperWhiteView, beetleWhiteView);
         Collections.addAll(blackPlacementPieces, queenBeeBlackView, antBlackView, spiderBlackView, grasshopperBlackView, beetleBlackView);
@@ -279,7 +304,7 @@ public class GameController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == yesButton) {
-            GameController fresh = new GameController(primaryStage, humanPiecesColor);
+            GameController fresh = new GameController(primaryStage, humanPiecesColor, useSearchEngine);
             fresh.setGameScene();
         }
     }
@@ -385,21 +410,31 @@ public class GameController {
         PMap<HexCoordinate, PStack<PieceWrapper>> immutableGrid = gameModel.getGrid();
 
         for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : immutableGrid.entrySet()) {
-            HexCoordinate hexCoordinate = entry.getKey();
-            PieceWrapper pieceWrapper = entry.getValue().get(0);
-            ImageView pieceImageView = (pieceWrapper != null) ? pieceWrapper.getImageView() : new ImageView(PieceImage.BLANK_TILE.getImage());
-
-            Point2D newPixelPosition = hexToPixel(hexCoordinate, centerX, centerY);
+            placeTileView(getImageView(entry.getValue().get(0)), entry.getKey(), centerX, centerY);
+        }
+        for (HexCoordinate hexCoordinate : gameModel.getFrontier()) {
+            placeTileView(getTileView(hexCoordinate), hexCoordinate, centerX, centerY);
+        }
+        gameBoardPane.requestLayout();
+    }
 
-            pieceImageView.setLayoutX(newPixelPosition.getX());
-            pieceImageView.setLayoutY(newPixelPosition.getY());
+    /**
+     * Positions a tile view on the board and adds it to the board pane.
+     *
+     * @param pieceImageView the view to position
+     * @param hexCoordinate  the coordinate the view stands for
+     * @param centerX        the x coordinate of the board centre
+     * @param centerY        the y coordinate of the board centre
+     */
+    private void placeTileView(ImageView pieceImageView, HexCoordinate hexCoordinate, double centerX, double centerY) {
+        Point2D newPixelPosition = hexToPixel(hexCoordinate, centerX, centerY);
 
-            if (!gameBoardPane.getChildren().contains(pieceImageView)) {
-                gameBoardPane.getChildren().add(pieceImageView);
-            }
+        pieceImageView.setLayoutX(newPixelPosition.getX());
+        pieceImageView.setLayoutY(newPixelPosition.getY());
 
+        if (!gameBoardPane.getChildren().contains(pieceImageView)) {
+            gameBoardPane.getChildren().add(pieceImageView);
         }
-        gameBoardPane.requestLayout();
     }
 
     /**
@@ -421,24 +456,22 @@ public class GameController {
         for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : immutableGrid.entrySet()) {
             PieceWrapper pieceWrapper = entry.getValue().get(0);
             assert pieceWrapper != null;
-            ImageView pieceImageView = pieceWrapper.getImageView();
-            if (pieceImageView.getImage() != PieceImage.BLANK_TILE.getImage()) {
-                if (pieceImages.contains(getPieceTypeFromImageView(pieceImageView))) {
-                    pieceImageView.setOnMouseClicked(event -> placedPieceMouseClickedEvent(pieceImageView));
-                    pieceImageView.setOnMouseEntered(event -> placedPieceMouseEnteredEvent(pieceImageView));
-                    pieceImageView.setOnMouseExited(event -> placedPieceMouseExitedEvent(pieceImageView));
+            ImageView pieceImageView = getImageView(pieceWrapper);
+            if (pieceImages.contains(getPieceTypeFromImageView(pieceImageView))) {
+                pieceImageView.setOnMouseClicked(event -> placedPieceMouseClickedEvent(pieceImageView));
+                pieceImageView.setOnMouseEntered(event -> placedPieceMouseEnteredEvent(pieceImageView));
+                pieceImageView.setOnMouseExited(event -> placedPieceMouseExitedEvent(pieceImageView));
+            } else {
+                if (!markedMove.isPlacement()) {
+                    if (((MovementAction) markedMove).getFrom() != entry.getKey() && ((MovementAction) markedMove).getTo() != entry.getKey())
+                        pieceImageView.setStyle(null);
                 } else {
-                    if (!markedMove.isPlacement()) {
-                        if (((MovementAction) markedMove).getFrom() != entry.getKey() && ((MovementAction) markedMove).getTo() != entry.getKey())
-                            pieceImageView.setStyle(null);
-                    } else {
-                        if (((PlacementAction) markedMove).getDestination() != entry.getKey())
-                            pieceImageView.setStyle(null);
-                    }
-                    pieceImageView.setOnMouseClicked(null);
-                    pieceImageView.setOnMouseEntered(null);
-                    pieceImageView.setOnMouseExited(null);
+                    if (((PlacementAction) markedMove).getDestination() != entry.getKey())
+                        pieceImageView.setStyle(null);
                 }
+                pieceImageView.setOnMouseClicked(null);
+                pieceImageView.setOnMouseEntered(null);
+                pieceImageView.setOnMouseExited(null);
             }
         }
     }
@@ -451,12 +484,10 @@ public class GameController {
         for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : immutableGrid.entrySet()) {
             PieceWrapper pieceWrapper = entry.getValue().get(0);
             assert pieceWrapper != null;
-            ImageView pieceImageView = pieceWrapper.getImageView();
-            if (pieceImageView.getImage() != PieceImage.BLANK_TILE.getImage()) {
-                pieceImageView.setOnMouseClicked(null);
-                pieceImageView.setOnMouseEntered(null);
-                pieceImageView.setOnMouseExited(null);
-            }
+            ImageView pieceImageView = getImageView(pieceWrapper);
+            pieceImageView.setOnMouseClicked(null);
+            pieceImageView.setOnMouseEntered(null);
+            pieceImageView.setOnMouseExited(null);
         }
     }
 
@@ -575,26 +606,66 @@ public class GameController {
     }
 
     /**
-     * Retrieves the ImageView associated with a given piece.
+     * Returns the view drawing a piece instance, creating it on first use.
+     *
+     * @param pieceWrapper the piece instance to draw
+     * @return the ImageView bound to this piece instance
+     */
+    private ImageView getImageView(PieceWrapper pieceWrapper) {
+        ImageView imageView = pieceViews.get(pieceWrapper);
+        if (imageView == null) {
+            imageView = new ImageView(PieceImage.fromPiece(pieceWrapper.getPiece()).getImage());
+            bindImageView(pieceWrapper, imageView);
+        }
+        return imageView;
+    }
+
+    /**
+     * Returns the view drawn at a coordinate: the top piece of an occupied cell,
+     * or the blank tile of an empty one.
+     *
+     * @param coordinate the coordinate to draw
+     * @return the ImageView shown at this coordinate
+     */
+    private ImageView getTileView(HexCoordinate coordinate) {
+        PieceWrapper pieceWrapper = gameModel.getPieceWrapperByHexCoordinate(coordinate);
+        if (pieceWrapper != null)
+            return getImageView(pieceWrapper);
+        return blankTileViews.computeIfAbsent(coordinate, key -> new ImageView(PieceImage.BLANK_TILE.getImage()));
+    }
+
+    /**
+     * Binds a view to a piece instance in both directions.
+     *
+     * @param pieceWrapper the piece instance
+     * @param imageView    the view drawing it
+     * @return the piece instance, for chaining
+     */
+    private PieceWrapper bindImageView(PieceWrapper pieceWrapper, ImageView imageView) {
+        pieceViews.put(pieceWrapper, imageView);
+        viewPieces.put(imageView, pieceWrapper);
+        return pieceWrapper;
+    }
+
+    /**
+     * Binds a side panel view to a new piece instance of the given type and colour.
+     *
+     * @param piece     the piece type and colour shown by the view
+     * @param imageView the side panel view
+     */
+    private void bindPanelPiece(Piece piece, ImageView imageView) {
+        panelPieces.put(piece, bindImageView(new PieceWrapper(piece), imageView));
+    }
+
+    /**
+     * Retrieves the side panel ImageView of the current player for the type of a given piece.
      *
      * @param piece the piece whose ImageView is to be retrieved
      * @return the ImageView of the piece, or null if not found
      */
     private ImageView getPieceImageView(PieceWrapper piece) {
-        ImageView pieceImageView = null;
-        if (currentTurn == WHITE) {
-            for (PieceWrapper pieceWrapper : whitePanelPieces) {
-                if (pieceWrapper.getPiece().type() == piece.getPiece().type())
-                    pieceImageView = pieceWrapper.getImageView();
-            }
-        }
-        else if (currentTurn == BLACK) {
-            for (PieceWrapper pieceWrapper : blackPanelPieces) {
-                if (pieceWrapper.getPiece().type() == piece.getPiece().type())
-                    pieceImageView = pieceWrapper.getImageView();
-            }
-        }
-        return pieceImageView;
+        PieceWrapper panelPiece = panelPieces.get(Piece.of(piece.getPiece().type(), currentTurn));
+        return panelPiece == null ? null : pieceViews.get(panelPiece);
     }
 
     /**
@@ -659,7 +730,7 @@ public class GameController {
         unmarkMove();
         PMap<HexCoordinate, PStack<PieceWrapper>> gameGrid = gameModel.getGrid();
         for (HexCoordinate coordinate : winningSurroundingCoords) {
-            ImageView imageView = gameGrid.get(coordinate).get(0).getImageView();
+            ImageView imageView = getTileView(coordinate);
             Platform.runLater(() -> imageView.setStyle("-fx-effect: innershadow(three-pass-box, red, 3, 1.0, 0, 0);"));
         }
     }
@@ -772,7 +843,7 @@ public class GameController {
             }
             imageView.setStyle("-fx-effect: innershadow(gaussian, green, 20, 0.5, 0, 0);");
             selectedPiece = imageView;
-            List<MovementAction> validMovements = gameModel.getValidMoves(gameModel.getGrid(), gameModel.getHexCoordinateByPieceWrapperImage(imageView));
+            List<MovementAction> validMovements = gameModel.getValidMoves(gameModel.getGrid(), gameModel.getHexCoordinateByPieceWrapper(viewPieces.get(imageView)));
             displayValidMovements(validMovements);
             currentDisplayedPlacements = validMovements;
         }
@@ -881,9 +952,9 @@ public class GameController {
         for (MoveAction moveAction : placements) {
             ImageView pieceImageView;
             if (moveAction.isPlacement())
-                pieceImageView = gridState.get(((PlacementAction) moveAction).getDestination()).get(0).getImageView();
+                pieceImageView = getTileView(((PlacementAction) moveAction).getDestination());
             else
-                pieceImageView = gridState.get(((MovementAction) moveAction).getTo()).get(0).getImageView();
+                pieceImageView = getTileView(((MovementAction) moveAction).getTo());
             pieceImageView.setStyle(null);
             pieceImageView.setOnMouseClicked(null);
             pieceImageView.setOnMouseEntered(null);
@@ -900,18 +971,11 @@ public class GameController {
      * @return The PieceWrapper associated with the ImageView, or null if no match is found.
      */
     private PieceWrapper getPieceWrapperByImageView(ImageView imageView) {
-        if (currentTurn == WHITE) {
-            for (PieceWrapper pieceWrapper : whitePanelPieces) {
-                if (pieceWrapper.getImageView().equals(imageView))
-                    return pieceWrapper;
-            }
-        } else if (currentTurn == BLACK) {
-            for (PieceWrapper pieceWrapper : blackPanelPieces) {
-                if (pieceWrapper.getImageView().equals(imageView))
-                    return pieceWrapper;
-            }
-        }
-        return null;
+        PieceWrapper pieceWrapper = viewPieces.get(imageView);
+        if (pieceWrapper == null || pieceWrapper.getPiece().color() != currentTurn)
+            return null;
+        // Only side panel pieces are placed, pieces on the board are moved.
+        return panelPieces.get(pieceWrapper.getPiece()) == pieceWrapper ? pieceWrapper : null;
     }
 
     /**
@@ -923,7 +987,7 @@ public class GameController {
      */
     private void displayValidPlacements(List<PlacementAction> placements) {
         for (PlacementAction placement : placements) {
-            ImageView pieceImageView = gameModel.getGrid().get(placement.getDestination()).get(0).getImageView();
+            ImageView pieceImageView = getTileView(placement.getDestination());
 
             pieceImageView.setStyle("-fx-effect: innershadow(three-pass-box, yellow, 3, 1.0, 0, 0);");
 
@@ -982,7 +1046,7 @@ public class GameController {
      */
     private void displayValidMovements(List<MovementAction> movements) {
         for (MovementAction movementAction : movements) {
-            ImageView pieceImageView = gameModel.getGrid().get(movementAction.getTo()).get(0).getImageView();
+            ImageView pieceImageView = getTileView(movementAction.getTo());
             pieceImageView.setStyle("-fx-effect: innershadow(gaussian, blue, 10, 0.5, 0, 0);");
 
             pieceImageView.setOnMouseClicked(event -> {
@@ -1018,12 +1082,12 @@ public class GameController {
     private void markMove() {
         if (markedMove != null) {
             if (!markedMove.isPlacement()) {
-                ImageView fromImageView = gameModel.getPieceWrapperByHexCoordinate(((MovementAction) markedMove).getFrom()).getImageView();
-                ImageView toImageView = gameModel.getPieceWrapperByHexCoordinate(((MovementAction) markedMove).getTo()).getImageView();
+                ImageView fromImageView = getTileView(((MovementAction) markedMove).getFrom());
+                ImageView toImageView = getTileView(((MovementAction) markedMove).getTo());
                 fromImageView.setStyle("-fx-effect: innershadow(three-pass-box, #0EE600, 3, 1.0, 0, 0);");
                 toImageView.setStyle("-fx-effect: innershadow(three-pass-box, #0EE600, 3, 1.0, 0, 0);");
             } else {
-                ImageView destinationImageView = gameModel.getPieceWrapperByHexCoordinate(((PlacementAction) markedMove).getDestination()).getImageView();
+                ImageView destinationImageView = getTileView(((PlacementAction) markedMove).getDestination());
                 destinationImageView.setStyle("-fx-effect: innershadow(three-pass-box, #0EE600, 3, 1.0, 0, 0);");
             }
         }
@@ -1037,12 +1101,12 @@ public class GameController {
 
         if (markedMove != null) {
             if (!markedMove.isPlacement()) {
-                ImageView fromImageView = gameModel.getPieceWrapperByHexCoordinate(((MovementAction) markedMove).getFrom()).getImageView();
-                ImageView toImageView = gameModel.getPieceWrapperByHexCoordinate(((MovementAction) markedMove).getTo()).getImageView();
+                ImageView fromImageView = getTileView(((MovementAction) markedMove).getFrom());
+                ImageView toImageView = getTileView(((MovementAction) markedMove).getTo());
                 fromImageView.setStyle("");
                 toImageView.setStyle("");
             } else {
-                ImageView destinationImageView = gameModel.getPieceWrapperByHexCoordinate(((PlacementAction) markedMove).getDestination()).getImageView();
+                ImageView destinationImageView = getTileView(((PlacementAction) markedMove).getDestination());
                 destinationImageView.setStyle("");
             }
             markedMove = null;
@@ -4,11 +4,15 @@ import com.example.hive.model.enums.PieceColor;
 import com.example.hive.model.enums.PieceType;
 import com.example.hive.model.enums.State;
 import com.example.hive.model.grid.*;
+import com.example.hive.model.logic.Move;
 import com.example.hive.model.logic.MoveAction;
 import com.example.hive.model.logic.MovementAction;
 import com.example.hive.model.logic.PlacementAction;
+import com.example.hive.model.logic.SearchMoveGenerator;
+import com.example.hive.model.logic.StagedMoveSource;
 import com.example.hive.model.utils.AutoCloseableExecutor;
 import com.example.hive.model.utils.Pair;
+import org.pcollections.ConsPStack;
 import org.pcollections.PMap;
 import org.pcollections.PStack;
 
@@ -16,7 +20,6 @@ import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
-import static com.example.hive.model.grid.ImmutableGrid.removeBlankTiles;
 import static com.example.hive.model.enums.PieceType.*;
 import static com.example.hive.model.enums.State.*;
 
@@ -33,7 +36,7 @@ public class AIPlayer {
     private final PieceColor myColor;
     private boolean mustPlaceQB = false;
 
-    private final Map<ImmutableGrid, Pair<? extends MoveAction, PieceWrapper>> bestMovesCache = new HashMap<>();
+    private final Map<Long, CachedMove> bestMovesCache = new HashMap<>();
 
     private static final int pieceThresholdForSurroundingQB = 5;
     private double opponentQBSurroundPercent = 3;
@@ -48,6 +51,22 @@ public class AIPlayer {
 
     private final PieceType[] pieceTypes = PieceType.values();
 
+    // Alpha-beta search used instead of the FSM when set, with its depth and time limits.
+    private final SearchEngine searchEngine;
+    private final int searchDepth;
+    private final long searchTimeMillis;
+
+    /**
+     * A best move of the FSM, with the grid it was chosen on.
+     * The Zobrist key is relative to the grid window, so a translated position may share it;
+     * the grid tells the two apart.
+     *
+     * @param grid the grid the move was chosen on
+     * @param move the move and the piece to place (null for a movement)
+     */
+    private record CachedMove(PMap<HexCoordinate, PStack<PieceWrapper>> grid, Pair<? extends MoveAction, PieceWrapper> move) {
+    }
+
     /**
      * Holds the results of processing a subset of moves for the threat-blocking phase.
      * This simple DTO is used to merge results from parallel slices of the move list.
@@ -83,6 +102,28 @@ public class AIPlayer {
     public AIPlayer(GameModel gameModel, PieceColor myColor) {
         this.gameModel = gameModel;
         this.myColor = myColor;
+        this.searchEngine = null;
+        this.searchDepth = 0;
+        this.searchTimeMillis = 0;
+    }
+
+    /**
+     * Constructs an AIPlayer that picks its moves with an iterative-deepening alpha-beta search
+     * instead of the FSM.
+     *
+     * @param gameModel the game model instance
+     * @param myColor the color representing this AI player
+     * @param searchDepth the deepest iteration of the search, in plies
+     * @param searchTimeMillis the thinking time per move, or 0 to always reach the depth
+     */
+    public AIPlayer(GameModel gameModel, PieceColor myColor, int searchDepth, long searchTimeMillis) {
+        if (searchDepth < 1)
+            throw new IllegalArgumentException("Search depth must be positive, got " + searchDepth);
+        this.gameModel = gameModel;
+        this.myColor = myColor;
+        this.searchEngine = new SearchEngine();
+        this.searchDepth = searchDepth;
+        this.searchTimeMillis = searchTimeMillis;
     }
 
     /**
@@ -94,15 +135,19 @@ public class AIPlayer {
      */
     public Pair<? extends MoveAction, PieceWrapper> makeMove() {
         Pair<? extends MoveAction, PieceWrapper> move;
-        ImmutableGrid currentGridState = gameModel.getImmutableGridCopy();
-        currentGridState.setGrid(removeBlankTiles(currentGridState.getGrid()));
-        if (!bestMovesCache.containsKey(currentGridState)) {
-            move = determineBestMove();
+        long positionKey = gameModel.getZobristKey();
+        // The search keeps its own bounded table of positions, so only the FSM uses the cache.
+        if (searchEngine != null) {
+            move = searchBestMove();
         } else {
-            return bestMovesCache.get(currentGridState);
+            move = getCachedBestMove(positionKey);
+            if (move == null) {
+                move = determineBestMove();
+                if (move != null)
+                    recordGridForBestMoves(positionKey, move);
+            }
         }
         if (move != null) {
-            recordGridForBestMoves(removeBlankTiles(currentGridState.getGrid()), currentGridState.getPiecesCount(), currentGridState.getTurn(), move);
             if (!move.getKey().isPlacement()) {
                 gameModel.movePiece((MovementAction) move.getKey());
             }
@@ -125,6 +170,21 @@ public class AIPlayer {
     }
 
 
+    /**
+     * Determines the best move available for the AI with the alpha-beta search.
+     *
+     * @return A pair representing the move and the piece to place (null for a movement), or null if the AI must pass.
+     */
+    private Pair<? extends MoveAction, PieceWrapper> searchBestMove() {
+        SearchEngine.Result result = searchEngine.search(gameModel.getGameState(), searchDepth, searchTimeMillis);
+        long move = result.move();
+        if (move == StagedMoveSource.NO_MOVE)
+            return null;
+        if (Move.isPlacement(move))
+            return new Pair<>(Move.toAction(move), PieceWrapper.of(Move.piece(move)));
+        return new Pair<>(Move.toAction(move), null);
+    }
+
     /**
      * Determines the best move available for the AI using FSM logic.
      *
@@ -135,11 +195,9 @@ public class AIPlayer {
 
         List<MovementAction> legalMoves = gameModel.getLegalMoves(myColor);
         List<PlacementAction> legalPlacements = gameModel.getValidPlacements(myColor);
-        List<MoveAction> validMoves = new ArrayList<>();
-        if (!legalMoves.isEmpty())
-            validMoves.addAll(legalMoves);
-        if (!legalPlacements.isEmpty())
-            validMoves.addAll(legalPlacements);
+        if (legalPlacements == null) // No piece left in hand.
+            legalPlacements = Collections.emptyList();
+        List<MoveAction> validMoves = gameModel.getLegalActions(gameModel.getGrid(), myColor);
 
         PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> bestMoves = new PriorityQueue<>();
         PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> oppBestMoves = new PriorityQueue<>();
@@ -151,13 +209,7 @@ public class AIPlayer {
         if (!gameModel.isQueenPlaced(myColor) || placementsCount < 4)
             state = OPENING;
         else {
-            List<MovementAction> oppLegalMoves = gameModel.getLegalMoves(myColor.getOpposite());
-            List<PlacementAction> oppLegalPlacements = gameModel.getValidPlacements(myColor.getOpposite());
-            List<MoveAction> oppValidMoves = new ArrayList<>();
-            if (!oppLegalMoves.isEmpty())
-                oppValidMoves.addAll(oppLegalMoves);
-            if (!oppLegalPlacements.isEmpty())
-                oppValidMoves.addAll(oppLegalPlacements);
+            List<MoveAction> oppValidMoves = gameModel.getLegalActions(gameModel.getGrid(), myColor.getOpposite());
             state = CHECK_IMMEDIATE_WIN;
             bestMoves = getBestSimpleMoves(gameModel.getGrid(), validMoves, myColor);
             oppBestMoves = getBestSimpleMoves(gameModel.getGrid(), oppValidMoves, myColor.getOpposite());
@@ -258,11 +310,11 @@ public class AIPlayer {
      * @param pieceType       the type of piece to place
      * @param legalPlacements list of legal placement coordinates
      * @param random          the Random instance used for selecting a random placement
-     * @return a new PlacementAction with a PieceWrapper containing the piece and its ImageView
+     * @return a new PlacementAction with a PieceWrapper containing the piece
      */
     private Pair<PlacementAction, PieceWrapper> createRandomPlacementAction(PieceType pieceType, List<PlacementAction> legalPlacements, Random random) {
-        // Create a PieceWrapper from the chosen piece and set its corresponding ImageView.
-        PieceWrapper pieceWrapper = new PieceWrapper(new Piece(pieceType, myColor));
+        // Create a PieceWrapper from the chosen piece.
+        PieceWrapper pieceWrapper = PieceWrapper.of(Piece.of(pieceType, myColor));
 
         // Pick a random legal placement coordinate.
         int randomPlacementIndex = random.nextInt(legalPlacements.size());
@@ -334,15 +386,17 @@ public class AIPlayer {
             } else {
                 simulatedGridState = gameModel.simulateMovePiece(gridCopy, (MovementAction) move);
             }
-            if (gameModel.checkWin(simulatedGridState, true).getKey().get(color) && gameModel.checkWin(simulatedGridState, true).getKey().get(color.getOpposite())) {
+            // The end of game conditions are checked once per simulated grid.
+            int winStatus = gameModel.getWinStatus(simulatedGridState, true);
+            if (WinStatus.isWinner(winStatus, color) && WinStatus.isWinner(winStatus, color.getOpposite())) {
                 Pair<Integer, Pair<MoveAction, PieceWrapper>> pair = new Pair<>(5, new Pair<>(move, null));
                 bestMoves.add(pair);
             }
-            else if (gameModel.checkWin(simulatedGridState, true).getKey().get(color) && !gameModel.checkWin(simulatedGridState, true).getKey().get(color.getOpposite())) {
+            else if (WinStatus.isWinner(winStatus, color) && !WinStatus.isWinner(winStatus, color.getOpposite())) {
                 Pair<Integer, Pair<MoveAction, PieceWrapper>> pair = new Pair<>(10, new Pair<>(move, null));
                 bestMoves.add(pair);
             }
-            else if (gameModel.countNeighbours(simulatedGridState, opponentQueenCoord) > numQueenNeighborsBeforeMove && !gameModel.checkWin(simulatedGridState, true).getKey().get(color.getOpposite())) {
+            else if (gameModel.countNeighbours(simulatedGridState, opponentQueenCoord) > numQueenNeighborsBeforeMove && !WinStatus.isWinner(winStatus, color.getOpposite())) {
                 Pair<Integer, Pair<MoveAction, PieceWrapper>> pair = new Pair<>(1, new Pair<>(move, null));
                 bestMoves.add(pair);
             }
@@ -366,29 +420,27 @@ public class AIPlayer {
         while (!remainingPiecesToPlace.containsKey(randomType) || remainingPiecesToPlace.get(randomType) <= 0 || randomType == BLANK) {
             randomType = pieceTypes[random.nextInt(pieceTypes.length)];
         }
-        return new PieceWrapper(new Piece(randomType, color));
+        return PieceWrapper.of(Piece.of(randomType, color));
     }
 
     /**
-     * Checks whether any of the given legal moves on the provided grid copy result in an immediate win for the specified color.
-     * <p>This method simulates each move (or placement) and then calls gameModel.checkWin(). It returns true as soon
-     * as it finds a move that wins exclusively for the given color.</p>
+     * Checks whether any legal move on the provided grid copy results in an immediate win for the specified color.
+     * <p>Moves are drawn one at a time from a staged source, cheapest pieces first, simulated and checked with
+     * gameModel.getWinStatus(). It returns true as soon as it finds a move that wins exclusively for the given color.</p>
      *
      * @param gridCopy the current board state as an immutable grid
-     * @param legalMoves the list of legal moves or placements to test
      * @param color the color of the player to test winning moves for
      * @return true if at least one move yields an immediate win; false otherwise
      */
-    private boolean hasWinningMove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, List<MoveAction> legalMoves, PieceColor color) {
-        PMap<HexCoordinate, PStack<PieceWrapper>> simulatedGridState;
-        for (MoveAction move : legalMoves) {
-            if (!move.isPlacement())
-                simulatedGridState = gameModel.simulateMovePiece(gridCopy, (MovementAction) move);
-            else {
-                PieceWrapper pieceWrapper = pickRandomPiece(color);
-                simulatedGridState = gameModel.simulatePlacePiece(color, gridCopy, pieceWrapper, (PlacementAction) move).getKey();
-            }
-            if (gameModel.checkWin(simulatedGridState, true).getKey().get(color) && !gameModel.checkWin(simulatedGridState, true).getKey().get(color.getOpposite())) {
+    private boolean hasWinningMove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor color) {
+        StagedMoveSource moves = gameModel.getStagedActions(gridCopy, color);
+        for (long move = moves.next(); move != StagedMoveSource.NO_MOVE; move = moves.next()) {
+            // Placements come last and never touch an opponent piece past the opening, so they cannot surround its queen.
+            if (Move.isPlacement(move))
+                return false;
+            PMap<HexCoordinate, PStack<PieceWrapper>> simulatedGridState = gameModel.simulateMovePiece(gridCopy, (MovementAction) Move.toAction(move));
+            int winStatus = gameModel.getWinStatus(simulatedGridState, true);
+            if (WinStatus.isWinner(winStatus, color) && !WinStatus.isWinner(winStatus, color.getOpposite())) {
                 return true;
             }
         }
@@ -405,7 +457,7 @@ public class AIPlayer {
      * </ul>
      *
      * @param slice the subset of moves to evaluate
-     * @param origGrid the original board state before slicing
+     * @param origin the original position before slicing, which carries its placement zones
      * @param myQueenCoord the coordinate of this player's queen in the original grid
      * @param myQueenNeighborsAmount the original number of neighbors around this player's queen
      * @param totalOppMovesBefore the opponent's total legal move count before any slice simulation
@@ -414,7 +466,7 @@ public class AIPlayer {
      */
     private BlockResult processBlockThreatSlice(
             List<MoveAction> slice,
-            PMap<HexCoordinate,PStack<PieceWrapper>> origGrid,
+            ImmutableGrid origin,
             HexCoordinate myQueenCoord,
             int myQueenNeighborsAmount,
             int totalOppMovesBefore,
@@ -424,20 +476,20 @@ public class AIPlayer {
 
         HexCoordinate opponentQueenCoord = gameModel.getQueenCoordinate(myColor.getOpposite());
         PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> bestOpponentMovesPQAfterMove;
+        ImmutableGrid simulated;
         PMap<HexCoordinate,PStack<PieceWrapper>> simGrid;
         PieceWrapper pw;
         for (MoveAction move : slice) {
             // simulate move.
             if (move.isPlacement()) {
                 pw = pickRandomPiece(myColor);
-                simGrid = gameModel.simulatePlacePiece(myColor, origGrid, pw, (PlacementAction) move).getKey();
+                simulated = gameModel.simulatePlacePiece(origin, pw, (PlacementAction) move);
             } else {
-                simGrid = gameModel.simulateMovePiece(origGrid, (MovementAction) move);
+                simulated = gameModel.simulateMovePiece(origin, (MovementAction) move);
             }
+            simGrid = simulated.getGrid();
 
-            List<MoveAction> newOppMoves = new ArrayList<>();
-            newOppMoves.addAll(gameModel.getLegalMoves(simGrid, myColor.getOpposite()));
-            newOppMoves.addAll(gameModel.getValidPlacements(simGrid, myColor.getOpposite()));
+            List<MoveAction> newOppMoves = gameModel.getLegalActions(simulated, myColor.getOpposite());
             bestOpponentMovesPQAfterMove = getBestSimpleMoves(simGrid, newOppMoves, myColor.getOpposite());
 
             int blockedWinningMoves = 0;
@@ -445,8 +497,8 @@ public class AIPlayer {
                 MoveAction bestOpponentMove = pair.getValue().getKey();
                 if (!newOppMoves.contains(bestOpponentMove) || Objects.requireNonNull(bestOpponentMovesPQAfterMove).stream().anyMatch(entry -> entry.getValue().getKey().equals(bestOpponentMove) && entry.getKey() != 10)) {
                     if (pair.getKey() == 10 && (bestOpponentMovesPQAfterMove == null || bestOpponentMovesPQAfterMove.isEmpty() || bestOpponentMovesPQAfterMove.peek().getKey() != 10)) {
-                        Map<PieceColor, Boolean> checkWins = gameModel.checkWin(simGrid, true).getKey();
-                        if (!(checkWins.get(myColor.getOpposite()) && !checkWins.get(myColor)))
+                        int winStatus = gameModel.getWinStatus(simGrid, true);
+                        if (!(WinStatus.isWinner(winStatus, myColor.getOpposite()) && !WinStatus.isWinner(winStatus, myColor)))
                             blockedWinningMoves++; // Track if it blocks a direct win.
                     }
                 }
@@ -460,28 +512,26 @@ public class AIPlayer {
                     assert move instanceof PlacementAction;
                     PieceWrapper pieceWrapper = pickRandomPiece(myColor);
                     res.bestBlockingMove = new Pair<>(move, pieceWrapper);
-                    isBonus = opponentQueenCoord.getNeighbors().contains(((PlacementAction) move).getDestination());
+                    isBonus = opponentQueenCoord.isNeighbor(((PlacementAction) move).getDestination());
                 } else {
                     assert move instanceof MovementAction;
                     if (res.bestBlockingMove == null || blocksWithoutLosingSurrounding((MovementAction) move, simGrid)) {
                         res.bestBlockingMove = new Pair<>(move, null);
-                        isBonus = opponentQueenCoord.getNeighbors().contains(((MovementAction) move).getTo());
+                        isBonus = opponentQueenCoord.isNeighbor(((MovementAction) move).getTo());
                     }
                 }
                 if (isBonus)
                     blockedWinningMoves += 5;
                 res.bestBlockingScore = blockedWinningMoves;
             } else {
-                int currentNumLegalOpponentMoves = gameModel.countTotalLegalMoves(simGrid, myColor.getOpposite());
+                int currentNumLegalOpponentMoves = gameModel.countTotalLegalMoves(simulated, myColor.getOpposite());
                 int numLegalOpponentMovesDiff = totalOppMovesBefore - currentNumLegalOpponentMoves;
-                List<MoveAction> tempLegalOpponentMoves = new ArrayList<>();
-                tempLegalOpponentMoves.addAll(gameModel.getLegalMoves(simGrid, myColor.getOpposite()));
-                tempLegalOpponentMoves.addAll(gameModel.getValidPlacements(simGrid, myColor.getOpposite()));
+                List<MoveAction> tempLegalOpponentMoves = gameModel.getLegalActions(simulated, myColor.getOpposite());
                 PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> bestOpponentMovesAfterMyMove = getBestSimpleMoves(simGrid, tempLegalOpponentMoves, myColor.getOpposite());
                 // 2. Otherwise, pick the move that blocks the most important moves.
                 if (!move.isPlacement()) {
                     assert move instanceof MovementAction;
-                    if (numLegalOpponentMovesDiff > res.bestPartialCount && myQueenCoord.getNeighbors().stream().noneMatch(((MovementAction) move).getTo().getNeighbors()::contains) && gameModel.countNeighbours(simGrid, myQueenCoord) <= myQueenNeighborsAmount && (bestOpponentMovesAfterMyMove == null || bestOpponentMovesAfterMyMove.isEmpty() || bestOpponentMovesAfterMyMove.peek().getKey() != 10)) {
+                    if (numLegalOpponentMovesDiff > res.bestPartialCount && !myQueenCoord.sharesNeighbor(((MovementAction) move).getTo()) && gameModel.countNeighbours(simGrid, myQueenCoord) <= myQueenNeighborsAmount && (bestOpponentMovesAfterMyMove == null || bestOpponentMovesAfterMyMove.isEmpty() || bestOpponentMovesAfterMyMove.peek().getKey() != 10)) {
                         if (res.bestPartialMove == null || blocksWithoutLosingSurrounding((MovementAction) move, simGrid)) {
                             int diffSurroundingsMoves = (int) (oppBestSimple.stream().filter(entry -> entry.getKey() == 1).count() - bestOpponentMovesAfterMyMove.stream().filter(entry -> entry.getKey() == 1).count());
                             res.bestPartialCount = numLegalOpponentMovesDiff + diffSurroundingsMoves * LESS_OPPONENT_SURROUNDING_BONUS;
@@ -490,7 +540,7 @@ public class AIPlayer {
                     }
                 } else {
                     assert move instanceof PlacementAction;
-                    if (numLegalOpponentMovesDiff > res.bestPartialCount && myQueenCoord.getNeighbors().stream().noneMatch(((PlacementAction) move).getDestination().getNeighbors()::contains) && gameModel.countNeighbours(simGrid, myQueenCoord) <= myQueenNeighborsAmount && (bestOpponentMovesAfterMyMove == null || bestOpponentMovesAfterMyMove.isEmpty() || bestOpponentMovesAfterMyMove.peek().getKey() != 10)) {
+                    if (numLegalOpponentMovesDiff > res.bestPartialCount && !myQueenCoord.sharesNeighbor(((PlacementAction) move).getDestination()) && gameModel.countNeighbours(simGrid, myQueenCoord) <= myQueenNeighborsAmount && (bestOpponentMovesAfterMyMove == null || bestOpponentMovesAfterMyMove.isEmpty() || bestOpponentMovesAfterMyMove.peek().getKey() != 10)) {
                         int diffSurroundingsMoves = (int) (oppBestSimple.stream().filter(entry -> entry.getKey() == 1).count() - bestOpponentMovesAfterMyMove.stream().filter(entry -> entry.getKey() == 1).count());
                         res.bestPartialCount = numLegalOpponentMovesDiff + diffSurroundingsMoves * LESS_OPPONENT_SURROUNDING_BONUS;
                         PieceWrapper pieceWrapper = pickRandomPiece(myColor);
@@ -515,7 +565,8 @@ public class AIPlayer {
      * @throws Exception if thread execution or merging is interrupted
      */
     private Pair<MoveAction, PieceWrapper> checkBlockThreat(List<MoveAction> legalMoves) throws Exception {
-        PMap<HexCoordinate, PStack<PieceWrapper>> origGrid = gameModel.getGrid();
+        ImmutableGrid origin = gameModel.getImmutableGridCopy();
+        PMap<HexCoordinate, PStack<PieceWrapper>> origGrid = origin.getGrid();
         HexCoordinate myQueenCoord = gameModel.getQueenCoordinate(myColor);
         HexCoordinate opponentQueenCoord = gameModel.getQueenCoordinate(myColor.getOpposite());
         if (myQueenCoord == null || opponentQueenCoord == null) {return null;}
@@ -526,9 +577,7 @@ public class AIPlayer {
         int totalOppMovesBefore = gameModel.countTotalLegalMoves(origGrid, myColor.getOpposite());
 
         // Get possible moves by opponent to surround our queen.
-        List<MoveAction> legalOpponentMoves = new ArrayList<>();
-        legalOpponentMoves.addAll(gameModel.getLegalMoves(myColor.getOpposite()));
-        legalOpponentMoves.addAll(gameModel.getValidPlacements(myColor.getOpposite()));
+        List<MoveAction> legalOpponentMoves = gameModel.getLegalActions(origGrid, myColor.getOpposite());
 
         PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> oppBestSimple = getBestSimpleMoves(origGrid, legalOpponentMoves, myColor.getOpposite());
 
@@ -542,10 +591,10 @@ public class AIPlayer {
         try (AutoCloseableExecutor ace = new AutoCloseableExecutor(2)) {
             ExecutorService exec = ace.service();
             Future<BlockResult> f1 = exec.submit(() ->
-                    processBlockThreatSlice(slice1, origGrid, myQueenCoord, myQueenNeighbors, totalOppMovesBefore, oppBestSimple)
+                    processBlockThreatSlice(slice1, origin, myQueenCoord, myQueenNeighbors, totalOppMovesBefore, oppBestSimple)
             );
             Future<BlockResult> f2 = exec.submit(() ->
-                    processBlockThreatSlice(slice2, origGrid, myQueenCoord, myQueenNeighbors, totalOppMovesBefore, oppBestSimple)
+                    processBlockThreatSlice(slice2, origin, myQueenCoord, myQueenNeighbors, totalOppMovesBefore, oppBestSimple)
             );
             exec.shutdown();
 
@@ -619,37 +668,42 @@ public class AIPlayer {
         MoveAction bestMove = null;
         int bestScore = -2000;
 
-        List<MoveAction> validMoves = new ArrayList<>();
-        validMoves.addAll(legalMoves);
-        validMoves.addAll(legalPlacements);
-
         HexCoordinate opponentQBCoordinate = gameModel.getQueenCoordinate(myColor.getOpposite());
-        PieceWrapper opponentQBImageView = gameModel.getGrid().get(opponentQBCoordinate).get(0);
+        PieceWrapper opponentQBWrapper = gameModel.getGrid().get(opponentQBCoordinate).get(0);
         int totalOpponentMovesBeforeMove = gameModel.countTotalLegalMoves(gameModel.getGrid(), myColor.getOpposite());
 
         Set<Pair<PieceType, HexCoordinate>> hypotheticDestinationsSet = new HashSet<>();
         PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy;
         if (shouldSurroundQueen()) {
-            for (HexCoordinate coordinate : opponentQBCoordinate.getNeighbors()) {
-                if (gameModel.getGrid().get(coordinate).get(0).getPiece().type() == BLANK) {
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate coordinate = opponentQBCoordinate.getNeighbor(direction);
+                if (!gameModel.getGrid().containsKey(coordinate)) {
                     gridCopy = gameModel.getGrid();
-                    gridCopy = gridCopy.plus(coordinate, gridCopy.get(coordinate).plus(pickRandomPiece(myColor)));
-                    Map<PieceColor, Boolean> winner = gameModel.checkWin(gridCopy, true).getKey();
-                    if (!(winner.get(myColor.getOpposite()) && !winner.get(myColor)))
+                    gridCopy = gridCopy.plus(coordinate, ConsPStack.<PieceWrapper>empty().plus(pickRandomPiece(myColor)));
+                    int winStatus = gameModel.getWinStatus(gridCopy, true);
+                    if (!(WinStatus.isWinner(winStatus, myColor.getOpposite()) && !WinStatus.isWinner(winStatus, myColor)))
                         hypotheticDestinationsSet.addAll(gameModel.getHypotheticDestinationsFrom(coordinate, myColor));
                 }
             }
         }
 
+        // Mobility is counted on a search board; the opponent's replies still read a simulated position.
+        SearchBoard searchBoard = gameModel.createSearchBoard();
+        SearchMoveGenerator generator = new SearchMoveGenerator(searchBoard);
+        ImmutableGrid position = gameModel.getImmutableGridCopy();
+        ImmutableGrid simulated;
         PMap<HexCoordinate, PStack<PieceWrapper>> simulatedGridState;
         int score;
         for (MovementAction move : legalMoves) {
-            simulatedGridState = gameModel.simulateMovePiece(gameModel.getGrid(), move);
-            score = evaluateMobility(simulatedGridState, myColor);
+            simulated = gameModel.simulateMovePiece(position, move);
+            simulatedGridState = simulated.getGrid();
+            searchBoard.doMove(move);
+            score = evaluateMobility(generator, myColor);
+            searchBoard.undoMove();
             // Add a bias to moves so that if scores are similar, moves are preferred.
             if (aiPieceCount >= gameModel.getPlacedPiecesCount(myColor.getOpposite()))
                 score += 20;
-            if (opponentQBImageView != simulatedGridState.get(opponentQBCoordinate).get(0)) {
+            if (opponentQBWrapper != simulatedGridState.get(opponentQBCoordinate).get(0)) {
                 // Only way is that the move is of the beetle and the beetle got on top of the queen.
                 score += 50;
             }
@@ -658,15 +712,13 @@ public class AIPlayer {
             int distanceBeforeMove = move.getFrom().distance(opponentQBCoordinate);
             score += (distanceBeforeMove - distanceAfterMove) * 10;
 
-            List<MoveAction> newLegalOpponentMoves = new ArrayList<>();
-            newLegalOpponentMoves.addAll(gameModel.getLegalMoves(simulatedGridState, myColor.getOpposite()));
-            newLegalOpponentMoves.addAll(gameModel.getValidPlacements(simulatedGridState, myColor.getOpposite()));
-            boolean hasWinningKey = hasWinningMove(simulatedGridState, newLegalOpponentMoves, myColor.getOpposite());
+            List<MoveAction> newLegalOpponentMoves = gameModel.getLegalActions(simulated, myColor.getOpposite());
+            boolean hasWinningKey = hasWinningMove(simulatedGridState, myColor.getOpposite());
             int diffSurroundingsMoves = (int) (oppBestMoves.stream().filter(entry -> entry.getKey() == 1).count() - getBestSimpleMoves(simulatedGridState, newLegalOpponentMoves, myColor.getOpposite()).stream().filter(entry -> entry.getKey() == 1).count());
 
-            if (gameModel.countTotalLegalMoves(simulatedGridState, myColor.getOpposite()) <= totalOpponentMovesBeforeMove && !hasWinningKey && myQueenCoord.getNeighbors().stream().noneMatch(move.getTo().getNeighbors()::contains) && diffSurroundingsMoves >= 0) {
+            if (gameModel.countTotalLegalMoves(simulated, myColor.getOpposite()) <= totalOpponentMovesBeforeMove && !hasWinningKey && !myQueenCoord.sharesNeighbor(move.getTo()) && diffSurroundingsMoves >= 0) {
                 Pair<PieceType, HexCoordinate> pair = new Pair<>(simulatedGridState.get(move.getTo()).get(0).getPiece().type(), move.getTo());
-                if (hypotheticDestinationsSet.contains(pair) && !opponentQBCoordinate.getNeighbors().contains(move.getFrom()) && bestMoves.stream().noneMatch(entry -> entry.getKey() == 1 && !entry.getValue().getKey().isPlacement() && ((MovementAction) entry.getValue().getKey()).getFrom().equals(move.getFrom()))) {
+                if (hypotheticDestinationsSet.contains(pair) && !opponentQBCoordinate.isNeighbor(move.getFrom()) && bestMoves.stream().noneMatch(entry -> entry.getKey() == 1 && !entry.getValue().getKey().isPlacement() && ((MovementAction) entry.getValue().getKey()).getFrom().equals(move.getFrom()))) {
                     return new Pair<>(move, null);
                 }
 
@@ -682,24 +734,24 @@ public class AIPlayer {
         for (PlacementAction placement : legalPlacements) {
             for (Map.Entry<PieceType, Integer> entry : myPiecesCount.entrySet()) {
                 if (entry.getValue() > 0) {
-                    newPlacedPiece = new PieceWrapper(new Piece(entry.getKey(), myColor));
+                    newPlacedPiece = PieceWrapper.of(Piece.of(entry.getKey(), myColor));
 
                     PlacementAction placementAction = new PlacementAction(placement.getDestination());
                     Pair<PlacementAction, Piece> key = new Pair<>(placementAction, newPlacedPiece.getPiece());
-                    simulatedGridState = gameModel.simulatePlacePiece(myColor, gameModel.getGrid(), new PieceWrapper(key.getValue()), key.getKey()).getKey();
-                    score = evaluateMobility(simulatedGridState, myColor);
+                    simulated = gameModel.simulatePlacePiece(position, PieceWrapper.of(key.getValue()), key.getKey());
+                    simulatedGridState = simulated.getGrid();
+                    searchBoard.doPlacement(key.getValue(), key.getKey());
+                    score = evaluateMobility(generator, myColor);
+                    searchBoard.undoMove();
 
                     if (aiPieceCount < gameModel.getPlacedPiecesCount(myColor.getOpposite()))
                         score += 50;
 
-                    List<MoveAction> newLegalOpponentMoves = new ArrayList<>();
-                    newLegalOpponentMoves.addAll(gameModel.getLegalMoves(simulatedGridState, myColor.getOpposite()));
-                    newLegalOpponentMoves.addAll(gameModel.getValidPlacements(simulatedGridState, myColor.getOpposite()));
-                    boolean hasWinningKey = hasWinningMove(simulatedGridState, newLegalOpponentMoves, myColor.getOpposite());
-                    if (!hasWinningKey && myQueenCoord.getNeighbors().stream().noneMatch(placement.getDestination().getNeighbors()::contains)) {
+                    boolean hasWinningKey = hasWinningMove(simulatedGridState, myColor.getOpposite());
+                    if (!hasWinningKey && !myQueenCoord.sharesNeighbor(placement.getDestination())) {
                         Pair<PieceType, HexCoordinate> pair = new Pair<>(simulatedGridState.get(placement.getDestination()).get(0).getPiece().type(), placement.getDestination());
                         if (hypotheticDestinationsSet.contains(pair)) {
-                            return new Pair<>(placement, new PieceWrapper(new Piece(pair.getKey(), myColor)));
+                            return new Pair<>(placement, PieceWrapper.of(Piece.of(pair.getKey(), myColor)));
                         }
                         if (score > bestScore) {
                             pieceToPlace = newPlacedPiece;
@@ -718,14 +770,14 @@ public class AIPlayer {
     }
 
     /**
-     * Evaluates a grid state's mobility score for a player.
+     * Evaluates a position's mobility score for a player.
      *
-     * @param gridState The current game state.
+     * @param generator The generator of the search board holding the position, with its own hands.
      * @param color The player's color.
      * @return The total mobility score.
      */
-    private int evaluateMobility(PMap<HexCoordinate, PStack<PieceWrapper>> gridState, PieceColor color) {
-        return gameModel.countTotalLegalMoves(gridState, color);
+    private int evaluateMobility(SearchMoveGenerator generator, PieceColor color) {
+        return generator.countTotalLegalMoves(color);
     }
 
     /**
@@ -743,12 +795,16 @@ public class AIPlayer {
 
 
 
+        // Mobility and connectivity are scored on a search board, doing and undoing each candidate in place.
+        SearchBoard searchBoard = gameModel.createSearchBoard();
+        SearchMoveGenerator generator = new SearchMoveGenerator(searchBoard);
+
         // Evaluate all moves.
         for (MovementAction move : legalMoves) {
-            PMap<HexCoordinate, PStack<PieceWrapper>> simulatedState = gameModel.simulateMovePiece(gameModel.getGrid(), move);
-
-            int mobilityScore = evaluateMobility(simulatedState, myColor);
-            int connectivityScore = evaluateConnectivity(simulatedState, myColor);
+            searchBoard.doMove(move);
+            int mobilityScore = evaluateMobility(generator, myColor);
+            int connectivityScore = evaluateConnectivity(searchBoard, myColor);
+            searchBoard.undoMove();
             int overallScore = MOBILITY_WEIGHT * mobilityScore + CONNECTIVITY_WEIGHT * connectivityScore;
 
             if (overallScore > bestScore) {
@@ -762,14 +818,15 @@ public class AIPlayer {
         Map<PieceType, Integer> piecesCount = gameModel.getRemainingPiecesToPlace(myColor);
         for (PlacementAction placement : legalPlacements) {
             for (Map.Entry<PieceType, Integer> entry : piecesCount.entrySet()) {
-                PieceWrapper pieceWrapper = new PieceWrapper(new Piece(entry.getKey(), myColor));
+                if (entry.getValue() == 0)
+                    continue;
+                PieceWrapper pieceWrapper = PieceWrapper.of(Piece.of(entry.getKey(), myColor));
 
-                PMap<HexCoordinate, PStack<PieceWrapper>> simulatedState;
                 PlacementAction placementAction = new PlacementAction(placement.getDestination());
-                simulatedState = gameModel.simulatePlacePiece(myColor, gameModel.getGrid(), pieceWrapper, placementAction).getKey();
-
-                int mobilityScore = evaluateMobility(simulatedState, myColor);
-                int connectivityScore = evaluateConnectivity(simulatedState, myColor);
+                searchBoard.doPlacement(pieceWrapper.getPiece(), placementAction);
+                int mobilityScore = evaluateMobility(generator, myColor);
+                int connectivityScore = evaluateConnectivity(searchBoard, myColor);
+                searchBoard.undoMove();
                 int overallScore = MOBILITY_WEIGHT * mobilityScore + CONNECTIVITY_WEIGHT * connectivityScore;
 
                 if (overallScore > bestScore) {
@@ -788,35 +845,20 @@ public class AIPlayer {
     /**
      * Evaluates the board's connectivity score for a given color.
      *
-     * @param gridState The current state of the board.
+     * @param board The current state of the board.
      * @param color The player being evaluated.
      * @return The total connectivity score.
      */
-    private int evaluateConnectivity(PMap<HexCoordinate, PStack<PieceWrapper>> gridState, PieceColor color) {
+    private int evaluateConnectivity(BitboardGrid board, PieceColor color) {
         int connectivityScore = 0;
-        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridState.entrySet()) {
-            PieceWrapper piece = entry.getValue().get(0);
-            if (piece != null && pieceBelongsTo(piece, color)) {
-                int neighbors = gameModel.countNeighbours(gridState, entry.getKey());
-                connectivityScore += neighbors;
-            }
+        boolean white = color == PieceColor.WHITE;
+        for (int cell = board.nextOccupied(-1); cell >= 0; cell = board.nextOccupied(cell)) {
+            if (board.isWhite(cell) == white)
+                connectivityScore += Integer.bitCount(board.getOccupiedNeighbourMask(cell));
         }
         return connectivityScore;
     }
 
-
-    /**
-     * Helper method to check if a given PieceWrapper belongs to the given player (by the player's color).
-     * This method compares the color of the piece contained within the PieceWrapper to the specified player's color.
-     *
-     * @param piece The PieceWrapper to check.
-     * @param color The color of the player (PieceColor) to compare against.
-     * @return true if the piece belongs to the specified player color, false otherwise.
-     */
-    private boolean pieceBelongsTo(PieceWrapper piece, PieceColor color) {
-        return piece.getPiece().color() == color;
-    }
-
     /**
      * Chooses a move or placement that contributes to surrounding the opponent's queen.
      *
@@ -826,9 +868,10 @@ public class AIPlayer {
      */
     private Pair<? extends MoveAction, PieceWrapper> checkSurrounding(PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> bestMoves, PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> oppBestMoves) {
         if (!shouldSurroundQueen()) {return null;}
-        PMap<HexCoordinate, PStack<PieceWrapper>> gridStateBeforeMove = gameModel.getGrid();
-        int totalOpponentMovesBeforeMove =  gameModel.countTotalLegalMoves(gridStateBeforeMove, myColor.getOpposite());
+        ImmutableGrid positionBeforeMove = gameModel.getImmutableGridCopy();
+        int totalOpponentMovesBeforeMove =  gameModel.countTotalLegalMoves(positionBeforeMove.getGrid(), myColor.getOpposite());
         int totalOpponentMovesAfterMove;
+        ImmutableGrid simulated;
         PMap<HexCoordinate, PStack<PieceWrapper>> simulatedGridState;
         Pair<MoveAction, PieceWrapper> bestMove = null;
         MoveAction tempMove;
@@ -842,20 +885,19 @@ public class AIPlayer {
             if (tempMove.isPlacement()) {
                 PieceWrapper pieceWrapper = pickRandomPiece(myColor);
                 Pair<PlacementAction, Piece> key = new Pair<>((PlacementAction) tempMove, pieceWrapper.getPiece());
-                simulatedGridState = gameModel.simulatePlacePiece(myColor, gameModel.getGrid(), new PieceWrapper(key.getValue()), key.getKey()).getKey();
+                simulated = gameModel.simulatePlacePiece(positionBeforeMove, PieceWrapper.of(key.getValue()), key.getKey());
             } else {
-                simulatedGridState = gameModel.simulateMovePiece(gameModel.getGrid(), (MovementAction) tempMove);
+                simulated = gameModel.simulateMovePiece(positionBeforeMove, (MovementAction) tempMove);
             }
+            simulatedGridState = simulated.getGrid();
 
-            totalOpponentMovesAfterMove = gameModel.countTotalLegalMoves(simulatedGridState, myColor.getOpposite());
-            List<MoveAction> newLegalOpponentMoves = new ArrayList<>();
-            newLegalOpponentMoves.addAll(gameModel.getLegalMoves(simulatedGridState, myColor.getOpposite()));
-            newLegalOpponentMoves.addAll(gameModel.getValidPlacements(simulatedGridState, myColor.getOpposite()));
+            totalOpponentMovesAfterMove = gameModel.countTotalLegalMoves(simulated, myColor.getOpposite());
+            List<MoveAction> newLegalOpponentMoves = gameModel.getLegalActions(simulated, myColor.getOpposite());
             PriorityQueue<Pair<Integer, Pair<MoveAction, PieceWrapper>>> bestOpponentMovesPQ = getBestSimpleMoves(simulatedGridState, newLegalOpponentMoves, myColor.getOpposite());
             boolean hasWinningKeyForOpponent = bestOpponentMovesPQ != null && bestOpponentMovesPQ.peek() != null && bestOpponentMovesPQ.peek().getKey() == 10;
             int diffSurroundingsMoves = (int) (oppBestMoves.stream().filter(entry -> entry.getKey() == 1).count() - bestOpponentMovesPQ.stream().filter(entry -> entry.getKey() == 1).count());
 
-            if (totalOpponentMovesAfterMove <= totalOpponentMovesBeforeMove && !gameModel.checkWin(simulatedGridState, true).getKey().get(myColor.getOpposite()) && !hasWinningKeyForOpponent && diffSurroundingsMoves >= 0) {
+            if (totalOpponentMovesAfterMove <= totalOpponentMovesBeforeMove && !WinStatus.isWinner(gameModel.getWinStatus(simulatedGridState, true), myColor.getOpposite()) && !hasWinningKeyForOpponent && diffSurroundingsMoves >= 0) {
                 totalOpponentMovesBeforeMove = totalOpponentMovesAfterMove;
                 if (tempMove.isPlacement()) {
                     if (bestMove == null || newLegalOpponentMoves.stream().noneMatch(move -> move instanceof MovementAction && ((MovementAction) move).getFrom().equals(opponentQBCoord)))
@@ -891,14 +933,36 @@ public class AIPlayer {
     /**
      * Caches the best move for a specific grid configuration to avoid re-computation.
      *
-     * @param gridCopy the grid state
-     * @param piecesCount remaining pieces
-     * @param currentTurn current turn
+     * @param positionKey the Zobrist key of the grid state and turn
      * @param bestMove the move to cache
      */
-    private void recordGridForBestMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, Map<PieceType, Integer> piecesCount, PieceColor currentTurn, Pair<? extends MoveAction, PieceWrapper> bestMove) {
-        ImmutableGrid immutableGrid = new ImmutableGrid(gridCopy, piecesCount, currentTurn);
-        bestMovesCache.put(immutableGrid, bestMove);
+    private void recordGridForBestMoves(long positionKey, Pair<? extends MoveAction, PieceWrapper> bestMove) {
+        bestMovesCache.put(positionKey, new CachedMove(gameModel.getGrid(), bestMove));
+    }
+
+    /**
+     * Returns the cached best move of the current position, if it was chosen on the same grid and is still legal.
+     *
+     * @param positionKey the Zobrist key of the grid state and turn
+     * @return the cached move, or null if there is none to trust
+     */
+    private Pair<? extends MoveAction, PieceWrapper> getCachedBestMove(long positionKey) {
+        CachedMove cached = bestMovesCache.get(positionKey);
+        PMap<HexCoordinate, PStack<PieceWrapper>> grid = gameModel.getGrid();
+        if (cached == null || !cached.grid().equals(grid))
+            return null;
+        Pair<? extends MoveAction, PieceWrapper> move = cached.move();
+        if (move.getKey().isPlacement()) {
+            Piece piece = move.getValue().getPiece();
+            if (gameModel.getRemainingPiecesToPlace(myColor, piece.type()) == 0
+                    || !gameModel.isValidPlacement(grid, ((PlacementAction) move.getKey()).getDestination(), myColor))
+                return null;
+        } else {
+            MovementAction movement = (MovementAction) move.getKey();
+            if (!gameModel.canMovePieces(myColor) || !gameModel.isValidMove(grid, movement.getFrom(), movement.getTo()))
+                return null;
+        }
+        return move;
     }
 
 }
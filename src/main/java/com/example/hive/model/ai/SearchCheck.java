@@ -0,0 +1,202 @@
+package com.example.hive.model.ai;
+
+import com.example.hive.model.enums.EndGameStatus;
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.GameModel;
+import com.example.hive.model.grid.GameState;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.Piece;
+import com.example.hive.model.grid.WinStatus;
+import com.example.hive.model.logic.Move;
+import com.example.hive.model.logic.MoveList;
+import com.example.hive.model.logic.Perft;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * Checks the {@link SearchEngine} on fixed positions, so that a change to the search or to the
+ * evaluation is caught before it reaches the game.
+ * <p>
+ * The first check plays a fixed opening where the white queen ends with five occupied neighbours, and
+ * expects the search to find the ant slide that takes the sixth, scored as a win at the first ply. The
+ * second searches a seeded random position with no depth limit and a short thinking time, and expects
+ * the search to return a legal action once the time is up, within a small slack. The third lets the FSM
+ * of {@link AIPlayer} play both sides of a game and searches each position for the time the FSM took on
+ * it, printing the depths reached; it expects the search never to stop short of the two plies the FSM
+ * looks at, its own action and the replies to it. Positions the FSM answers without thinking are left out.
+ * </p>
+ * <p>
+ * Runs headless from {@link #main(String[])}, which prints the result of each check and exits with
+ * status 1 if one fails.
+ * </p>
+ */
+public final class SearchCheck {
+    private static final long TIME_LIMIT_MILLIS = 300;
+    // Time allowed past the limit, for the nodes between two clock reads and the unwinding of the search.
+    private static final long TIME_SLACK_MILLIS = 200;
+    private static final int UNBOUNDED_DEPTH = 64;
+    // Plies of the game measured against the FSM, before either hand can run out.
+    private static final int MEASURED_PLIES = 20;
+    // The FSM simulates each of its actions and the opponent's replies to it.
+    private static final int FSM_HORIZON = 2;
+    // Positions the FSM answers quicker than this, from its opening rules or its cache, are not measured.
+    private static final long MIN_MEASURED_MILLIS = 5;
+
+    private final GameModel gameModel = new GameModel();
+
+    /**
+     * Checks that the search finds a win in one.
+     *
+     * @return null if the check passed, or a description of the failure
+     */
+    public String checkWinInOne() {
+        GameState state = GameState.initial();
+        state = play(state, place(QUEEN_BEE, WHITE, 0, 0));
+        state = play(state, place(QUEEN_BEE, BLACK, 1, 0));
+        state = play(state, place(GRASSHOPPER, WHITE, -1, 0));
+        state = play(state, place(ANT, BLACK, 2, 0));
+        state = play(state, place(GRASSHOPPER, WHITE, 0, -1));
+        state = play(state, place(ANT, BLACK, 2, -1));
+        state = play(state, place(GRASSHOPPER, WHITE, -1, 1));
+        state = play(state, move(ANT, BLACK, 2, 0, 0, 1));
+        state = play(state, place(ANT, WHITE, -2, 0));
+        // The white queen lacks its neighbour (1,-1), which the black ant on (2,-1) slides into.
+        long winningMove = move(ANT, BLACK, 2, -1, 1, -1);
+        if (state.getWinStatus() != WinStatus.NONE || state.getQueenNeighbours(WHITE) != 5)
+            return "the position should have the white queen one neighbour short";
+
+        SearchEngine.Result result = new SearchEngine().search(state, 2, 0);
+        if (result.move() != winningMove)
+            return "expected " + Move.toString(winningMove) + ", got " + Move.toString(result.move());
+        if (result.score() != SearchEngine.WIN_SCORE - 1)
+            return "expected a win at the first ply, got the score " + result.score();
+        return null;
+    }
+
+    /**
+     * Checks that a search with no depth limit stops at its thinking time.
+     *
+     * @return null if the check passed, or a description of the failure
+     */
+    public String checkTimeLimit() {
+        GameState state = Perft.randomPosition(gameModel, 20, 1L);
+        long start = System.nanoTime();
+        SearchEngine.Result result = new SearchEngine().search(state, UNBOUNDED_DEPTH, TIME_LIMIT_MILLIS);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (elapsed > TIME_LIMIT_MILLIS + TIME_SLACK_MILLIS)
+            return "took " + elapsed + " ms for a limit of " + TIME_LIMIT_MILLIS + " ms";
+        if (result.depth() >= UNBOUNDED_DEPTH)
+            return "reached depth " + result.depth() + " without being stopped by the clock";
+        MoveList actions = new MoveList();
+        gameModel.generateLegalActions(state, actions);
+        if (!actions.contains(result.move()))
+            return "returned the illegal action " + Move.toString(result.move());
+        return null;
+    }
+
+    /**
+     * Checks that the search looks at least as deep as the FSM in the time the FSM takes, and prints
+     * the times and depths measured.
+     *
+     * @return null if the check passed, or a description of the failure
+     */
+    public String checkDepthAtEqualTime() {
+        GameModel game = new GameModel();
+        AIPlayer white = new AIPlayer(game, WHITE);
+        AIPlayer black = new AIPlayer(game, BLACK);
+        SearchEngine engine = new SearchEngine();
+        long fsmMillis = 0;
+        long searchMillis = 0;
+        int positions = 0;
+        int totalDepth = 0;
+        int minDepth = Integer.MAX_VALUE;
+        int maxDepth = 0;
+        String failure = null;
+        for (int ply = 0; ply < MEASURED_PLIES && game.checkWin(false).getValue() == EndGameStatus.NONE; ply++) {
+            GameState state = game.getGameState();
+            long start = System.nanoTime();
+            (game.getTurn() == WHITE ? white : black).makeMove();
+            long fsmElapsed = (System.nanoTime() - start) / 1_000_000;
+            if (fsmElapsed < MIN_MEASURED_MILLIS)
+                continue;
+            start = System.nanoTime();
+            int depth = engine.search(state, UNBOUNDED_DEPTH, fsmElapsed).depth();
+            searchMillis += (System.nanoTime() - start) / 1_000_000;
+            fsmMillis += fsmElapsed;
+            positions++;
+            totalDepth += depth;
+            minDepth = Math.min(minDepth, depth);
+            maxDepth = Math.max(maxDepth, depth);
+            if (depth < FSM_HORIZON && failure == null)
+                failure = "reached depth " + depth + " at ply " + ply + " in the " + fsmElapsed + " ms of the FSM";
+        }
+        if (positions == 0)
+            return "the FSM answered every position in less than " + MIN_MEASURED_MILLIS + " ms";
+        System.out.printf("FSM: %d ms over %d positions; search in the same time: %d ms, depth %.1f on average, %d to %d%n",
+                fsmMillis, positions, searchMillis, (double) totalDepth / positions, minDepth, maxDepth);
+        return failure;
+    }
+
+    /**
+     * @param state the position
+     * @param move  an encoded action, which must be legal
+     * @return the position after the action
+     */
+    private GameState play(GameState state, long move) {
+        MoveList actions = new MoveList();
+        gameModel.generateLegalActions(state, actions);
+        if (!actions.contains(move))
+            throw new IllegalStateException("Illegal action in the fixed line: " + Move.toString(move));
+        return state.apply(move);
+    }
+
+    /**
+     * @param type  the piece type
+     * @param color the piece colour
+     * @param q     the column of the destination
+     * @param r     the row of the destination
+     * @return the encoded placement
+     */
+    private static long place(PieceType type, PieceColor color, int q, int r) {
+        return Move.placement(HexCoordinate.pack(q, r), Piece.of(type, color));
+    }
+
+    /**
+     * @param type  the piece type
+     * @param color the piece colour
+     * @param fromQ the column of the piece
+     * @param fromR the row of the piece
+     * @param toQ   the column of the destination
+     * @param toR   the row of the destination
+     * @return the encoded movement
+     */
+    private static long move(PieceType type, PieceColor color, int fromQ, int fromR, int toQ, int toR) {
+        return Move.movement(HexCoordinate.pack(fromQ, fromR), HexCoordinate.pack(toQ, toR), Piece.of(type, color));
+    }
+
+    /**
+     * Runs the checks from the command line and exits with status 1 if one fails.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        SearchCheck check = new SearchCheck();
+        boolean failed = report("win in one", check.checkWinInOne());
+        failed |= report("time limit", check.checkTimeLimit());
+        failed |= report("depth at equal time", check.checkDepthAtEqualTime());
+        if (failed)
+            System.exit(1);
+    }
+
+    /**
+     * @param name    the name of the check
+     * @param failure the failure of the check, or null if it passed
+     * @return true if the check failed
+     */
+    private static boolean report(String name, String failure) {
+        System.out.println(name + ": " + (failure == null ? "ok" : "FAILED, " + failure));
+        return failure != null;
+    }
+}
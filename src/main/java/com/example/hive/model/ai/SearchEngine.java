@@ -0,0 +1,349 @@
+package com.example.hive.model.ai;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.GameState;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.SearchBoard;
+import com.example.hive.model.grid.WinStatus;
+import com.example.hive.model.logic.Move;
+import com.example.hive.model.logic.MoveList;
+import com.example.hive.model.logic.SearchMoveGenerator;
+import com.example.hive.model.logic.StagedMoveSource;
+
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * An iterative-deepening negamax search with alpha-beta pruning on a {@link SearchBoard}.
+ * <p>
+ * Each iteration searches one ply deeper than the last, with the best root action of the previous
+ * iteration tried first, until the depth limit is reached or the time runs out; an iteration cut short
+ * by the clock is discarded. The root {@link GameState} is copied once into a board, and every line is
+ * then played on it with {@link SearchBoard#doMove(long)} and taken back with {@link SearchBoard#undoMove()}.
+ * Actions come from a {@link SearchMoveGenerator} reading the board, into one reusable {@link MoveList}
+ * per ply, and the leaves are scored by {@link #evaluate(SearchBoard)}, which only reads the queen counts
+ * and the top piece counts the board maintains, so no position is copied and no stack is walked at a leaf.
+ * </p>
+ * <p>
+ * Results are kept in a {@link TranspositionTable}: a position met again, in the same search or a later
+ * one, returns its stored score when it was searched deep enough, and otherwise has its stored best move
+ * tried first. Win scores are stored relative to the position, so they stay right at any ply.
+ * </p>
+ * <p>
+ * A surrounded queen ends the line. A position already met along the line, or in the game history
+ * the search starts from, is scored as a draw, and so is a pass answered by a pass.
+ * </p>
+ * <p>
+ * An engine holds per-search state, so one instance serves one thread; engines searching in parallel
+ * may share one table.
+ * </p>
+ */
+public final class SearchEngine {
+    public static final int WIN_SCORE = 1_000_000;
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    // Scores beyond this bound are wins found at a known ply.
+    private static final int WIN_BOUND = WIN_SCORE - 1_000;
+    // The clock is read once per this many nodes.
+    private static final int TIME_CHECK_INTERVAL = 128;
+    private static final int MAX_PLY = 128;
+
+    // Weights of the evaluation.
+    private static final int QUEEN_PRESSURE_WEIGHT = 60;
+    private static final int QUEEN_IN_HAND_PENALTY = 40;
+    private static final int BEETLE_ON_TOP_BONUS = 15;
+    private static final int[] PIECE_VALUES = new int[PieceType.values().length];
+    private static final PieceType[] PLACEABLE_TYPES = {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE};
+
+    static {
+        PIECE_VALUES[QUEEN_BEE.ordinal()] = 0;
+        PIECE_VALUES[ANT.ordinal()] = 12;
+        PIECE_VALUES[BEETLE.ordinal()] = 10;
+        PIECE_VALUES[GRASSHOPPER.ordinal()] = 7;
+        PIECE_VALUES[SPIDER.ordinal()] = 5;
+    }
+
+    /**
+     * The outcome of a search.
+     *
+     * @param move  the best encoded action of the root, {@link StagedMoveSource#NO_MOVE} if it must pass
+     * @param score the score of the action for the side to move
+     * @param depth the depth of the last completed iteration
+     * @param nodes the number of positions visited
+     */
+    public record Result(long move, int score, int depth, long nodes) {
+    }
+
+    private final TranspositionTable table;
+    private final MoveList[] buffers = new MoveList[MAX_PLY + 1];
+
+    // The root of the current search, with the line being searched done on it.
+    private SearchBoard board;
+    private SearchMoveGenerator generator;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+
+    /**
+     * Creates an engine with a table of the default size.
+     */
+    public SearchEngine() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param table the table of results, which may be shared with other engines
+     */
+    public SearchEngine(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply < buffers.length; ply++)
+            buffers[ply] = new MoveList();
+    }
+
+    /**
+     * Searches the best action of the side to move.
+     *
+     * @param root            the position to search, with the history of its game if it was taken from one
+     * @param maxDepth        the deepest iteration, at least 1
+     * @param timeLimitMillis the thinking time, or 0 for no limit; the first iteration always completes
+     * @return the best action of the deepest completed iteration
+     */
+    public Result search(GameState root, int maxDepth, long timeLimitMillis) {
+        if (maxDepth < 1 || maxDepth > MAX_PLY)
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_PLY + ", got " + maxDepth);
+        nodes = 0;
+        aborted = false;
+        table.newSearch();
+        board = SearchBoard.fromState(root);
+        generator = new SearchMoveGenerator(board);
+        long rootKey = board.getZobristKey();
+
+        MoveList rootMoves = new MoveList();
+        generator.generateLegalActions(rootMoves);
+        if (rootMoves.isEmpty())
+            return new Result(StagedMoveSource.NO_MOVE, 0, 0, 0);
+
+        long bestMove = rootMoves.get(0);
+        TranspositionTable.Entry rootEntry = table.probe(rootKey);
+        if (rootEntry != null && rootMoves.contains(rootEntry.move()))
+            bestMove = rootEntry.move();
+        int bestScore = -INFINITY;
+        int completedDepth = 0;
+        deadline = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            // The first iteration runs unbounded, so there is always a move to return.
+            if (depth == 2 && timeLimitMillis > 0)
+                deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+            long iterationMove = bestMove;
+            int alpha = -INFINITY;
+            // Try the best action of the previous iteration first.
+            for (int i = -1; i < rootMoves.size(); i++) {
+                long move = i < 0 ? bestMove : rootMoves.get(i);
+                if (i >= 0 && move == bestMove)
+                    continue;
+                int score = -searchChild(move, depth - 1, -INFINITY, -alpha, 1);
+                if (aborted)
+                    break;
+                if (score > alpha) {
+                    alpha = score;
+                    iterationMove = move;
+                }
+            }
+            if (aborted)
+                break;
+            bestMove = iterationMove;
+            bestScore = alpha;
+            completedDepth = depth;
+            table.store(rootKey, bestMove, toTable(bestScore, 0), depth, TranspositionTable.EXACT);
+            // A forced win or loss will not change with more depth.
+            if (Math.abs(bestScore) >= WIN_BOUND)
+                break;
+        }
+        return new Result(bestMove, bestScore, completedDepth, nodes);
+    }
+
+    /**
+     * Does an action on the board, searches the child position and takes the action back.
+     *
+     * @param move the encoded action, or {@link StagedMoveSource#NO_MOVE} to pass
+     * @return the score of the child position for its side to move
+     */
+    private int searchChild(long move, int depth, int alpha, int beta, int ply) {
+        boolean passed = move == StagedMoveSource.NO_MOVE;
+        if (passed)
+            board.doPass();
+        else
+            board.doMove(move);
+        int score = negamax(depth, alpha, beta, ply, passed);
+        board.undoMove();
+        return score;
+    }
+
+    /**
+     * Searches the position on the board, already recorded in its history.
+     *
+     * @param depth  the remaining plies
+     * @param alpha  the score the side to move is already sure of
+     * @param beta   the score above which the opponent avoids this position
+     * @param ply    the distance from the root
+     * @param passed whether the position was reached by a pass
+     * @return the score of the position for the side to move
+     */
+    private int negamax(int depth, int alpha, int beta, int ply, boolean passed) {
+        if (++nodes % TIME_CHECK_INTERVAL == 0 && deadline != 0 && System.nanoTime() > deadline)
+            aborted = true;
+        if (aborted)
+            return 0;
+
+        int status = board.getWinStatus();
+        if (status != WinStatus.NONE) {
+            if (status == WinStatus.STALEMATE)
+                return 0;
+            // Quicker wins score higher, slower losses score higher.
+            return WinStatus.isWinOf(status, board.getTurn()) ? WIN_SCORE - ply : -(WIN_SCORE - ply);
+        }
+        if (board.isRepetition())
+            return 0;
+        if (depth == 0 || ply == MAX_PLY)
+            return evaluate(board);
+
+        // A position reached by a pass is a draw if the side to move must pass too, which a stored
+        // result of the same position does not know, so the table is left out there.
+        long key = board.getZobristKey();
+        long tableMove = StagedMoveSource.NO_MOVE;
+        if (!passed) {
+            TranspositionTable.Entry entry = table.probe(key);
+            if (entry != null) {
+                tableMove = entry.move();
+                if (entry.depth() >= depth) {
+                    int score = fromTable(entry.score(), ply);
+                    if (entry.bound() == TranspositionTable.EXACT
+                            || entry.bound() == TranspositionTable.LOWER && score >= beta
+                            || entry.bound() == TranspositionTable.UPPER && score <= alpha)
+                        return score;
+                }
+            }
+        }
+
+        MoveList moves = buffers[ply];
+        moves.clear();
+        generator.generateLegalActions(moves);
+        if (moves.isEmpty()) {
+            if (passed)
+                return 0;
+            return -searchChild(StagedMoveSource.NO_MOVE, depth - 1, -beta, -alpha, ply + 1);
+        }
+        orderMoves(board, moves, tableMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        long bestMove = StagedMoveSource.NO_MOVE;
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            int score = -searchChild(move, depth - 1, -beta, -alpha, ply + 1);
+            if (aborted)
+                return 0;
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta)
+                        break;
+                }
+            }
+        }
+        if (!passed) {
+            int bound = best >= beta ? TranspositionTable.LOWER
+                    : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(key, bestMove, toTable(best, ply), depth, bound);
+        }
+        return best;
+    }
+
+    /**
+     * @param score a score at some ply
+     * @param ply   the distance from the root
+     * @return the score with wins counted from the position instead of the root, for the table
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_BOUND)
+            return score + ply;
+        if (score <= -WIN_BOUND)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * @param score a score read from the table
+     * @param ply   the distance from the root
+     * @return the score with wins counted from the root again
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_BOUND)
+            return score - ply;
+        if (score <= -WIN_BOUND)
+            return score + ply;
+        return score;
+    }
+
+    /**
+     * Moves the best action stored for the position to the front, then the actions landing next to the
+     * opponent's queen, as they are the likeliest to cut.
+     *
+     * @param board     the position
+     * @param moves     the actions of the side to move
+     * @param tableMove the best action stored for the position, or {@link StagedMoveSource#NO_MOVE}
+     */
+    private static void orderMoves(SearchBoard board, MoveList moves, long tableMove) {
+        int front = 0;
+        // The stored move is only trusted once found among the legal ones.
+        for (int i = 0; i < moves.size() && tableMove != StagedMoveSource.NO_MOVE; i++) {
+            if (moves.get(i) == tableMove) {
+                moves.swap(0, i);
+                front = 1;
+                break;
+            }
+        }
+        HexCoordinate queen = board.getQueenCoordinate(board.getTurn().getOpposite());
+        if (queen == null)
+            return;
+        for (int i = front; i < moves.size(); i++) {
+            long move = moves.get(i);
+            if (queen.isNeighbor(HexCoordinate.fromPacked(Move.to(move)))) {
+                moves.swap(front, i);
+                front++;
+            }
+        }
+    }
+
+    /**
+     * Scores a position for the side to move: pressure on the queens, the pieces brought into play,
+     * weighted by type, and the beetles pinning an opponent piece under them.
+     *
+     * @param board the position
+     * @return the score, positive when the side to move stands better
+     */
+    public static int evaluate(SearchBoard board) {
+        PieceColor turn = board.getTurn();
+        PieceColor opponent = turn.getOpposite();
+        int score = QUEEN_PRESSURE_WEIGHT * (board.getQueenNeighbours(opponent) - board.getQueenNeighbours(turn));
+        if (!board.isQueenPlaced(turn))
+            score -= QUEEN_IN_HAND_PENALTY;
+        if (!board.isQueenPlaced(opponent))
+            score += QUEEN_IN_HAND_PENALTY;
+        return score + material(board, turn) - material(board, opponent);
+    }
+
+    /**
+     * @param board the position
+     * @param color the player colour
+     * @return the value of the stacks the player tops, with the bonus of those covering an opponent piece
+     */
+    private static int material(SearchBoard board, PieceColor color) {
+        int value = BEETLE_ON_TOP_BONUS * board.getCoveringPieces(color);
+        for (PieceType type : PLACEABLE_TYPES)
+            value += PIECE_VALUES[type.ordinal()] * board.getTopPieces(color, type);
+        return value;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.hive.model.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results, keyed by the Zobrist key of a position.
+ * <p>
+ * Each entry is three {@code long}s in one flat array: the key XORed with the two data words, the best
+ * move, and the score, depth, bound and search generation packed together. Entries are written and read
+ * without locks, so two threads may interleave their words or a read may see half of a write; the key is
+ * then rebuilt wrong and the entry reads as a miss, so a reader never gets the data of another position.
+ * </p>
+ * <p>
+ * Entries go in buckets of two, picked by the low bits of the key. The first keeps the deepest result,
+ * unless it was stored by an earlier search, and the second always takes the latest one, so deep results
+ * survive while recent shallow ones stay reachable. The memory used is set once, when the table is made.
+ * </p>
+ */
+public final class TranspositionTable {
+    public static final int DEFAULT_MEGABYTES = 16;
+    public static final int MAX_MEGABYTES = 8192;
+
+    // Bound types; 0 marks an empty entry.
+    public static final int EXACT = 1;
+    // The score is at least the stored one: the search failed high.
+    public static final int LOWER = 2;
+    // The score is at most the stored one: the search failed low.
+    public static final int UPPER = 3;
+
+    private static final int LONGS_PER_ENTRY = 3;
+    private static final int ENTRIES_PER_BUCKET = 2;
+    private static final int BUCKET_BYTES = LONGS_PER_ENTRY * ENTRIES_PER_BUCKET * Long.BYTES;
+
+    // Layout of the data word: score, depth, bound and generation, from the low bits.
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 42;
+    private static final int MAX_DEPTH = 0xFF;
+
+    /**
+     * A verified entry of the table.
+     *
+     * @param move  the best encoded move found, or {@link com.example.hive.model.logic.StagedMoveSource#NO_MOVE}
+     * @param score the score stored, as given to {@link #store}
+     * @param depth the remaining depth the score was searched to
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public record Entry(long move, int score, int depth, int bound) {
+    }
+
+    private final long[] slots;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * Creates a table of {@value #DEFAULT_MEGABYTES} megabytes.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * Creates a table within a memory budget.
+     *
+     * @param megabytes the memory budget, from 1 to {@value #MAX_MEGABYTES}; the table takes the largest
+     *                  power of two of buckets that fits
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES)
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_MEGABYTES + " MB, got " + megabytes);
+        int buckets = Integer.highestOneBit((int) (((long) megabytes << 20) / BUCKET_BYTES));
+        slots = new long[buckets * ENTRIES_PER_BUCKET * LONGS_PER_ENTRY];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so that the deep results of the previous ones may be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Looks a position up.
+     *
+     * @param key the Zobrist key of the position
+     * @return the entry stored for the position, or null if there is none or it was torn by a concurrent write
+     */
+    public Entry probe(long key) {
+        int bucket = bucketOf(key);
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+            int slot = bucket + i * LONGS_PER_ENTRY;
+            long check = slots[slot];
+            long move = slots[slot + 1];
+            long data = slots[slot + 2];
+            if ((check ^ move ^ data) == key && bound(data) != 0)
+                return new Entry(move, (int) data, (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH, bound(data));
+        }
+        return null;
+    }
+
+    /**
+     * Stores the result of searching a position.
+     *
+     * @param key   the Zobrist key of the position
+     * @param move  the best encoded move found, or {@link com.example.hive.model.logic.StagedMoveSource#NO_MOVE}
+     * @param score the score of the position
+     * @param depth the remaining depth searched, clamped to 255
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public void store(long key, long move, int score, int depth, int bound) {
+        int currentGeneration = generation;
+        long data = (score & 0xFFFFFFFFL)
+                | (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) currentGeneration << GENERATION_SHIFT;
+        int slot = bucketOf(key);
+        long stored = slots[slot + 2];
+        boolean sameKey = (slots[slot] ^ slots[slot + 1] ^ stored) == key;
+        // The deep entry is only given up for a result as deep, or a stale or empty one.
+        if (bound(stored) != 0 && !sameKey && generation(stored) == currentGeneration
+                && ((int) (stored >>> DEPTH_SHIFT) & MAX_DEPTH) > depth)
+            slot += LONGS_PER_ENTRY;
+        slots[slot] = key ^ move ^ data;
+        slots[slot + 1] = move;
+        slots[slot + 2] = data;
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return slots.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * @param key a Zobrist key
+     * @return the index of the first word of the bucket of the key
+     */
+    private int bucketOf(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * ENTRIES_PER_BUCKET * LONGS_PER_ENTRY;
+    }
+
+    /**
+     * @param data a data word
+     * @return the bound type of the entry, 0 if it is empty
+     */
+    private static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    /**
+     * @param data a data word
+     * @return the generation of the search that stored the entry
+     */
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.hive.model.enums;
 
+import com.example.hive.model.grid.Piece;
 import javafx.scene.image.Image;
 
 import java.util.List;
@@ -49,6 +50,26 @@ public enum PieceImage {
         return image;
     }
 
+    /**
+     * Determines the appropriate PieceImage based on a piece's color and type.
+     *
+     * @param piece the piece to draw.
+     * @return the PieceImage that corresponds to the color and type of the piece.
+     */
+    public static PieceImage fromPiece(Piece piece) {
+        if (piece.color() == PieceColor.NONE)
+            return BLANK_TILE;
+        boolean white = piece.color() == PieceColor.WHITE;
+        return switch (piece.type()) {
+            case QUEEN_BEE -> white ? QUEEN_BEE_WHITE : QUEEN_BEE_BLACK;
+            case ANT -> white ? ANT_WHITE : ANT_BLACK;
+            case SPIDER -> white ? SPIDER_WHITE : SPIDER_BLACK;
+            case GRASSHOPPER -> white ? GRASSHOPPER_WHITE : GRASSHOPPER_BLACK;
+            case BEETLE -> white ? BEETLE_WHITE : BEETLE_BLACK;
+            case BLANK -> BLANK_TILE;
+        };
+    }
+
     /**
      * Returns a list of PieceImage constants that correspond to the specified color.
      *
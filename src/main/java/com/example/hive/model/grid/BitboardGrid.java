@@ -0,0 +1,517 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.logic.MovementAction;
+import com.example.hive.model.logic.PlacementAction;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import java.util.Arrays;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * A bitboard backend for the Hive grid.
+ * <p>
+ * The board is a fixed 32x32 axial window that wraps around on both axes. A Hive position
+ * holds at most 22 pieces, so the hive together with its empty border never spans more than
+ * 24 cells on an axis and two live cells never share a slot of the window.
+ * Occupancy, the colour of the top piece and the type of the top piece are each kept as a
+ * plane of 16 {@code long} words, and every cell keeps its beetle stack as a {@link PackedStack}.
+ * </p>
+ * <p>
+ * The class mirrors the simulate/move/place API of {@link ImmutableGrid}, so the movement
+ * rules can run on it after a single {@link #fromGrid(PMap)} conversion.
+ * </p>
+ */
+public class BitboardGrid {
+    public static final int SIZE = 32;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int MAX_HEIGHT = 7;
+
+    public static final int WORDS = CELLS / Long.SIZE;
+    private static final int MASK = SIZE - 1;
+    private static final int SHIFT = 5;
+
+    // NEIGHBOURS[cell * 6 + direction], in the order of HexCoordinate.DIRECTIONS.
+    private static final int[] NEIGHBOURS = new int[CELLS * 6];
+
+    // Piece codes: 0 is an empty slot, 1..10 encode the colour and type of a piece.
+    private static final Piece[] PIECES_BY_CODE = new Piece[11];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int q = cell >>> SHIFT;
+            int r = cell & MASK;
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate delta = HexCoordinate.DIRECTIONS[direction];
+                NEIGHBOURS[cell * 6 + direction] = index(q + delta.getQ(), r + delta.getR());
+            }
+        }
+        for (PieceColor color : new PieceColor[] {BLACK, WHITE}) {
+            for (PieceType type : new PieceType[] {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE}) {
+                Piece piece = Piece.of(type, color);
+                PIECES_BY_CODE[codeOf(piece)] = piece;
+            }
+        }
+    }
+
+    private final long[] occupied;
+    private final long[] white;
+    private final long[][] types;
+    // One PackedStack per cell.
+    private final long[] stacks;
+    private final HexCoordinate[] coordinates;
+
+    // Scratch buffers of isConnected, allocated on first use and reused afterwards.
+    private long[] visited;
+    private int[] toVisit;
+
+    // Scratch buffers of findArticulationPoints, allocated on first use and reused afterwards.
+    private int[] discovery;
+    private int[] low;
+    private int[] parent;
+    private byte[] nextDirection;
+
+    /**
+     * Constructs an empty bitboard.
+     */
+    public BitboardGrid() {
+        occupied = new long[WORDS];
+        white = new long[WORDS];
+        types = new long[BEETLE.ordinal() + 1][WORDS];
+        stacks = new long[CELLS];
+        coordinates = new HexCoordinate[CELLS];
+    }
+
+    /**
+     * Copy constructor used by the simulate methods.
+     *
+     * @param other the bitboard to copy
+     */
+    private BitboardGrid(BitboardGrid other) {
+        occupied = other.occupied.clone();
+        white = other.white.clone();
+        types = new long[other.types.length][];
+        for (int i = 0; i < types.length; i++)
+            types[i] = other.types[i].clone();
+        stacks = other.stacks.clone();
+        coordinates = other.coordinates.clone();
+    }
+
+    /**
+     * Builds a bitboard from a persistent grid map, skipping blank tiles.
+     *
+     * @param grid the grid map to convert
+     * @return a bitboard holding the same pieces
+     */
+    public static BitboardGrid fromGrid(PMap<HexCoordinate, PStack<PieceWrapper>> grid) {
+        BitboardGrid bitboard = new BitboardGrid();
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
+            PStack<PieceWrapper> stack = entry.getValue();
+            // The stack head is its top, so push from the bottom up.
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                Piece piece = stack.get(i).getPiece();
+                if (piece.type() != BLANK)
+                    bitboard.pushPiece(entry.getKey(), piece);
+            }
+        }
+        return bitboard;
+    }
+
+    /**
+     * Returns the window slot of an axial coordinate.
+     *
+     * @param q the q coordinate
+     * @param r the r coordinate
+     * @return the cell index inside the window
+     */
+    public static int index(int q, int r) {
+        return ((q & MASK) << SHIFT) | (r & MASK);
+    }
+
+    /**
+     * Returns the window slot of a coordinate.
+     *
+     * @param coordinate the coordinate
+     * @return the cell index inside the window
+     */
+    public static int index(HexCoordinate coordinate) {
+        return index(coordinate.getQ(), coordinate.getR());
+    }
+
+    /**
+     * Returns the neighbouring slot of a cell.
+     *
+     * @param cell      the cell index
+     * @param direction the direction index, as in {@link HexCoordinate#DIRECTIONS}
+     * @return the neighbouring cell index
+     */
+    public static int neighbour(int cell, int direction) {
+        return NEIGHBOURS[cell * 6 + direction];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return true if at least one piece stands on the cell
+     */
+    public boolean isOccupied(int cell) {
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * @param coordinate the coordinate to inspect
+     * @return true if at least one piece stands on the coordinate
+     */
+    public boolean isOccupied(HexCoordinate coordinate) {
+        return isOccupied(index(coordinate));
+    }
+
+    /**
+     * @param cell the cell index
+     * @return true if the top piece of the cell is white
+     */
+    public boolean isWhite(int cell) {
+        return (white[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * @param cell the cell index
+     * @param type the piece type to test
+     * @return true if the top piece of the cell has the given type
+     */
+    public boolean isType(int cell, PieceType type) {
+        return type != BLANK && (types[type.ordinal()][cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the number of pieces stacked on the cell
+     */
+    public int getHeight(int cell) {
+        return PackedStack.height(stacks[cell]);
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the stack of the cell, as a {@link PackedStack}
+     */
+    public long getStack(int cell) {
+        return stacks[cell];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the top piece of the cell, or null if the cell is empty
+     */
+    public Piece getTopPiece(int cell) {
+        return PIECES_BY_CODE[PackedStack.top(stacks[cell])];
+    }
+
+    /**
+     * @param cell the cell index
+     * @return the coordinate of an occupied cell, or null if the cell is empty
+     */
+    public HexCoordinate getCoordinate(int cell) {
+        return coordinates[cell];
+    }
+
+    /**
+     * Finds the next occupied cell, in index order. Starting from -1 and feeding each result back
+     * visits every occupied cell once.
+     *
+     * @param cell the cell index to start after, or -1 to start from the first cell
+     * @return the next occupied cell index, or -1 if there is none
+     */
+    public int nextOccupied(int cell) {
+        int from = cell + 1;
+        if (from >= CELLS)
+            return -1;
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == WORDS)
+                return -1;
+            bits = occupied[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns a six bit mask of the occupied neighbours of a cell,
+     * bit {@code d} standing for {@link HexCoordinate#DIRECTIONS}{@code [d]}.
+     *
+     * @param cell the cell index
+     * @return the occupied neighbour mask
+     */
+    public int getOccupiedNeighbourMask(int cell) {
+        int mask = 0;
+        int base = cell * 6;
+        for (int direction = 0; direction < 6; direction++) {
+            int neighbour = NEIGHBOURS[base + direction];
+            mask |= (int) ((occupied[neighbour >>> 6] >>> neighbour) & 1L) << direction;
+        }
+        return mask;
+    }
+
+    /**
+     * Counts occupied neighbour tiles around a given coordinate.
+     *
+     * @param coordinate the coordinate whose neighbours to count
+     * @return number of occupied neighbours
+     */
+    public int countNeighbours(HexCoordinate coordinate) {
+        return Integer.bitCount(getOccupiedNeighbourMask(index(coordinate)));
+    }
+
+    /**
+     * @return number of occupied tiles
+     */
+    public int getTotalOccupiedTiles() {
+        int counter = 0;
+        for (long word : occupied)
+            counter += Long.bitCount(word);
+        return counter;
+    }
+
+    /**
+     * Checks that all occupied cells form a single connected component.
+     *
+     * @return true if the hive is connected (an empty board is connected)
+     */
+    public boolean isConnected() {
+        int start = -1;
+        for (int word = 0; word < WORDS && start < 0; word++) {
+            if (occupied[word] != 0)
+                start = (word << 6) + Long.numberOfTrailingZeros(occupied[word]);
+        }
+        if (start < 0)
+            return true;
+
+        if (visited == null) {
+            visited = new long[WORDS];
+            toVisit = new int[CELLS];
+        } else {
+            Arrays.fill(visited, 0L);
+        }
+        int size = 0, visitedCount = 1;
+        toVisit[size++] = start;
+        visited[start >>> 6] |= 1L << start;
+        while (size > 0) {
+            int base = toVisit[--size] * 6;
+            for (int direction = 0; direction < 6; direction++) {
+                int neighbour = NEIGHBOURS[base + direction];
+                long bit = 1L << neighbour;
+                if ((occupied[neighbour >>> 6] & bit) != 0 && (visited[neighbour >>> 6] & bit) == 0) {
+                    visited[neighbour >>> 6] |= bit;
+                    toVisit[size++] = neighbour;
+                    visitedCount++;
+                }
+            }
+        }
+        return visitedCount == getTotalOccupiedTiles();
+    }
+
+    /**
+     * Finds the articulation points of the hive: the occupied cells whose removal splits it.
+     * A piece alone on such a cell is pinned by the One-Hive rule.
+     * Runs one iterative Tarjan depth-first search over the occupied cells.
+     *
+     * @param cut a bitset of {@code CELLS / 64} words, overwritten with the articulation points
+     * @return true if the hive is connected (an empty board is connected)
+     */
+    public boolean findArticulationPoints(long[] cut) {
+        Arrays.fill(cut, 0L);
+        int root = nextOccupied(-1);
+        if (root < 0)
+            return true;
+
+        if (discovery == null) {
+            discovery = new int[CELLS];
+            low = new int[CELLS];
+            parent = new int[CELLS];
+            nextDirection = new byte[CELLS];
+        } else {
+            Arrays.fill(discovery, 0);
+        }
+        if (toVisit == null)
+            toVisit = new int[CELLS];
+
+        int time = 1, size = 0, rootChildren = 0;
+        discovery[root] = low[root] = time++;
+        parent[root] = -1;
+        nextDirection[root] = 0;
+        toVisit[size++] = root;
+        while (size > 0) {
+            int cell = toVisit[size - 1];
+            if (nextDirection[cell] < 6) {
+                int neighbour = NEIGHBOURS[cell * 6 + nextDirection[cell]++];
+                if (!isOccupied(neighbour))
+                    continue;
+                if (discovery[neighbour] == 0) {
+                    parent[neighbour] = cell;
+                    discovery[neighbour] = low[neighbour] = time++;
+                    nextDirection[neighbour] = 0;
+                    toVisit[size++] = neighbour;
+                    if (cell == root)
+                        rootChildren++;
+                } else if (neighbour != parent[cell]) {
+                    low[cell] = Math.min(low[cell], discovery[neighbour]);
+                }
+            } else {
+                size--;
+                int up = parent[cell];
+                if (up >= 0) {
+                    low[up] = Math.min(low[up], low[cell]);
+                    if (up != root && low[cell] >= discovery[up])
+                        cut[up >>> 6] |= 1L << up;
+                }
+            }
+        }
+        if (rootChildren > 1)
+            cut[root >>> 6] |= 1L << root;
+        return time - 1 == getTotalOccupiedTiles();
+    }
+
+    /**
+     * Moves a piece in place.
+     *
+     * @param move action containing source and target coordinates
+     */
+    public void movePiece(MovementAction move) {
+        Piece piece = popPiece(move.getFrom());
+        pushPiece(move.getTo(), piece);
+    }
+
+    /**
+     * Simulates moving a piece on a copy of this bitboard.
+     *
+     * @param move action describing from/to coordinates
+     * @return new bitboard after movement
+     */
+    public BitboardGrid simulateMovePiece(MovementAction move) {
+        BitboardGrid copy = new BitboardGrid(this);
+        copy.movePiece(move);
+        return copy;
+    }
+
+    /**
+     * Places a piece in place.
+     *
+     * @param piece           the piece to place
+     * @param placementAction destination coordinate info
+     */
+    public void placePiece(Piece piece, PlacementAction placementAction) {
+        pushPiece(placementAction.getDestination(), piece);
+    }
+
+    /**
+     * Simulates placing a piece on a copy of this bitboard.
+     *
+     * @param piece           the piece to place
+     * @param placementAction destination coordinate info
+     * @return new bitboard after placement
+     */
+    public BitboardGrid simulatePlacePiece(Piece piece, PlacementAction placementAction) {
+        BitboardGrid copy = new BitboardGrid(this);
+        copy.placePiece(piece, placementAction);
+        return copy;
+    }
+
+    /**
+     * Pushes a piece on top of the stack at a coordinate.
+     *
+     * @param coordinate the coordinate to push on
+     * @param piece      the piece to push
+     */
+    public void pushPiece(HexCoordinate coordinate, Piece piece) {
+        int cell = index(coordinate);
+        if (PackedStack.height(stacks[cell]) == MAX_HEIGHT)
+            throw new IllegalStateException("Stack is full at " + coordinate);
+        stacks[cell] = PackedStack.push(stacks[cell], codeOf(piece));
+        coordinates[cell] = coordinate;
+        setTop(cell, piece);
+    }
+
+    /**
+     * Pops the top piece of the stack at a coordinate.
+     *
+     * @param coordinate the coordinate to pop from
+     * @return the removed piece
+     */
+    public Piece popPiece(HexCoordinate coordinate) {
+        int cell = index(coordinate);
+        long stack = stacks[cell];
+        if (PackedStack.isEmpty(stack))
+            throw new IllegalStateException("No piece to move at " + coordinate);
+        Piece piece = PIECES_BY_CODE[PackedStack.top(stack)];
+        stacks[cell] = PackedStack.pop(stack);
+        if (PackedStack.isEmpty(stacks[cell]))
+            coordinates[cell] = null;
+        setTop(cell, getTopPiece(cell));
+        return piece;
+    }
+
+    /**
+     * Rewrites the occupancy, colour and type planes of a cell for its new top piece.
+     *
+     * @param cell the cell index
+     * @param top  the new top piece, or null if the cell became empty
+     */
+    private void setTop(int cell, Piece top) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        occupied[word] &= ~bit;
+        white[word] &= ~bit;
+        for (long[] plane : types)
+            plane[word] &= ~bit;
+        if (top != null) {
+            occupied[word] |= bit;
+            if (top.color() == WHITE)
+                white[word] |= bit;
+            types[top.type().ordinal()][word] |= bit;
+        }
+    }
+
+    /**
+     * @param piece a coloured, non-blank piece
+     * @return the code of the piece in the stack table
+     */
+    static int codeOf(Piece piece) {
+        return 1 + (piece.color() == WHITE ? 5 : 0) + piece.type().ordinal();
+    }
+
+    /**
+     * @param code a code of the stack table, not 0
+     * @return the piece of the code
+     */
+    static Piece pieceOf(int code) {
+        return PIECES_BY_CODE[code];
+    }
+
+    /**
+     * Compares this {@code BitboardGrid} to another object.
+     *
+     * @param object The object to compare to.
+     * @return {@code true} if both bitboards hold the same stacks on the same cells.
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (object == null || getClass() != object.getClass()) return false;
+        BitboardGrid that = (BitboardGrid) object;
+        return Arrays.equals(stacks, that.stacks);
+    }
+
+    /**
+     * Returns a hash code value for this {@code BitboardGrid}.
+     *
+     * @return A hash code value for this bitboard.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(stacks);
+    }
+}
@@ -5,8 +5,8 @@ import com.example.hive.model.enums.PieceColor;
 import com.example.hive.model.enums.PieceType;
 import com.example.hive.model.logic.*;
 import com.example.hive.model.utils.Pair;
-import javafx.scene.image.ImageView;
 import org.pcollections.PMap;
+import org.pcollections.PSet;
 import org.pcollections.PStack;
 
 import java.util.*;
@@ -63,10 +63,7 @@ public class GameModel {
      * @return true if any pieces are left to place, false otherwise.
      */
     public boolean isStillLeftPanelPiece(PieceColor currentTurn) {
-        int counter = 0;
-        for (Map.Entry<PieceType, Integer> entry : playerStates.get(currentTurn).getRemainingPiecesToPlace().entrySet())
-            counter += entry.getValue();
-        return counter > 0;
+        return playerStates.get(currentTurn).getRemainingPiecesCount() > 0;
     }
 
     /**
@@ -188,6 +185,17 @@ public class GameModel {
         return immutableGrid.simulateMovePiece(gridCopy, move);
     }
 
+    /**
+     * Simulates a move from a position, carrying its frontier, placement zones, queen surround and key over to the result.
+     *
+     * @param position the position to move from.
+     * @param move the move to perform.
+     * @return the position after the move.
+     */
+    public ImmutableGrid simulateMovePiece(ImmutableGrid position, MovementAction move) {
+        return position.simulateMove(move);
+    }
+
     /**
      * Places a piece on grid.
      *
@@ -197,9 +205,7 @@ public class GameModel {
      * @return a Pair object containing the updated grid and an Integer response indicating if the player must place its Queen Bee by its next turn.
      */
     public Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> placePiece(PieceColor currentTurn, PieceWrapper pieceWrapper, PlacementAction placementAction) {
-        Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> response = immutableGrid.placePiece(this, currentTurn, pieceWrapper, placementAction);
-        immutableGrid.setGrid(response.getKey());
-        return response;
+        return immutableGrid.placePiece(this, currentTurn, pieceWrapper, placementAction);
     }
 
     /**
@@ -215,6 +221,22 @@ public class GameModel {
         return immutableGrid.simulatePlacePiece(this, currentTurn, gridCopy, pieceWrapper, placementAction);
     }
 
+    /**
+     * Simulates the placement of a piece from a position, carrying its frontier, placement zones, queen surround
+     * and key over to the result. The placed tile is the next one of its kind in its owner's hand.
+     *
+     * @param position the position to place on.
+     * @param pieceWrapper the piece to place.
+     * @param placementAction the placement action.
+     * @return the position after the placement.
+     * @throws IllegalStateException if the owner of the piece has none of its kind left in hand.
+     */
+    public ImmutableGrid simulatePlacePiece(ImmutableGrid position, PieceWrapper pieceWrapper, PlacementAction placementAction) {
+        Piece piece = pieceWrapper.getPiece();
+        PieceWrapper tile = PieceWrapper.nextToPlace(piece, getRemainingPiecesToPlace(piece.color(), piece.type()));
+        return position.simulatePlace(tile, placementAction);
+    }
+
     /**
      * Returns a list of all legal movement actions for a player.
      *
@@ -250,6 +272,30 @@ public class GameModel {
         return movementValidator.getValidPlacements(this, gridCopy, currentTurn);
     }
 
+    /**
+     * Checks whether a piece may move between two cells of a grid.
+     *
+     * @param gridCopy the working grid.
+     * @param from coordinate of the piece.
+     * @param to target coordinate.
+     * @return true if the move is valid.
+     */
+    public boolean isValidMove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, HexCoordinate to) {
+        return movementValidator.isValidMove(gridCopy, from, to);
+    }
+
+    /**
+     * Checks whether a player may place a piece on a cell of a grid.
+     *
+     * @param gridCopy the working grid.
+     * @param coord target coordinate.
+     * @param currentTurn the player's color.
+     * @return true if the placement is valid.
+     */
+    public boolean isValidPlacement(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord, PieceColor currentTurn) {
+        return movementValidator.isValidPlacement(this, gridCopy, coord, currentTurn);
+    }
+
     /**
      * Checks if any player has won the game based on the current grid.
      *
@@ -283,13 +329,13 @@ public class GameModel {
     }
 
     /**
-     * Finds the coordinate associated with an imageView.
+     * Finds the coordinate associated with a piece wrapper.
      *
-     * @param imageView the visual representation of a piece.
+     * @param pieceWrapper the piece wrapper instance on the grid.
      * @return coordinate on the grid.
      */
-    public HexCoordinate getHexCoordinateByPieceWrapperImage(ImageView imageView) {
-        return immutableGrid.getHexCoordinateByPieceWrapperImage(imageView);
+    public HexCoordinate getHexCoordinateByPieceWrapper(PieceWrapper pieceWrapper) {
+        return immutableGrid.getHexCoordinateByPieceWrapper(pieceWrapper);
     }
 
     /**
@@ -302,6 +348,63 @@ public class GameModel {
         return immutableGrid.getPieceWrapperByHexCoordinate(coordinate);
     }
 
+    /**
+     * Returns all legal movements and placements of a player on a given grid, in one list.
+     *
+     * @param gridCopy the grid state.
+     * @param currentTurn the player's color.
+     * @return list of legal actions, movements first.
+     */
+    public List<MoveAction> getLegalActions(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        return movementValidator.getLegalActions(this, gridCopy, currentTurn);
+    }
+
+    /**
+     * Returns all legal movements and placements of a player on a simulated position, in one list.
+     * The placements are read from the zones the position carries.
+     *
+     * @param position the position.
+     * @param currentTurn the player's color.
+     * @return list of legal actions, movements first.
+     */
+    public List<MoveAction> getLegalActions(ImmutableGrid position, PieceColor currentTurn) {
+        return movementValidator.getLegalActions(this, position, currentTurn);
+    }
+
+    /**
+     * Returns a lazy source of the legal actions of a player on a given grid, for queries that
+     * can stop at the first action they look for.
+     *
+     * @param gridCopy the grid state.
+     * @param currentTurn the player's color.
+     * @return staged source of the encoded actions, movements first.
+     */
+    public StagedMoveSource getStagedActions(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        return movementValidator.stagedActions(this, gridCopy, currentTurn);
+    }
+
+    /**
+     * Checks whether a player has at least one legal action on a given grid, stopping at the first one found.
+     *
+     * @param gridCopy the grid state.
+     * @param color the player's color.
+     * @return true if the player can move or place a piece.
+     */
+    public boolean hasAnyLegalAction(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor color) {
+        return movementValidator.hasAnyLegalAction(this, gridCopy, color);
+    }
+
+    /**
+     * Checks whether a player of a game state has at least one legal action, stopping at the first one found.
+     *
+     * @param gameState the state to inspect.
+     * @param color the player's color.
+     * @return true if the player can move or place a piece.
+     */
+    public boolean hasAnyLegalAction(GameState gameState, PieceColor color) {
+        return movementValidator.hasAnyLegalAction(gameState, color);
+    }
+
     /**
      * Counts the total legal moves available to a player on a given grid.
      *
@@ -313,6 +416,18 @@ public class GameModel {
         return movementValidator.countTotalLegalMoves(this, gridCopy, currentTurn);
     }
 
+    /**
+     * Counts the total legal moves available to a player on a simulated position.
+     * The placements are read from the zones the position carries.
+     *
+     * @param position the position.
+     * @param currentTurn the player's color.
+     * @return count of legal moves.
+     */
+    public int countTotalLegalMoves(ImmutableGrid position, PieceColor currentTurn) {
+        return movementValidator.countTotalLegalMoves(this, position, currentTurn);
+    }
+
     /**
      * Counts occupied neighbors for a given coordinate in a given grid copy.
      *
@@ -335,6 +450,18 @@ public class GameModel {
         return immutableGrid.checkWin(this, gridCopy, isSimulated);
     }
 
+    /**
+     * Checks the end of game conditions of a grid copy once, as a {@link WinStatus} code,
+     * for callers that would otherwise query the winner map of {@link #checkWin} several times.
+     *
+     * @param gridCopy immutable grid state.
+     * @param isSimulated whether simulation mode.
+     * @return the status code of the grid.
+     */
+    public int getWinStatus(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, boolean isSimulated) {
+        return immutableGrid.getWinStatus(this, gridCopy, isSimulated);
+    }
+
     /**
      * Returns a list of all legal movement actions for a player on a custom grid.
      *
@@ -346,10 +473,72 @@ public class GameModel {
         return movementValidator.getLegalMoves(gridCopy, currentTurn);
     }
 
+    /**
+     * @return the Zobrist key of the current position.
+     */
+    public long getZobristKey() {
+        return immutableGrid.getZobristKey();
+    }
+
+    /**
+     * @return the keys of the positions played since the last placement, or null if none was recorded.
+     */
+    public RepetitionHistory getRepetitionHistory() {
+        return immutableGrid.getRepetitionHistory();
+    }
+
+    /**
+     * Builds a mutable search board from the current position.
+     *
+     * @return a new search board holding the current pieces, hands and side to move.
+     */
+    public SearchBoard createSearchBoard() {
+        return SearchBoard.fromGrid(immutableGrid);
+    }
+
+    /**
+     * Takes an immutable snapshot of the game, for simulations that must not touch this model.
+     *
+     * @return the current game state.
+     */
+    public GameState getGameState() {
+        return GameState.of(this);
+    }
+
+    /**
+     * Gets all valid placement options for the side to move of a game state.
+     *
+     * @param gameState the state to inspect.
+     * @return list of legal placements, or null if the side to move has no piece left to place.
+     */
+    public List<PlacementAction> getValidPlacements(GameState gameState) {
+        return movementValidator.getValidPlacements(gameState);
+    }
+
+    /**
+     * Appends every encoded legal action of the side to move of a game state: movements, then placements.
+     *
+     * @param gameState the state to inspect.
+     * @param moves     the list to fill.
+     */
+    public void generateLegalActions(GameState gameState, MoveList moves) {
+        movementValidator.generateLegalActions(gameState, moves);
+    }
+
+    /**
+     * Takes a snapshot of the current position, sharing the fields the live grid maintains.
+     *
+     * @return a grid holding the current position, with a copy of the repetition history.
+     */
     public ImmutableGrid getImmutableGridCopy() {
-        return new ImmutableGrid(immutableGrid.getGrid(), immutableGrid.getPiecesCount(), immutableGrid.getTurn());
+        return immutableGrid.snapshot();
     }
 
+    /**
+     * @return the empty cells touching the current grid.
+     */
+    public PSet<HexCoordinate> getFrontier() { return immutableGrid.getFrontier(); }
+
     /**
      * @return the current grid map.
      */
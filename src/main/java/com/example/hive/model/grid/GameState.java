@@ -0,0 +1,307 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.logic.Move;
+import com.example.hive.model.logic.MovementAction;
+import com.example.hive.model.logic.PlacementAction;
+import org.pcollections.PMap;
+import org.pcollections.PSet;
+import org.pcollections.PStack;
+
+import java.util.Map;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * An immutable snapshot of a whole game: the board, the hand of each player, the queen
+ * coordinates, the move counts and the side to move.
+ * <p>
+ * Applying a move never changes a state, it returns a new one that shares the persistent board
+ * with its parent. A state reads nothing from a {@link GameModel}, so several states can be
+ * explored several plies deep, or from several threads, without touching the real game.
+ * </p>
+ */
+public final class GameState {
+    // Turn at which a player who has not placed the queen yet must place it, as in ImmutableGrid.
+    private static final int QUEEN_DEADLINE_MOVE = 3;
+
+    // Position after the last move; never mutated, only simulated from.
+    private final ImmutableGrid board;
+    // Per-player tables are indexed by colorIndex. The arrays are never written after construction.
+    private final int[][] hands;
+    private final int[] handTotals;
+    private final HexCoordinate[] queenCoordinates;
+    private final int[] moveCounts;
+
+    /**
+     * Internal constructor, taking ownership of the given arrays.
+     */
+    private GameState(ImmutableGrid board, int[][] hands, int[] handTotals, HexCoordinate[] queenCoordinates, int[] moveCounts) {
+        this.board = board;
+        this.hands = hands;
+        this.handTotals = handTotals;
+        this.queenCoordinates = queenCoordinates;
+        this.moveCounts = moveCounts;
+    }
+
+    /**
+     * Returns the state of a new game: an empty board, full hands and white to move.
+     *
+     * @return the initial game state
+     */
+    public static GameState initial() {
+        ImmutableGrid board = new ImmutableGrid();
+        Map<PieceType, Integer> piecesCount = board.getPiecesCount();
+        int[][] hands = new int[2][BEETLE.ordinal() + 1];
+        int total = 0;
+        for (Map.Entry<PieceType, Integer> entry : piecesCount.entrySet()) {
+            hands[0][entry.getKey().ordinal()] = entry.getValue();
+            hands[1][entry.getKey().ordinal()] = entry.getValue();
+            total += entry.getValue();
+        }
+        return new GameState(board, hands, new int[] {total, total}, new HexCoordinate[2], new int[2]);
+    }
+
+    /**
+     * Takes a snapshot of a game in progress. The board is shared with the game as it stands, with its
+     * frontier, zones, queen surround and key, and carries the repetition history of the game.
+     *
+     * @param gameModel the game to copy
+     * @return a state holding the same board, hands, queens, move counts, side to move and history
+     */
+    public static GameState of(GameModel gameModel) {
+        ImmutableGrid board = gameModel.getImmutableGridCopy();
+        int[][] hands = new int[2][BEETLE.ordinal() + 1];
+        int[] handTotals = new int[2];
+        HexCoordinate[] queenCoordinates = new HexCoordinate[2];
+        int[] moveCounts = new int[2];
+        for (PieceColor color : new PieceColor[] {BLACK, WHITE}) {
+            int index = colorIndex(color);
+            for (PieceType type : new PieceType[] {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE}) {
+                hands[index][type.ordinal()] = gameModel.getRemainingPiecesToPlace(color, type);
+                handTotals[index] += hands[index][type.ordinal()];
+            }
+            queenCoordinates[index] = gameModel.isQueenPlaced(color) ? gameModel.getQueenCoordinate(color) : null;
+            moveCounts[index] = gameModel.getMoveCount(color);
+        }
+        return new GameState(board, hands, handTotals, queenCoordinates, moveCounts);
+    }
+
+    /**
+     * Moves the top piece of a stack.
+     *
+     * @param move action containing source and target coordinates
+     * @return the state after the move, with the turn passed to the opponent
+     */
+    public GameState apply(MovementAction move) {
+        Piece piece = getGrid().get(move.getFrom()).get(0).getPiece();
+        HexCoordinate[] queens = queenCoordinates;
+        if (piece.type() == QUEEN_BEE) {
+            queens = queenCoordinates.clone();
+            queens[colorIndex(piece.color())] = move.getTo();
+        }
+        return new GameState(board.simulateMove(move), hands, handTotals, queens, moveCounts);
+    }
+
+    /**
+     * Places a piece from the hand of the side to move.
+     *
+     * @param type            the type of the placed piece
+     * @param placementAction destination coordinate info
+     * @return the state after the placement, with the turn passed to the opponent
+     * @throws IllegalStateException if the side to move has no piece of this type left
+     */
+    public GameState apply(PieceType type, PlacementAction placementAction) {
+        PieceColor color = getTurn();
+        int index = colorIndex(color);
+        if (hands[index][type.ordinal()] == 0)
+            throw new IllegalStateException("No " + type + " left to place for " + color);
+
+        int[][] newHands = {hands[0], hands[1]};
+        newHands[index] = hands[index].clone();
+        newHands[index][type.ordinal()]--;
+        int[] newHandTotals = handTotals.clone();
+        newHandTotals[index]--;
+        int[] newMoveCounts = moveCounts.clone();
+        newMoveCounts[index]++;
+        HexCoordinate[] queens = queenCoordinates;
+        if (type == QUEEN_BEE) {
+            queens = queenCoordinates.clone();
+            queens[index] = placementAction.getDestination();
+        }
+        PieceWrapper tile = PieceWrapper.nextToPlace(Piece.of(type, color), hands[index][type.ordinal()]);
+        ImmutableGrid newBoard = board.simulatePlace(tile, placementAction);
+        return new GameState(newBoard, newHands, newHandTotals, queens, newMoveCounts);
+    }
+
+    /**
+     * Applies an encoded move or placement of the side to move, see {@link Move}.
+     *
+     * @param move the encoded action
+     * @return the state after the action, with the turn passed to the opponent
+     */
+    public GameState apply(long move) {
+        HexCoordinate to = HexCoordinate.fromPacked(Move.to(move));
+        if (Move.isPlacement(move))
+            return apply(Move.type(move), new PlacementAction(to));
+        return apply(new MovementAction(HexCoordinate.fromPacked(Move.from(move)), to));
+    }
+
+    /**
+     * Passes the turn, for positions where the side to move has no legal action.
+     *
+     * @return the state with the turn passed to the opponent
+     */
+    public GameState pass() {
+        return new GameState(board.simulatePass(), hands, handTotals, queenCoordinates, moveCounts);
+    }
+
+    /**
+     * @return the grid map of the board
+     */
+    public PMap<HexCoordinate, PStack<PieceWrapper>> getGrid() {
+        return board.getGrid();
+    }
+
+    /**
+     * @return the empty cells touching the hive
+     */
+    public PSet<HexCoordinate> getFrontier() {
+        return board.getFrontier();
+    }
+
+    /**
+     * @return the empty cells touching each colour
+     */
+    public PlacementZones getPlacementZones() {
+        return board.getPlacementZones();
+    }
+
+    /**
+     * @return the Zobrist key of the board and the side to move
+     */
+    public long getZobristKey() {
+        return board.getZobristKey();
+    }
+
+    /**
+     * Returns the positions the game went through since its last placement, up to this state.
+     * Only a state taken from a game carries them; the states reached from it by {@link #apply(long)}
+     * leave the tracking of their own line to the caller.
+     *
+     * @return the repetition history of the game, which must not be modified, or null if there is none
+     */
+    public RepetitionHistory getRepetitionHistory() {
+        return board.getRepetitionHistory();
+    }
+
+    /**
+     * @return the side to move
+     */
+    public PieceColor getTurn() {
+        return board.getTurn();
+    }
+
+    /**
+     * @param color the player colour
+     * @param type  the piece type
+     * @return the number of pieces of this type the player still holds
+     */
+    public int getRemainingPiecesToPlace(PieceColor color, PieceType type) {
+        return hands[colorIndex(color)][type.ordinal()];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of pieces the player still holds
+     */
+    public int getRemainingPiecesCount(PieceColor color) {
+        return handTotals[colorIndex(color)];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of pieces the player has placed on the board
+     */
+    public int getPlacedPiecesCount(PieceColor color) {
+        return moveCounts[colorIndex(color)];
+    }
+
+    /**
+     * @return the number of pieces placed on the board by both players
+     */
+    public int getPlacedPiecesCount() {
+        return moveCounts[0] + moveCounts[1];
+    }
+
+    /**
+     * @param color the player colour
+     * @return true if the player's queen is on the board
+     */
+    public boolean isQueenPlaced(PieceColor color) {
+        return queenCoordinates[colorIndex(color)] != null;
+    }
+
+    /**
+     * @param color the player colour
+     * @return the coordinate of the player's queen, or null if it is not on the board
+     */
+    public HexCoordinate getQueenCoordinate(PieceColor color) {
+        return queenCoordinates[colorIndex(color)];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the player's move count; like {@link GameModel#getMoveCount}, only placements are counted
+     */
+    public int getMoveCount(PieceColor color) {
+        return moveCounts[colorIndex(color)];
+    }
+
+    /**
+     * Checks the queen rule: a player who has placed three pieces without the queen must place it now.
+     *
+     * @param color the player colour
+     * @return true if the player's next placement must be the queen
+     */
+    public boolean mustPlaceQueen(PieceColor color) {
+        return getMoveCount(color) == QUEEN_DEADLINE_MOVE && !isQueenPlaced(color);
+    }
+
+    /**
+     * @param color the player colour
+     * @return true if the player's queen is on the board with all six neighbours occupied
+     */
+    public boolean isQueenSurrounded(PieceColor color) {
+        return board.getQueenSurround().isSurrounded(color);
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of occupied neighbours of the player's queen, 0 if it is not on the board
+     */
+    public int getQueenNeighbours(PieceColor color) {
+        QueenSurround surround = board.getQueenSurround();
+        return color == WHITE ? surround.whiteNeighbours() : surround.blackNeighbours();
+    }
+
+    /**
+     * Returns which queens are surrounded, read from the counts the board maintains.
+     * Draws are not detected, since they need a search of the actions or the history of the game.
+     *
+     * @return {@link WinStatus#NONE}, {@link WinStatus#WHITE_WINS}, {@link WinStatus#BLACK_WINS} or {@link WinStatus#STALEMATE}
+     */
+    public int getWinStatus() {
+        return board.getQueenSurround().status();
+    }
+
+    /**
+     * @param color a player colour
+     * @return the row of the colour in the per-player tables
+     */
+    private static int colorIndex(PieceColor color) {
+        return color == WHITE ? 1 : 0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.hive.model.grid;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
  * The {@code HexCoordinate} class represents a coordinate in a hexagonal grid.
@@ -18,11 +19,37 @@ public class HexCoordinate implements Comparable<HexCoordinate> {
             new HexCoordinate(0, -1)   // Top-left
     };
 
-    private int q;
-    private int r;
+    // Packed coordinates hold q and r as two biased 12-bit fields, so any axial coordinate
+    // with |q|, |r| < PACK_BIAS fits in an int and neighbours are a single addition away.
+    private static final int PACK_BITS = 12;
+    private static final int PACK_MASK = (1 << PACK_BITS) - 1;
+    private static final int PACK_BIAS = 1 << (PACK_BITS - 1);
+
+    /**
+     * Packed offsets of the 6 neighbours, in the order of {@link #DIRECTIONS}.
+     */
+    public static final int[] PACKED_DIRECTIONS = new int[DIRECTIONS.length];
+
+    // Flyweight table for the coordinates of the playable window around the origin.
+    private static final int INTERN_RADIUS = 32;
+    private static final int INTERN_SIZE = 2 * INTERN_RADIUS + 1;
+    private static final HexCoordinate[] INTERNED = new HexCoordinate[INTERN_SIZE * INTERN_SIZE];
+
+    static {
+        for (int direction = 0; direction < DIRECTIONS.length; direction++)
+            PACKED_DIRECTIONS[direction] = (DIRECTIONS[direction].q << PACK_BITS) + DIRECTIONS[direction].r;
+        for (int q = -INTERN_RADIUS; q <= INTERN_RADIUS; q++) {
+            for (int r = -INTERN_RADIUS; r <= INTERN_RADIUS; r++)
+                INTERNED[(q + INTERN_RADIUS) * INTERN_SIZE + r + INTERN_RADIUS] = new HexCoordinate(q, r);
+        }
+    }
+
+    private final int q;
+    private final int r;
 
     /**
      * Creates a new {@code HexCoordinate} with the specified q and r values.
+     * Prefer {@link #of(int, int)}, which reuses the shared instance inside the playable window.
      *
      * @param q The q coordinate (horizontal axis).
      * @param r The r coordinate (vertical axis).
@@ -32,6 +59,86 @@ public class HexCoordinate implements Comparable<HexCoordinate> {
         this.r = r;
     }
 
+    /**
+     * Returns the {@code HexCoordinate} with the specified q and r values.
+     * Coordinates inside the playable window are interned and never allocated.
+     *
+     * @param q The q coordinate (horizontal axis).
+     * @param r The r coordinate (vertical axis).
+     * @return The coordinate (q, r).
+     */
+    public static HexCoordinate of(int q, int r) {
+        if (q >= -INTERN_RADIUS && q <= INTERN_RADIUS && r >= -INTERN_RADIUS && r <= INTERN_RADIUS)
+            return INTERNED[(q + INTERN_RADIUS) * INTERN_SIZE + r + INTERN_RADIUS];
+        return new HexCoordinate(q, r);
+    }
+
+    /**
+     * Returns the {@code HexCoordinate} encoded by a packed int.
+     *
+     * @param packed The packed coordinate, as returned by {@link #pack(int, int)}.
+     * @return The decoded coordinate.
+     */
+    public static HexCoordinate fromPacked(int packed) {
+        return of(unpackQ(packed), unpackR(packed));
+    }
+
+    /**
+     * Packs an axial coordinate into a single int.
+     *
+     * @param q The q coordinate (horizontal axis).
+     * @param r The r coordinate (vertical axis).
+     * @return The packed coordinate.
+     */
+    public static int pack(int q, int r) {
+        return ((q + PACK_BIAS) << PACK_BITS) | (r + PACK_BIAS);
+    }
+
+    /**
+     * @param packed A packed coordinate.
+     * @return The q coordinate of the packed coordinate.
+     */
+    public static int unpackQ(int packed) {
+        return (packed >>> PACK_BITS) - PACK_BIAS;
+    }
+
+    /**
+     * @param packed A packed coordinate.
+     * @return The r coordinate of the packed coordinate.
+     */
+    public static int unpackR(int packed) {
+        return (packed & PACK_MASK) - PACK_BIAS;
+    }
+
+    /**
+     * Returns a packed neighbour of a packed coordinate.
+     *
+     * @param packed A packed coordinate.
+     * @param direction The direction index, as in {@link #DIRECTIONS}.
+     * @return The packed neighbour.
+     */
+    public static int packedNeighbor(int packed, int direction) {
+        return packed + PACKED_DIRECTIONS[direction];
+    }
+
+    /**
+     * Visits the 6 packed neighbours of a packed coordinate without allocating.
+     *
+     * @param packed A packed coordinate.
+     * @param visitor The visitor called with each packed neighbour.
+     */
+    public static void forEachNeighbor(int packed, IntConsumer visitor) {
+        for (int direction = 0; direction < PACKED_DIRECTIONS.length; direction++)
+            visitor.accept(packed + PACKED_DIRECTIONS[direction]);
+    }
+
+    /**
+     * @return This coordinate packed into a single int.
+     */
+    public int pack() {
+        return pack(q, r);
+    }
+
     /**
      * Returns the q coordinate (horizontal axis).
      *
@@ -57,7 +164,20 @@ public class HexCoordinate implements Comparable<HexCoordinate> {
      * @return A new {@code HexCoordinate} that is the sum of this coordinate and the direction.
      */
     public HexCoordinate add(HexCoordinate direction) {
-        return new HexCoordinate(this.q + direction.q, this.r + direction.r);
+        return of(this.q + direction.q, this.r + direction.r);
+    }
+
+    /**
+     * Returns the neighbouring coordinate in the given direction.
+     * Unlike {@link #getNeighbors()} this does not allocate inside the playable window,
+     * so it is the one to use in loops over {@code 0..5}.
+     *
+     * @param direction The direction index, as in {@link #DIRECTIONS}.
+     * @return The neighbouring {@code HexCoordinate}.
+     */
+    public HexCoordinate getNeighbor(int direction) {
+        HexCoordinate delta = DIRECTIONS[direction];
+        return of(q + delta.q, r + delta.r);
     }
 
     /**
@@ -68,12 +188,12 @@ public class HexCoordinate implements Comparable<HexCoordinate> {
      */
     public Set<HexCoordinate> getNeighbors() {
         return new HashSet<>(Arrays.asList(
-                new HexCoordinate(q + 1, r -1),
-                new HexCoordinate(q + 1, r),
-                new HexCoordinate(q, r + 1),
-                new HexCoordinate(q - 1, r + 1),
-                new HexCoordinate(q - 1, r),
-                new HexCoordinate(q, r - 1)
+                of(q + 1, r -1),
+                of(q + 1, r),
+                of(q, r + 1),
+                of(q - 1, r + 1),
+                of(q - 1, r),
+                of(q, r - 1)
         ));
     }
 
@@ -95,6 +215,28 @@ public class HexCoordinate implements Comparable<HexCoordinate> {
         return (Math.abs(dq) + Math.abs(dq + dr) + Math.abs(dr)) / 2;
     }
 
+    /**
+     * Checks whether a coordinate is one of the 6 neighbours of this coordinate,
+     * without building the neighbour set.
+     *
+     * @param coordinate the coordinate to test
+     * @return true if both coordinates are adjacent
+     */
+    public boolean isNeighbor(HexCoordinate coordinate) {
+        return distance(coordinate) == 1;
+    }
+
+    /**
+     * Checks whether this coordinate and another one have at least one neighbour in common,
+     * which is the case exactly when they are at most two steps apart.
+     *
+     * @param coordinate the coordinate to test
+     * @return true if some tile touches both coordinates
+     */
+    public boolean sharesNeighbor(HexCoordinate coordinate) {
+        return distance(coordinate) <= 2;
+    }
+
     /**
      * Compares this HexCoordinate with another, ordering first by column (q) then by row (r).
      * <p>
@@ -132,7 +274,7 @@ public class HexCoordinate implements Comparable<HexCoordinate> {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getQ(), getR());
+        return 31 * q + r;
     }
 
     /**
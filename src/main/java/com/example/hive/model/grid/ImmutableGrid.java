@@ -2,15 +2,15 @@ package com.example.hive.model.grid;
 
 import com.example.hive.model.enums.EndGameStatus;
 import com.example.hive.model.enums.PieceColor;
-import com.example.hive.model.enums.PieceImage;
 import com.example.hive.model.enums.PieceType;
 import com.example.hive.model.logic.MovementAction;
 import com.example.hive.model.logic.PlacementAction;
 import com.example.hive.model.utils.Pair;
-import javafx.scene.image.ImageView;
 import org.pcollections.HashTreePMap;
+import org.pcollections.HashTreePSet;
 import org.pcollections.PMap;
 import org.pcollections.ConsPStack;
+import org.pcollections.PSet;
 import org.pcollections.PStack;
 
 import java.util.*;
@@ -25,13 +25,44 @@ import static com.example.hive.model.enums.PieceType.ANT;
  * <p>
  * Internally uses persistent (immutable) collections to efficiently simulate
  * moves and placements without mutating the original state.
+ * The grid map only holds occupied cells. The empty cells touching the hive, where pieces
+ * can be placed or moved to, form the frontier, which is kept as a separate set. The empty cells touching
+ * each colour are kept the same way, in {@link PlacementZones}, so placements need no scan of the board.
  * Tracks piece counts, current player's turn, and repetition detection for draws.
+ * Repetitions are counted on the Zobrist keys of the positions in a bounded {@link RepetitionHistory}.
+ * </p>
+ * <p>
+ * Piece instances are indexed by identity to their {@link PieceLocation}, so finding where one piece
+ * stands does not scan the board. The index is built on first lookup and updated by every move and placement.
+ * </p>
+ * <p>
+ * The cells of both queens and their occupied neighbours are kept in a {@link QueenSurround}, updated
+ * from the cells each move touches, so the surround status of a position is read without walking the board.
+ * </p>
+ * <p>
+ * Every position carries a {@link Zobrist} key, updated incrementally on each move,
+ * placement and turn change. Equality and hashing start from this key.
  * </p>
  */
 public class ImmutableGrid {
-    // Persistent map storing grid state: each cell is a persistent stack of PieceWrapper.
+    // The only frontier cell of an empty grid.
+    public static final HexCoordinate ORIGIN = HexCoordinate.of(0, 0);
+
+    // Persistent map storing grid state: each occupied cell is a persistent stack of PieceWrapper.
     private PMap<HexCoordinate, PStack<PieceWrapper>> grid;
 
+    // Empty cells adjacent to the hive, kept in sync with grid.
+    private PSet<HexCoordinate> frontier;
+
+    // Empty cells adjacent to each colour, kept in sync with grid.
+    private PlacementZones placementZones;
+
+    // Queens and their occupied neighbours, kept in sync with grid.
+    private QueenSurround queenSurround;
+
+    // Location of every piece instance on the grid, by identity. Built on first use, then kept in sync.
+    private Map<PieceWrapper, PieceLocation> locations;
+
     private Map<PieceType, Integer> piecesCount = new HashMap<>(){{
         put(GRASSHOPPER, 3);
         put(BEETLE, 2);
@@ -42,20 +73,22 @@ public class ImmutableGrid {
 
     private PieceColor currentTurn = WHITE; // White's turn.
 
-    private final Map<ImmutableGrid, Integer> repetitionCount = new HashMap<>();
+    // Zobrist key of the grid and turn, kept in sync by every mutating method.
+    private long zobristKey;
+
+    // Keys of the real positions since the last placement. Created on first record, so simulated grids carry none.
+    private RepetitionHistory repetitions;
     private static final int REPETITION_THRESHOLD = 3;
 
     /**
-     * Constructs a new empty grid with a single blank tile at origin (0,0).
+     * Constructs a new empty grid, whose frontier is the origin (0,0).
      */
     public ImmutableGrid() {
-        PMap<HexCoordinate, PStack<PieceWrapper>> initialGrid = HashTreePMap.empty();
-        // Initialize the starting cell (0,0) with a blank piece.
-        PStack<PieceWrapper> initialStack = ConsPStack.<PieceWrapper>empty()
-                .plus(new PieceWrapper(new Piece(PieceType.BLANK, PieceColor.NONE),
-                        new ImageView(PieceImage.BLANK_TILE.getImage())));
-        initialGrid = initialGrid.plus(new HexCoordinate(0, 0), initialStack);
-        this.grid = initialGrid;
+        grid = HashTreePMap.empty();
+        frontier = computeFrontier(grid);
+        placementZones = PlacementZones.compute(grid);
+        queenSurround = QueenSurround.EMPTY;
+        zobristKey = Zobrist.hash(grid, currentTurn);
     }
 
     /**
@@ -66,8 +99,29 @@ public class ImmutableGrid {
      * @param currentTurn   the turn color to set
      */
     public ImmutableGrid(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, Map<PieceType, Integer> piecesCount, PieceColor currentTurn) {
+        this(gridCopy, computeFrontier(gridCopy), PlacementZones.compute(gridCopy), QueenSurround.compute(gridCopy), piecesCount, currentTurn,
+                Zobrist.hash(gridCopy, currentTurn));
+    }
+
+    /**
+     * Internal constructor used when the frontier, the zones, the queen surround and the Zobrist key of the new state are already known.
+     *
+     * @param gridCopy       the grid map to initialize
+     * @param frontier       the frontier of the grid map
+     * @param placementZones the placement zones of the grid map
+     * @param queenSurround  the queens of the grid map and their neighbour counts
+     * @param piecesCount   the piece count mapping to carry over
+     * @param currentTurn   the turn color to set
+     * @param zobristKey    the key of the grid and turn
+     */
+    private ImmutableGrid(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PSet<HexCoordinate> frontier, PlacementZones placementZones,
+                          QueenSurround queenSurround, Map<PieceType, Integer> piecesCount, PieceColor currentTurn, long zobristKey) {
+        this.frontier = frontier;
+        this.placementZones = placementZones;
+        this.queenSurround = queenSurround;
         this.piecesCount = piecesCount;
         this.currentTurn = currentTurn;
+        this.zobristKey = zobristKey;
         grid = gridCopy;
     }
 
@@ -75,19 +129,41 @@ public class ImmutableGrid {
      * Records the given grid state to detect repetitions.
      *
      * @param gridCopy      the grid to record
-     * @param piecesCount   the piece counts at this state
      * @param currentTurn   whose turn it is
      * @return the number of times this state has occurred
      */
-    private int recordGridForRepetition(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, Map<PieceType, Integer> piecesCount, PieceColor currentTurn) {
-        ImmutableGrid immutableGrid = new ImmutableGrid(gridCopy, piecesCount, currentTurn);
-        int count = repetitionCount.getOrDefault(immutableGrid, 0) + 1;
-        repetitionCount.put(immutableGrid, count);
-        return count;
+    private int recordGridForRepetition(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        long key = (gridCopy == grid && currentTurn == this.currentTurn) ? zobristKey : Zobrist.hash(gridCopy, currentTurn);
+        if (repetitions == null)
+            repetitions = new RepetitionHistory();
+        return repetitions.push(key);
+    }
+
+    /**
+     * @return the keys of the real positions recorded since the last placement, or null if none was recorded
+     */
+    public RepetitionHistory getRepetitionHistory() {
+        return repetitions;
     }
 
     /**
-     * Counts non-blank neighbour tiles around a given coordinate.
+     * Takes a snapshot of the current position. The grid, frontier, placement zones, queen surround and key
+     * are kept up to date by every move, so the snapshot shares them as they are and nothing is rebuilt.
+     * The repetition history keeps growing with the game, so the snapshot gets a copy of it.
+     *
+     * @return a grid holding the current position, which later moves of this grid leave unchanged
+     */
+    public ImmutableGrid snapshot() {
+        ImmutableGrid copy = new ImmutableGrid(grid, frontier, placementZones, queenSurround, piecesCount, currentTurn, zobristKey);
+        if (repetitions != null) {
+            copy.repetitions = new RepetitionHistory();
+            copy.repetitions.pushAll(repetitions);
+        }
+        return copy;
+    }
+
+    /**
+     * Counts occupied neighbour tiles around a given coordinate.
      *
      * @param gridCopy the grid state to inspect
      * @param coord    the coordinate whose neighbours to count
@@ -95,27 +171,128 @@ public class ImmutableGrid {
      */
     public int countNeighbours(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
         int counter = 0;
-        for (HexCoordinate neighbor : coord.getNeighbors()) {
-            if (gridCopy.containsKey(neighbor) && gridCopy.get(neighbor) != null && Objects.requireNonNull(gridCopy.get(neighbor).get(0)).getPiece().type() != BLANK)
+        for (int direction = 0; direction < 6; direction++) {
+            if (gridCopy.containsKey(coord.getNeighbor(direction)))
                 counter++;
         }
         return counter;
     }
 
     /**
-     * Calculates the total number of occupied tiles (non-blank) in the grid.
+     * Calculates the total number of occupied tiles in the grid.
      *
      * @param gridCopy the grid state to inspect
      * @return number of occupied tiles
      */
     public int getTotalOccupiedTiles(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
-        int counter = 0;
-        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
-            PieceWrapper pieceWrapper = entry.getValue().get(0);
-            if (pieceWrapper.getPiece().type() != BLANK)
-                counter++;
+        return gridCopy.size();
+    }
+
+    /**
+     * Checks whether an empty cell belongs to the frontier of a grid map.
+     *
+     * @param gridCopy the grid state to inspect
+     * @param coord    the coordinate to check
+     * @return true if the cell is empty and touches the hive, or is the origin of an empty grid
+     */
+    public static boolean isFrontier(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        if (gridCopy.containsKey(coord))
+            return false;
+        if (gridCopy.isEmpty())
+            return coord.equals(ORIGIN);
+        for (int direction = 0; direction < 6; direction++) {
+            if (gridCopy.containsKey(coord.getNeighbor(direction)))
+                return true;
         }
-        return counter;
+        return false;
+    }
+
+    /**
+     * Computes the frontier of a grid map from scratch.
+     *
+     * @param gridCopy the grid state to inspect
+     * @return the set of empty cells touching the hive
+     */
+    public static PSet<HexCoordinate> computeFrontier(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        if (gridCopy.isEmpty())
+            return HashTreePSet.singleton(ORIGIN);
+        Set<HexCoordinate> cells = new HashSet<>();
+        for (HexCoordinate coord : gridCopy.keySet()) {
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate neighbor = coord.getNeighbor(direction);
+                if (!gridCopy.containsKey(neighbor))
+                    cells.add(neighbor);
+            }
+        }
+        return HashTreePSet.from(cells);
+    }
+
+    /**
+     * Updates a frontier after the occupancy of one cell changed.
+     * Only the cell itself and its neighbours can enter or leave the frontier.
+     *
+     * @param frontier the frontier before the change
+     * @param gridCopy the grid state after the change
+     * @param changed  the cell that was emptied or filled
+     * @return the frontier of the new grid state
+     */
+    private static PSet<HexCoordinate> updateFrontier(PSet<HexCoordinate> frontier, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate changed) {
+        if (gridCopy.isEmpty())
+            return HashTreePSet.singleton(ORIGIN);
+        frontier = isFrontier(gridCopy, changed) ? frontier.plus(changed) : frontier.minus(changed);
+        for (int direction = 0; direction < 6; direction++) {
+            HexCoordinate neighbor = changed.getNeighbor(direction);
+            frontier = isFrontier(gridCopy, neighbor) ? frontier.plus(neighbor) : frontier.minus(neighbor);
+        }
+        if (!isFrontier(gridCopy, ORIGIN))
+            frontier = frontier.minus(ORIGIN);
+        return frontier;
+    }
+
+    /**
+     * @return the empty cells touching the current grid
+     */
+    public PSet<HexCoordinate> getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * Returns the frontier of a grid map, reusing the maintained frontier for the current grid.
+     *
+     * @param gridCopy the grid state to inspect
+     * @return the set of empty cells touching the hive
+     */
+    public PSet<HexCoordinate> getFrontier(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        return gridCopy == grid ? frontier : computeFrontier(gridCopy);
+    }
+
+    /**
+     * @return the empty cells touching each colour on the current grid
+     */
+    public PlacementZones getPlacementZones() {
+        return placementZones;
+    }
+
+    /**
+     * Returns the placement zones of a grid map, reusing the maintained zones for the current grid.
+     * Any other grid map has them rebuilt; a position that needs its zones after a simulated move is
+     * simulated with {@link #simulateMove} or {@link #simulatePlace}, which carry them over.
+     *
+     * @param gridCopy the grid state to inspect
+     * @return the empty cells touching each colour
+     */
+    public PlacementZones getPlacementZones(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        return gridCopy == grid ? placementZones : PlacementZones.compute(gridCopy);
+    }
+
+    /**
+     * Returns the placement zones of a grid map if they are maintained, without rebuilding them otherwise.
+     *
+     * @param gridCopy the grid state to inspect
+     * @return the empty cells touching each colour, or null if the grid map is not the current grid
+     */
+    public PlacementZones findPlacementZones(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        return gridCopy == grid ? placementZones : null;
     }
 
     /**
@@ -134,8 +311,55 @@ public class ImmutableGrid {
             gameModel.setQueenCoordinate(targetCoord, sourceStack.get(0).getPiece().color());
         advanceTurn();
 
-        PMap<HexCoordinate, PStack<PieceWrapper>> simulatedGridState = simulateMovePiece(grid, move);
-        setGrid(simulatedGridState);
+        zobristKey = Zobrist.move(zobristKey, grid, move);
+        if (locations != null)
+            locations.put(sourceStack.get(0), new PieceLocation(targetCoord, height(grid, targetCoord)));
+        grid = simulateMovePiece(grid, move);
+        frontier = updateFrontier(updateFrontier(frontier, grid, sourceCoord), grid, targetCoord);
+        placementZones = placementZones.update(grid, sourceCoord).update(grid, targetCoord);
+        queenSurround = queenSurround.afterMove(grid, sourceCoord, targetCoord, sourceStack.get(0));
+    }
+
+    /**
+     * Simulates moving a piece on a copy of this position, keeping the Zobrist key up to date.
+     *
+     * @param move action describing from/to coordinates
+     * @return the position after the move, with the turn passed to the opponent
+     */
+    public ImmutableGrid simulateMove(MovementAction move) {
+        long key = Zobrist.move(zobristKey, grid, move) ^ Zobrist.BLACK_TO_MOVE;
+        PMap<HexCoordinate, PStack<PieceWrapper>> newGrid = simulateMovePiece(grid, move);
+        PSet<HexCoordinate> newFrontier = updateFrontier(updateFrontier(frontier, newGrid, move.getFrom()), newGrid, move.getTo());
+        PlacementZones newZones = placementZones.update(newGrid, move.getFrom()).update(newGrid, move.getTo());
+        QueenSurround newSurround = queenSurround.afterMove(newGrid, move.getFrom(), move.getTo(), grid.get(move.getFrom()).get(0));
+        return new ImmutableGrid(newGrid, newFrontier, newZones, newSurround, piecesCount, currentTurn.getOpposite(), key);
+    }
+
+    /**
+     * Simulates placing a piece on a copy of this position, keeping the Zobrist key up to date.
+     * Unlike {@link #simulatePlacePiece}, this reads nothing from the game model, so the caller picks the tile
+     * from its own hand, see {@link PieceWrapper#nextToPlace(Piece, int)}.
+     *
+     * @param pieceWrapper    the tile to place
+     * @param placementAction destination coordinate info
+     * @return the position after the placement, with the turn passed to the opponent
+     */
+    public ImmutableGrid simulatePlace(PieceWrapper pieceWrapper, PlacementAction placementAction) {
+        long key = Zobrist.place(zobristKey, grid, pieceWrapper.getPiece(), placementAction.getDestination()) ^ Zobrist.BLACK_TO_MOVE;
+        PMap<HexCoordinate, PStack<PieceWrapper>> newGrid = placeOnGrid(grid, pieceWrapper, placementAction.getDestination());
+        PSet<HexCoordinate> newFrontier = updateFrontier(frontier, newGrid, placementAction.getDestination());
+        PlacementZones newZones = placementZones.update(newGrid, placementAction.getDestination());
+        QueenSurround newSurround = queenSurround.afterPlace(newGrid, placementAction.getDestination(), pieceWrapper.getPiece());
+        return new ImmutableGrid(newGrid, newFrontier, newZones, newSurround, piecesCount, currentTurn.getOpposite(), key);
+    }
+
+    /**
+     * Simulates a pass on a copy of this position.
+     *
+     * @return the same grid with the turn passed to the opponent
+     */
+    public ImmutableGrid simulatePass() {
+        return new ImmutableGrid(grid, frontier, placementZones, queenSurround, piecesCount, currentTurn.getOpposite(), zobristKey ^ Zobrist.BLACK_TO_MOVE);
     }
 
     /**
@@ -150,53 +374,23 @@ public class ImmutableGrid {
         HexCoordinate targetCoord = move.getTo();
         HexCoordinate sourceCoord = move.getFrom();
 
-        PStack<PieceWrapper> targetStack = gridCopy.get(targetCoord);
+        PStack<PieceWrapper> targetStack = gridCopy.getOrDefault(targetCoord, ConsPStack.empty());
         PStack<PieceWrapper> sourceStack = gridCopy.get(sourceCoord);
 
         PieceWrapper piece = sourceStack.get(0);
-        sourceStack = sourceStack.minus(piece);
+        sourceStack = sourceStack.minus(0);
 
         targetStack = targetStack.plus(piece);
         newGrid = newGrid.plus(targetCoord, targetStack);
 
-        if (sourceStack.isEmpty()) {
-            piece = new PieceWrapper(new Piece(BLANK, NONE));
-            sourceStack = sourceStack.plus(piece);
-
-        }
-
-        newGrid = newGrid.plus(sourceCoord, sourceStack);
-
-        for (HexCoordinate neighbor : targetCoord.getNeighbors()) {
-            if (!gridCopy.containsKey(neighbor)) {
-                PStack<PieceWrapper> stack = ConsPStack.empty();
-                stack = stack.plus(new PieceWrapper(new Piece(BLANK, NONE)));
-                newGrid = newGrid.plus(neighbor, stack);
-            }
-        }
+        // An emptied cell leaves the map.
+        if (sourceStack.isEmpty())
+            newGrid = newGrid.minus(sourceCoord);
+        else
+            newGrid = newGrid.plus(sourceCoord, sourceStack);
         return newGrid;
     }
 
-    /**
-     * Retrieves the key associated with a given PieceWrapper value.
-     *
-     * @param map   grid map to search
-     * @param value the piece wrapper to find
-     * @param <K>   key type
-     * @param <V>   piece wrapper type
-     * @return coordinate key if found, otherwise null
-     */
-    public <K, V> K getKeyByValue(PMap<K, PStack<V>> map, V value) {
-        for (PMap.Entry<K, PStack<V>> entry : map.entrySet()) {
-            for (V v : entry.getValue()) {
-                if (v.equals(value)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        return null;
-    }
-
     /**
      * Places a piece onto the grid, updates gameModel counts, advances turn,
      * and returns simulation result pair to enforces queen placement rule.
@@ -209,6 +403,8 @@ public class ImmutableGrid {
      */
     public Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> placePiece(GameModel gameModel, PieceColor color, PieceWrapper pieceWrapper,
                                                                                PlacementAction placementAction) {
+        // The tile is numbered from the hand, so it is taken before the hand is decremented.
+        PieceWrapper tile = nextTile(gameModel, pieceWrapper);
         gameModel.decrementPiece(color, pieceWrapper.getPiece().type());
         gameModel.incrementMoveCount(color);
         HexCoordinate pieceImageCoord = placementAction.getDestination();
@@ -216,14 +412,23 @@ public class ImmutableGrid {
             gameModel.setQueenPlaced(currentTurn);
             gameModel.setQueenCoordinate(pieceImageCoord, currentTurn);
         }
-        Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> response = simulatePlacePiece(gameModel, color, grid, pieceWrapper, placementAction);
+        Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> response = placeTile(gameModel, color, grid, tile, placementAction);
+        zobristKey = Zobrist.place(zobristKey, grid, pieceWrapper.getPiece(), pieceImageCoord);
+        grid = response.getKey();
+        frontier = updateFrontier(frontier, grid, pieceImageCoord);
+        placementZones = placementZones.update(grid, pieceImageCoord);
+        queenSurround = queenSurround.afterPlace(grid, pieceImageCoord, pieceWrapper.getPiece());
+        if (locations != null)
+            locations.put(grid.get(pieceImageCoord).get(0), new PieceLocation(pieceImageCoord, height(grid, pieceImageCoord) - 1));
+        // The board now holds one more piece for good, so no earlier position can occur again.
+        if (repetitions != null)
+            repetitions.clear();
         advanceTurn();
         return response;
     }
 
     /**
      * Simulates placing a piece on a grid copy without mutating original.
-     * Adds blank neighbour tiles as needed.
      *
      * @param gameModel       game state tracker
      * @param currentTurn     current player's color
@@ -231,34 +436,38 @@ public class ImmutableGrid {
      * @param newPiece        wrapper for piece to place
      * @param placementAction destination coordinate info
      * @return pair of new grid and queen rule violation indicator
+     * @throws IllegalStateException if the owner of the piece has none of its kind left in hand
      */
     public Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> simulatePlacePiece(GameModel gameModel, PieceColor currentTurn, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceWrapper newPiece,
                                     PlacementAction placementAction) {
-        Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> returnedPair;
-        PMap<HexCoordinate, PStack<PieceWrapper>> newGrid;
-        List<HexCoordinate> neighborsToAdd = new ArrayList<>();
-        PieceWrapper placedPiece = new PieceWrapper(new Piece(newPiece.getPiece().type(), newPiece.getPiece().color()));
-
-        newGrid = gridCopy;
-
+        return placeTile(gameModel, currentTurn, gridCopy, nextTile(gameModel, newPiece), placementAction);
+    }
 
-        HexCoordinate pieceImageCoord = placementAction.getDestination();
-        PStack<PieceWrapper> stack = gridCopy.get(pieceImageCoord);
-
-        stack = stack.plus(placedPiece);
-        newGrid = newGrid.plus(pieceImageCoord, stack);
-        Set<HexCoordinate> neighboors = pieceImageCoord.getNeighbors();
-        for (HexCoordinate neighbor : neighboors) {
-            if (!newGrid.containsKey(neighbor)) {
-                neighborsToAdd.add(neighbor);
-            }
-        }
+    /**
+     * @param gameModel game state tracker
+     * @param newPiece  wrapper naming the kind of the placed piece
+     * @return the tile of this kind that leaves its owner's hand next
+     * @throws IllegalStateException if the owner has none of this kind left in hand
+     */
+    private static PieceWrapper nextTile(GameModel gameModel, PieceWrapper newPiece) {
+        Piece piece = newPiece.getPiece();
+        return PieceWrapper.nextToPlace(piece, gameModel.getRemainingPiecesToPlace(piece.color(), piece.type()));
+    }
 
-        for (HexCoordinate neighbor : neighborsToAdd) {
-            stack = ConsPStack.empty();
-            stack = stack.plus(new PieceWrapper(new Piece(BLANK, NONE)));
-            newGrid = newGrid.plus(neighbor, stack);
-        }
+    /**
+     * Places a tile on a grid copy without mutating the original.
+     *
+     * @param gameModel       game state tracker
+     * @param currentTurn     current player's color
+     * @param gridCopy        grid to place on
+     * @param tile            the tile to place
+     * @param placementAction destination coordinate info
+     * @return pair of new grid and queen rule violation indicator
+     */
+    private Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> placeTile(GameModel gameModel, PieceColor currentTurn, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceWrapper tile,
+                                                                                 PlacementAction placementAction) {
+        Pair<PMap<HexCoordinate, PStack<PieceWrapper>>, Integer> returnedPair;
+        PMap<HexCoordinate, PStack<PieceWrapper>> newGrid = placeOnGrid(gridCopy, tile, placementAction.getDestination());
 
         int moves = gameModel.getMoveCount(currentTurn);
         boolean queenIsPlaced = gameModel.isQueenPlaced(currentTurn);
@@ -270,6 +479,19 @@ public class ImmutableGrid {
         return returnedPair;
     }
 
+    /**
+     * Places a tile on a grid copy without mutating the original.
+     *
+     * @param gridCopy    grid to place on
+     * @param tile        the placed tile
+     * @param destination the coordinate to place on
+     * @return new grid state after placement
+     */
+    public static PMap<HexCoordinate, PStack<PieceWrapper>> placeOnGrid(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceWrapper tile, HexCoordinate destination) {
+        PStack<PieceWrapper> stack = gridCopy.getOrDefault(destination, ConsPStack.empty());
+        return gridCopy.plus(destination, stack.plus(tile));
+    }
+
     /**
      * @return current persistent grid state
      */
@@ -297,88 +519,127 @@ public class ImmutableGrid {
      * @return pair of winner map and endgame status
      */
     public Pair<Map<PieceColor, Boolean>, EndGameStatus> checkWin(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, boolean isSimulated) {
-        Map<PieceColor, Boolean> winner = new HashMap<>();
-        winner.put(WHITE, false);
-        winner.put(BLACK, false);
-        Pair<Map<PieceColor, Boolean>, EndGameStatus> returnedPair = new Pair<>(winner, EndGameStatus.NONE);
-
-        boolean isBlackQBPlaced = gameModel.isQueenPlaced(BLACK), isWhiteQBPlaced = gameModel.isQueenPlaced(WHITE);
-
-        if (isBlackQBPlaced || isWhiteQBPlaced) {
-            if (isBlackQBPlaced) {
-                HexCoordinate blackQBCoord = gameModel.getQueenCoordinate(BLACK);
-                winner.put(WHITE, true);
-                for (HexCoordinate neighbor : blackQBCoord.getNeighbors()) {
-                    if (gridCopy.get(neighbor).get(0).getPiece().color() == NONE)
-                        winner.put(WHITE, false);
-                }
-            }
-            if (isWhiteQBPlaced) {
-                HexCoordinate whiteQBCoord = gameModel.getQueenCoordinate(WHITE);
-                winner.put(BLACK, true);
-                for (HexCoordinate neighbor : whiteQBCoord.getNeighbors()) {
-                    if (gridCopy.get(neighbor).get(0).getPiece().color() == NONE)
-                        winner.put(BLACK, false);
-                }
-            }
+        int status = getWinStatus(gameModel, gridCopy, isSimulated);
+        return new Pair<>(WinStatus.toWinnerMap(status), WinStatus.toEndGameStatus(status));
+    }
 
-            int count = 0;
+    /**
+     * Checks for end game conditions like {@link #checkWin}, returning a {@link WinStatus} code instead
+     * of allocating a winner map.
+     *
+     * @param gameModel   game state tracker
+     * @param gridCopy    grid state to evaluate
+     * @param isSimulated true if evaluating a simulated grid
+     * @return the status code of the grid
+     */
+    public int getWinStatus(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, boolean isSimulated) {
+        if (!gameModel.isQueenPlaced(BLACK) && !gameModel.isQueenPlaced(WHITE))
+            return WinStatus.NONE;
+
+        int status = getSurroundStatus(gameModel, gridCopy);
+        int count = 0;
+        if (!isSimulated)
+            count = recordGridForRepetition(gridCopy, currentTurn);
+        if (status != WinStatus.NONE)
+            return status;
+
+        if (hasNoAction(gameModel, gridCopy, currentTurn)) {
+            // The player passes. A simulated check only looks ahead and leaves the real turn alone.
+            PieceColor opponent = currentTurn.getOpposite();
             if (!isSimulated)
-                count = recordGridForRepetition(removeBlankTiles(gridCopy), piecesCount, currentTurn);
-
-            if (!winner.get(WHITE) && !winner.get(BLACK)) {
-                if (gameModel.getLegalMoves(gridCopy, currentTurn).isEmpty() && gameModel.getValidPlacements(currentTurn).isEmpty()) {
-                    advanceTurn();
-                    if (gameModel.getLegalMoves(currentTurn).isEmpty() && gameModel.getValidPlacements(currentTurn).isEmpty()) {
-                        winner.put(WHITE, true);
-                        winner.put(BLACK, true);
-                        returnedPair = new Pair<>(winner, EndGameStatus.DRAW_BY_NO_MOVES);
-                    }
-                } else if (count >= REPETITION_THRESHOLD) {
-                    winner.put(WHITE, true);
-                    winner.put(BLACK, true);
-                    returnedPair = new Pair<>(winner, EndGameStatus.DRAW_BY_REPETITION);
-                }
-            } else if (winner.get(WHITE) && winner.get(BLACK)) {
-                returnedPair = new Pair<>(winner, EndGameStatus.STALEMATE);
-            } else {
-                returnedPair = new Pair<>(winner, EndGameStatus.WIN);
-            }
+                advanceTurn();
+            if (hasNoAction(gameModel, gridCopy, opponent))
+                return WinStatus.DRAW_BY_NO_MOVES;
+        } else if (count >= REPETITION_THRESHOLD) {
+            return WinStatus.DRAW_BY_REPETITION;
         }
-        return returnedPair;
+        return WinStatus.NONE;
     }
 
     /**
-     * Removes all blank-tile entries from the grid.
+     * Returns which queens are surrounded on a grid map. The current grid reads its maintained counts;
+     * another grid counts the neighbours of the queen cells of the game model.
      *
-     * @param gridCopy grid state to filter
-     * @return new grid without blank stacks
+     * @param gameModel game state tracker
+     * @param gridCopy  grid state to evaluate
+     * @return {@link WinStatus#NONE}, {@link WinStatus#WHITE_WINS}, {@link WinStatus#BLACK_WINS} or {@link WinStatus#STALEMATE}
      */
-    public static PMap<HexCoordinate, PStack<PieceWrapper>> removeBlankTiles(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
-        PMap<HexCoordinate, PStack<PieceWrapper>> newGridCopy = HashTreePMap.empty();
-        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
-            PStack<PieceWrapper> stack = entry.getValue();
-            if (!stack.isEmpty() && entry.getValue().get(0).getPiece().type() != BLANK)
-                newGridCopy = newGridCopy.plus(entry.getKey(), entry.getValue());
-        }
-        return newGridCopy;
+    public int getSurroundStatus(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        if (gridCopy == grid)
+            return queenSurround.status();
+        HexCoordinate blackQueen = gameModel.isQueenPlaced(BLACK) ? gameModel.getQueenCoordinate(BLACK) : null;
+        HexCoordinate whiteQueen = gameModel.isQueenPlaced(WHITE) ? gameModel.getQueenCoordinate(WHITE) : null;
+        return QueenSurround.of(gridCopy, blackQueen, whiteQueen).status();
+    }
+
+    /**
+     * @return the queens of the current grid and their occupied neighbours
+     */
+    public QueenSurround getQueenSurround() {
+        return queenSurround;
+    }
+
+    /**
+     * Checks whether a player can neither move nor place a piece.
+     * The check stops at the first action found, trying placements before the cheapest pieces.
+     *
+     * @param gameModel game state tracker
+     * @param gridCopy  grid state to evaluate
+     * @param color     the player to check
+     * @return true if the player has no legal action
+     */
+    private static boolean hasNoAction(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor color) {
+        return !gameModel.hasAnyLegalAction(gridCopy, color);
     }
 
     /**
-     * Finds the coordinate of a given piece's image view.
+     * Finds the coordinate of a given piece wrapper instance.
      *
-     * @param imageView image view to locate
+     * @param pieceWrapper the wrapper to locate, compared by identity
      * @return coordinate if found, otherwise null
      */
-    public HexCoordinate getHexCoordinateByPieceWrapperImage(ImageView imageView) {
-        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
-            for (PieceWrapper pieceWrapper : entry.getValue()) {
-                if (pieceWrapper.getImageView().equals(imageView)) {
-                    return entry.getKey();
-                }
-            }
+    public HexCoordinate getHexCoordinateByPieceWrapper(PieceWrapper pieceWrapper) {
+        PieceLocation location = getPieceLocation(pieceWrapper);
+        return location == null ? null : location.coordinate();
+    }
+
+    /**
+     * Finds where a given piece wrapper instance stands.
+     *
+     * @param pieceWrapper the wrapper to locate, compared by identity
+     * @return the coordinate and stack level of the piece, or null if it is not on the grid
+     */
+    public PieceLocation getPieceLocation(PieceWrapper pieceWrapper) {
+        if (locations == null)
+            locations = indexLocations(grid);
+        return locations.get(pieceWrapper);
+    }
+
+    /**
+     * Builds the location index of a grid map.
+     *
+     * @param gridCopy the grid state to index
+     * @return the location of every piece instance, keyed by identity
+     */
+    private static Map<PieceWrapper, PieceLocation> indexLocations(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        Map<PieceWrapper, PieceLocation> index = new IdentityHashMap<>();
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
+            PStack<PieceWrapper> stack = entry.getValue();
+            // The stack head is its top, so the level of the i-th element is counted from the end.
+            for (int i = 0; i < stack.size(); i++)
+                index.put(stack.get(i), new PieceLocation(entry.getKey(), stack.size() - 1 - i));
         }
-        return null;
+        return index;
+    }
+
+    /**
+     * @param gridCopy the grid state to inspect
+     * @param coord    the coordinate of the stack
+     * @return the number of pieces at the coordinate, 0 if it is empty
+     */
+    private static int height(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        PStack<PieceWrapper> stack = gridCopy.get(coord);
+        return stack == null ? 0 : stack.size();
     }
 
     /**
@@ -397,6 +658,14 @@ public class ImmutableGrid {
      */
     public void advanceTurn() {
         currentTurn = (currentTurn == WHITE) ? BLACK : WHITE;
+        zobristKey ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * @return the Zobrist key of the current grid and turn
+     */
+    public long getZobristKey() {
+        return zobristKey;
     }
 
     /**
@@ -420,29 +689,34 @@ public class ImmutableGrid {
      */
     public void setGrid(PMap<HexCoordinate, PStack<PieceWrapper>> grid) {
         this.grid = grid;
+        frontier = computeFrontier(grid);
+        placementZones = PlacementZones.compute(grid);
+        queenSurround = QueenSurround.compute(grid);
+        locations = null;
+        zobristKey = Zobrist.hash(grid, currentTurn);
     }
 
     /**
      * Compares this {@code ImmutableGrid} to another object.
      *
      * @param object The object to compare to.
-     * @return {@code true} if the object is a {@code ImmutableGrid} and its grid, piecesCount and currentTurn values are equal to this ImmutableGrids's grid, piecesCount and currentTurn, otherwise {@code false}.
+     * @return {@code true} if the object is a {@code ImmutableGrid} with the same Zobrist key, the same grid, piecesCount and currentTurn, otherwise {@code false}.
      */
     @Override
     public boolean equals(Object object) {
         if (this == object) return true;
         if (object == null || getClass() != object.getClass()) return false;
         ImmutableGrid that = (ImmutableGrid) object;
-        return Objects.equals(getGrid(), that.getGrid()) && Objects.equals(piecesCount, that.piecesCount) && currentTurn == that.currentTurn;
+        return zobristKey == that.zobristKey && Objects.equals(getGrid(), that.getGrid()) && Objects.equals(piecesCount, that.piecesCount) && currentTurn == that.currentTurn;
     }
 
     /**
-     * Returns a hash code value for this {@code ImmutableGrid}.
+     * Returns a hash code value for this {@code ImmutableGrid}, folded from its Zobrist key.
      *
      * @return A hash code value for this ImmutableGrid.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getGrid(), piecesCount, currentTurn);
+        return Long.hashCode(zobristKey);
     }
 }
@@ -0,0 +1,88 @@
+package com.example.hive.model.grid;
+
+/**
+ * Helpers for stacks of pieces packed into a single {@code long}.
+ * <p>
+ * The low {@value #HEIGHT_BITS} bits hold the height of the stack, followed by one
+ * {@value #CODE_BITS} bit piece code per level, ground level first. Codes are those of
+ * {@link BitboardGrid#codeOf(Piece)}, 0 being no piece, so {@link #EMPTY} is the empty stack.
+ * A stack holds at most {@link BitboardGrid#MAX_HEIGHT} pieces, which takes 31 bits.
+ * </p>
+ * <p>
+ * Stacks are plain values: push and pop return a new packed stack and never allocate.
+ * </p>
+ */
+public final class PackedStack {
+    public static final long EMPTY = 0L;
+
+    private static final int HEIGHT_BITS = 3;
+    private static final int CODE_BITS = 4;
+    private static final long HEIGHT_MASK = (1L << HEIGHT_BITS) - 1;
+    private static final long CODE_MASK = (1L << CODE_BITS) - 1;
+
+    private PackedStack() {
+    }
+
+    /**
+     * @param stack a packed stack
+     * @return the number of pieces in the stack
+     */
+    public static int height(long stack) {
+        return (int) (stack & HEIGHT_MASK);
+    }
+
+    /**
+     * @param stack a packed stack
+     * @return true if the stack holds no piece
+     */
+    public static boolean isEmpty(long stack) {
+        return (stack & HEIGHT_MASK) == 0;
+    }
+
+    /**
+     * @param stack a packed stack
+     * @param level the stack level, 0 being the ground
+     * @return the code of the piece at this level, or 0 if the level is above the top
+     */
+    public static int codeAt(long stack, int level) {
+        return (int) ((stack >>> (HEIGHT_BITS + level * CODE_BITS)) & CODE_MASK);
+    }
+
+    /**
+     * @param stack a packed stack
+     * @return the code of the top piece, or 0 if the stack is empty
+     */
+    public static int top(long stack) {
+        int height = height(stack);
+        return height == 0 ? 0 : codeAt(stack, height - 1);
+    }
+
+    /**
+     * Pushes a piece code on top of a stack.
+     *
+     * @param stack a packed stack
+     * @param code  the code of the pushed piece
+     * @return the stack with the piece on top
+     * @throws IllegalStateException if the stack is full
+     */
+    public static long push(long stack, int code) {
+        int height = height(stack);
+        if (height == BitboardGrid.MAX_HEIGHT)
+            throw new IllegalStateException("Stack is full");
+        return (stack | ((long) code << (HEIGHT_BITS + height * CODE_BITS))) + 1;
+    }
+
+    /**
+     * Removes the top piece of a stack. The popped code is read beforehand with {@link #top(long)}.
+     *
+     * @param stack a packed stack
+     * @return the stack without its top piece
+     * @throws IllegalStateException if the stack is empty
+     */
+    public static long pop(long stack) {
+        int height = height(stack);
+        if (height == 0)
+            throw new IllegalStateException("Stack is empty");
+        return (stack & ~(CODE_MASK << (HEIGHT_BITS + (height - 1) * CODE_BITS))) - 1;
+    }
+}
@@ -3,14 +3,37 @@ package com.example.hive.model.grid;
 import com.example.hive.model.enums.PieceColor;
 import com.example.hive.model.enums.PieceType;
 
-import java.util.Objects;
-
 /**
  * Domain model for a game piece, representing a specific type and color of a piece in the game.
  * The Piece class is immutable and uses a record to store its data.
+ * Only 10 coloured kinds and the blank tile exist, so {@link #of(PieceType, PieceColor)} hands out
+ * one shared instance per kind, and equal pieces obtained from it are the same instance.
  */
 public record Piece(PieceType type, PieceColor color) {
 
+    private static final int COLORS = PieceColor.values().length;
+
+    // Flyweight table, indexed by [type ordinal][color ordinal].
+    private static final Piece[][] INTERNED = new Piece[PieceType.values().length][COLORS];
+
+    static {
+        for (PieceType type : PieceType.values()) {
+            for (PieceColor color : PieceColor.values())
+                INTERNED[type.ordinal()][color.ordinal()] = new Piece(type, color);
+        }
+    }
+
+    /**
+     * Returns the shared instance of a piece kind.
+     *
+     * @param type  the piece type
+     * @param color the piece color
+     * @return the piece of this type and color
+     */
+    public static Piece of(PieceType type, PieceColor color) {
+        return INTERNED[type.ordinal()][color.ordinal()];
+    }
+
     /**
      * Returns a string representation of this Piece, combining its color and type.
      * For example, "Black Beetle" or "White Queen Bee".
@@ -38,12 +61,12 @@ public record Piece(PieceType type, PieceColor color) {
     }
 
     /**
-     * Returns the hash code for this Piece, calculated from its type and color.
+     * Returns the hash code for this Piece, calculated from the ordinals of its type and color.
      *
      * @return the hash code of this Piece.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(type(), color());
+        return type().ordinal() * COLORS + color().ordinal();
     }
 }
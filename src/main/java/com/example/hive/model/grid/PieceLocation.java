@@ -0,0 +1,11 @@
+package com.example.hive.model.grid;
+
+/**
+ * Where a piece instance stands on the grid.
+ * The level is counted from the ground, so it does not change while beetles climb on or off the piece.
+ *
+ * @param coordinate the coordinate of the stack holding the piece
+ * @param level      the stack level of the piece, 0 being the ground
+ */
+public record PieceLocation(HexCoordinate coordinate, int level) {
+}
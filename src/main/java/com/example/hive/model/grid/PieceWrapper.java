@@ -1,45 +1,125 @@
 package com.example.hive.model.grid;
 
 import com.example.hive.model.enums.PieceColor;
-import com.example.hive.model.enums.PieceImage;
 import com.example.hive.model.enums.PieceType;
-import javafx.scene.image.ImageView;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.example.hive.model.enums.PieceColor.*;
-import static com.example.hive.model.enums.PieceImage.*;
-import static com.example.hive.model.enums.PieceImage.SPIDER_BLACK;
+import static com.example.hive.model.enums.PieceType.*;
 
 /**
- * A wrapper class that associates a domain Piece with its corresponding JavaFX ImageView.
- * This allows for combining the piece's data (type and color) with its visual representation.
+ * A wrapper class that gives a domain Piece an identity on the grid.
+ * Two wrappers of the same piece are equal, but each wrapper instance stands for one physical tile,
+ * which lets the view layer bind its own visual representation to it.
+ * The wrapper holds no UI state, so the engine can create as many as it needs while simulating.
+ * <p>
+ * The 22 physical tiles of a game are registered once, with ids such as {@code wA1} to {@code wA3},
+ * and the engine places these shared instances instead of allocating a wrapper per placement.
+ * </p>
  */
 public class PieceWrapper {
+    // Tiles of each type a player owns, indexed by type ordinal.
+    private static final int[] TILES_PER_TYPE = new int[BEETLE.ordinal() + 1];
+
+    // Registry of the physical tiles, indexed by [color ordinal][type ordinal][number - 1].
+    private static final PieceWrapper[][][] REGISTRY = new PieceWrapper[2][BEETLE.ordinal() + 1][];
+    private static final Map<String, PieceWrapper> BY_ID = new HashMap<>();
+
+    static {
+        TILES_PER_TYPE[QUEEN_BEE.ordinal()] = 1;
+        TILES_PER_TYPE[ANT.ordinal()] = 3;
+        TILES_PER_TYPE[SPIDER.ordinal()] = 2;
+        TILES_PER_TYPE[GRASSHOPPER.ordinal()] = 3;
+        TILES_PER_TYPE[BEETLE.ordinal()] = 2;
+        for (PieceColor color : new PieceColor[] {BLACK, WHITE}) {
+            for (PieceType type : new PieceType[] {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE}) {
+                PieceWrapper[] tiles = new PieceWrapper[TILES_PER_TYPE[type.ordinal()]];
+                for (int number = 1; number <= tiles.length; number++) {
+                    String id = (color == WHITE ? "w" : "b") + typeLetter(type) + number;
+                    tiles[number - 1] = new PieceWrapper(Piece.of(type, color), id);
+                    BY_ID.put(id, tiles[number - 1]);
+                }
+                REGISTRY[color.ordinal()][type.ordinal()] = tiles;
+            }
+        }
+    }
+
     private final Piece piece;
-    private final ImageView imageView;
+    private final String id;
 
     /**
      * Constructs a PieceWrapper with the specified Piece.
-     * The ImageView is initialized based on the piece's type and color.
+     * The wrapper is not one of the registered tiles and has no id.
      *
      * @param piece the Piece to wrap.
      */
     public PieceWrapper(Piece piece) {
-        this.piece = piece;
-        imageView = new ImageView(this.getPieceImageFromPieceWrapper().getImage());
+        this(piece, null);
     }
 
     /**
-     * Constructs a PieceWrapper with the specified Piece and ImageView.
-     * This allows for custom ImageViews to be used if necessary.
+     * Constructs a registered tile.
      *
      * @param piece the Piece to wrap.
-     * @param imageView the custom ImageView associated with the piece.
+     * @param id    the id of the tile.
      */
-    public PieceWrapper(Piece piece, ImageView imageView) {
+    private PieceWrapper(Piece piece, String id) {
         this.piece = piece;
-        this.imageView = imageView;
+        this.id = id;
+    }
+
+    /**
+     * Returns a registered tile.
+     *
+     * @param color  the color of the tile.
+     * @param type   the type of the tile.
+     * @param number the number of the tile among those of its kind, starting from 1.
+     * @return the registered tile.
+     * @throws IllegalArgumentException if the kind has no tile with this number.
+     */
+    public static PieceWrapper of(PieceColor color, PieceType type, int number) {
+        if (color == NONE || type == BLANK || number < 1 || number > TILES_PER_TYPE[type.ordinal()])
+            throw new IllegalArgumentException("No tile " + color + " " + type + " " + number);
+        return REGISTRY[color.ordinal()][type.ordinal()][number - 1];
+    }
+
+    /**
+     * Returns the first registered tile of a kind, used to name the kind of a piece to place.
+     *
+     * @param piece a coloured, non-blank piece.
+     * @return the tile numbered 1 of this kind.
+     */
+    public static PieceWrapper of(Piece piece) {
+        return of(piece.color(), piece.type(), 1);
+    }
+
+    /**
+     * Returns a registered tile by its id.
+     *
+     * @param id an id such as {@code wQ1} or {@code bA3}.
+     * @return the tile, or null if no tile has this id.
+     */
+    public static PieceWrapper byId(String id) {
+        return BY_ID.get(id);
+    }
+
+    /**
+     * Returns the tile that a placement of a piece kind puts on the board. The tiles of a kind leave the
+     * hand in the order of their numbers, so the next one is read from the number still in hand.
+     *
+     * @param piece     the kind of the placed piece.
+     * @param remaining the number of tiles of this kind the player holds before the placement.
+     * @return the tile to place.
+     * @throws IllegalStateException if the player has no tile of this kind left to place.
+     */
+    public static PieceWrapper nextToPlace(Piece piece, int remaining) {
+        int tiles = piece.type() == BLANK ? 0 : TILES_PER_TYPE[piece.type().ordinal()];
+        if (remaining < 1 || remaining > tiles)
+            throw new IllegalStateException("No " + piece.color() + " " + piece.type() + " left to place, " + remaining + " in hand");
+        return REGISTRY[piece.color().ordinal()][piece.type().ordinal()][tiles - remaining];
     }
 
     /**
@@ -52,64 +132,27 @@ public class PieceWrapper {
     }
 
     /**
-     * Gets the ImageView associated with this PieceWrapper.
+     * Gets the id of this tile.
      *
-     * @return the ImageView corresponding to the piece's image.
+     * @return the id, such as {@code wA1}, or null if the wrapper is not a registered tile.
      */
-    public ImageView getImageView() {
-        return imageView;
+    public String getId() {
+        return id;
     }
 
     /**
-     * Determines the appropriate PieceImage based on the piece's color and type.
-     *
-     * @return the PieceImage that corresponds to the color and type of the piece.
+     * @param type a piece type.
+     * @return the letter of the type in tile ids.
      */
-    public PieceImage getPieceImageFromPieceWrapper() {
-        PieceColor pieceColor = this.getPiece().color();
-        PieceType pieceType = this.getPiece().type();
-        if (pieceColor == WHITE) {
-            switch (pieceType) {
-                case QUEEN_BEE -> {
-                    return QUEEN_BEE_WHITE;
-                }
-                case ANT -> {
-                    return ANT_WHITE;
-                }
-                case BEETLE -> {
-                    return BEETLE_WHITE;
-                }
-                case GRASSHOPPER -> {
-                    return GRASSHOPPER_WHITE;
-                }
-                case SPIDER -> {
-                    return SPIDER_WHITE;
-                }
-            }
-        }
-        else if (pieceColor == BLACK) {
-            switch (pieceType) {
-                case QUEEN_BEE -> {
-                    return QUEEN_BEE_BLACK;
-                }
-                case ANT -> {
-                    return ANT_BLACK;
-                }
-                case BEETLE -> {
-                    return BEETLE_BLACK;
-                }
-                case GRASSHOPPER -> {
-                    return GRASSHOPPER_BLACK;
-                }
-                case SPIDER -> {
-                    return SPIDER_BLACK;
-                }
-            }
-        }
-        else if (pieceColor == NONE) {
-            return BLANK_TILE;
-        }
-        return null;
+    private static char typeLetter(PieceType type) {
+        return switch (type) {
+            case QUEEN_BEE -> 'Q';
+            case ANT -> 'A';
+            case SPIDER -> 'S';
+            case GRASSHOPPER -> 'G';
+            case BEETLE -> 'B';
+            default -> throw new IllegalArgumentException("No tiles of type " + type);
+        };
     }
 
     /**
@@ -128,12 +171,12 @@ public class PieceWrapper {
     }
 
     /**
-     * Returns the hash code for this PieceWrapper, calculated from the piece and its ImageView.
+     * Returns the hash code for this PieceWrapper, calculated from the piece.
      *
      * @return the hash code of this PieceWrapper.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getPiece(), getImageView());
+        return Objects.hashCode(getPiece());
     }
 }
@@ -0,0 +1,160 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.PieceColor;
+import org.pcollections.HashTreePSet;
+import org.pcollections.PMap;
+import org.pcollections.PSet;
+import org.pcollections.PStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.hive.model.enums.PieceColor.*;
+
+/**
+ * The empty cells touching the top pieces of each colour.
+ * <p>
+ * A player may place a piece on an empty cell touching one of its own top pieces and none of the
+ * opponent's, so past the opening the placements of a player are the cells touching its own colour
+ * minus those touching the other one. A move or a placement only changes the top piece of one or two
+ * cells, and only those cells and their neighbours can enter or leave a zone, so the zones are updated
+ * in place of being rebuilt, like the frontier of {@link ImmutableGrid}.
+ * </p>
+ *
+ * @param black the empty cells touching a black top piece
+ * @param white the empty cells touching a white top piece
+ */
+public record PlacementZones(PSet<HexCoordinate> black, PSet<HexCoordinate> white) {
+    // Bits of the colours touching a cell, as returned by touchMask.
+    private static final int TOUCHES_BLACK = 1;
+    private static final int TOUCHES_WHITE = 2;
+
+    /**
+     * Computes the zones of a grid map from scratch.
+     *
+     * @param gridCopy the grid state to inspect
+     * @return the zones of the grid
+     */
+    public static PlacementZones compute(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        List<HexCoordinate> black = new ArrayList<>();
+        List<HexCoordinate> white = new ArrayList<>();
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
+            List<HexCoordinate> zone = entry.getValue().get(0).getPiece().color() == WHITE ? white : black;
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate neighbor = entry.getKey().getNeighbor(direction);
+                if (!gridCopy.containsKey(neighbor))
+                    zone.add(neighbor);
+            }
+        }
+        return new PlacementZones(HashTreePSet.from(black), HashTreePSet.from(white));
+    }
+
+    /**
+     * Updates the zones after the top piece of one cell changed, or the cell was emptied or filled.
+     *
+     * @param gridCopy the grid state after the change
+     * @param changed  the cell that changed
+     * @return the zones of the new grid state
+     */
+    public PlacementZones update(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate changed) {
+        PSet<HexCoordinate> newBlack = black;
+        PSet<HexCoordinate> newWhite = white;
+        for (int direction = -1; direction < 6; direction++) {
+            HexCoordinate cell = direction < 0 ? changed : changed.getNeighbor(direction);
+            int mask = touchMask(gridCopy, cell);
+            newBlack = (mask & TOUCHES_BLACK) != 0 ? newBlack.plus(cell) : newBlack.minus(cell);
+            newWhite = (mask & TOUCHES_WHITE) != 0 ? newWhite.plus(cell) : newWhite.minus(cell);
+        }
+        return new PlacementZones(newBlack, newWhite);
+    }
+
+    /**
+     * @param gridCopy the grid state to inspect
+     * @param coord    the coordinate to check
+     * @return the colours of the top pieces around the cell, 0 if the cell is occupied
+     */
+    private static int touchMask(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        if (gridCopy.containsKey(coord))
+            return 0;
+        int mask = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            PStack<PieceWrapper> stack = gridCopy.get(coord.getNeighbor(direction));
+            if (stack != null)
+                mask |= stack.get(0).getPiece().color() == WHITE ? TOUCHES_WHITE : TOUCHES_BLACK;
+        }
+        return mask;
+    }
+
+    /**
+     * @param color the player colour
+     * @return the empty cells touching a top piece of the colour
+     */
+    public PSet<HexCoordinate> touching(PieceColor color) {
+        return color == WHITE ? white : black;
+    }
+
+    /**
+     * Returns the cells where a player may place a piece once both players have placed one:
+     * the cells touching its colour and not the opponent's.
+     *
+     * @param color the player colour
+     * @return the placement cells of the player
+     */
+    public List<HexCoordinate> getPlacements(PieceColor color) {
+        PSet<HexCoordinate> opponent = touching(color.getOpposite());
+        List<HexCoordinate> placements = new ArrayList<>();
+        for (HexCoordinate coord : touching(color)) {
+            if (!opponent.contains(coord))
+                placements.add(coord);
+        }
+        return placements;
+    }
+
+    /**
+     * @param color the player colour
+     * @return true if {@link #getPlacements(PieceColor)} lists at least one cell, found without listing them
+     */
+    public boolean hasPlacement(PieceColor color) {
+        PSet<HexCoordinate> opponent = touching(color.getOpposite());
+        for (HexCoordinate coord : touching(color)) {
+            if (!opponent.contains(coord))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a player may place a piece on a grid map whose zones are not known, without computing them:
+     * the neighbours of the player's top pieces are scanned until one is empty and touches none of the opponent's.
+     *
+     * @param gridCopy the grid state to inspect
+     * @param color    the player colour
+     * @return true if {@link #getPlacements(PieceColor)} would list at least one cell
+     */
+    public static boolean hasPlacement(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor color) {
+        int own = color == WHITE ? TOUCHES_WHITE : TOUCHES_BLACK;
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
+            if (entry.getValue().get(0).getPiece().color() != color)
+                continue;
+            for (int direction = 0; direction < 6; direction++) {
+                if (touchMask(gridCopy, entry.getKey().getNeighbor(direction)) == own)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of cells listed by {@link #getPlacements(PieceColor)}
+     */
+    public int countPlacements(PieceColor color) {
+        PSet<HexCoordinate> opponent = touching(color.getOpposite());
+        int count = 0;
+        for (HexCoordinate coord : touching(color)) {
+            if (!opponent.contains(coord))
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.PieceColor;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * Where each queen stands and how many of its six neighbours are occupied.
+ * <p>
+ * A move or a placement can only fill or empty the cells it touches, so the counts are updated from
+ * those cells instead of walking the neighbours of both queens again; only a queen that moves is
+ * counted anew. The surround status is derived once per position, so reading it is a field access.
+ * </p>
+ *
+ * @param blackQueen      the cell of the black queen, or null if it is not on the board
+ * @param whiteQueen      the cell of the white queen, or null if it is not on the board
+ * @param blackNeighbours the occupied neighbours of the black queen
+ * @param whiteNeighbours the occupied neighbours of the white queen
+ * @param status          {@link WinStatus#NONE}, {@link WinStatus#WHITE_WINS}, {@link WinStatus#BLACK_WINS} or {@link WinStatus#STALEMATE}
+ */
+public record QueenSurround(HexCoordinate blackQueen, HexCoordinate whiteQueen, int blackNeighbours, int whiteNeighbours, int status) {
+    public static final QueenSurround EMPTY = new QueenSurround(null, null, 0, 0, WinStatus.NONE);
+
+    /**
+     * Creates the surround of two queens, deriving the status from the counts.
+     *
+     * @param blackQueen      the cell of the black queen, or null
+     * @param whiteQueen      the cell of the white queen, or null
+     * @param blackNeighbours the occupied neighbours of the black queen
+     * @param whiteNeighbours the occupied neighbours of the white queen
+     */
+    public QueenSurround(HexCoordinate blackQueen, HexCoordinate whiteQueen, int blackNeighbours, int whiteNeighbours) {
+        this(blackQueen, whiteQueen, blackNeighbours, whiteNeighbours,
+                (blackNeighbours == 6 ? WinStatus.WHITE_WINS : 0) | (whiteNeighbours == 6 ? WinStatus.BLACK_WINS : 0));
+    }
+
+    /**
+     * Finds both queens of a grid map and counts their neighbours.
+     *
+     * @param gridCopy the grid state to inspect
+     * @return the surround of the queens of the grid
+     */
+    public static QueenSurround compute(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        HexCoordinate blackQueen = null;
+        HexCoordinate whiteQueen = null;
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
+            // A queen may lie under beetles, so the whole stack is searched.
+            for (PieceWrapper wrapper : entry.getValue()) {
+                if (wrapper.getPiece().type() == QUEEN_BEE) {
+                    if (wrapper.getPiece().color() == WHITE)
+                        whiteQueen = entry.getKey();
+                    else
+                        blackQueen = entry.getKey();
+                }
+            }
+        }
+        return of(gridCopy, blackQueen, whiteQueen);
+    }
+
+    /**
+     * Counts the neighbours of two known queen cells.
+     *
+     * @param gridCopy   the grid state to inspect
+     * @param blackQueen the cell of the black queen, or null
+     * @param whiteQueen the cell of the white queen, or null
+     * @return the surround of the queens
+     */
+    public static QueenSurround of(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate blackQueen, HexCoordinate whiteQueen) {
+        return new QueenSurround(blackQueen, whiteQueen, countNeighbours(gridCopy, blackQueen), countNeighbours(gridCopy, whiteQueen));
+    }
+
+    /**
+     * Updates the counts after a move.
+     *
+     * @param gridCopy the grid state after the move
+     * @param from     the cell the piece left
+     * @param to       the cell the piece moved to
+     * @param moved    the wrapper of the moving piece
+     * @return the surround of the new grid state
+     */
+    public QueenSurround afterMove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, HexCoordinate to, PieceWrapper moved) {
+        boolean fromEmptied = !gridCopy.containsKey(from);
+        boolean toFilled = gridCopy.get(to).size() == 1;
+        HexCoordinate newBlack = blackQueen;
+        HexCoordinate newWhite = whiteQueen;
+        int newBlackCount;
+        int newWhiteCount;
+        if (moved.getPiece().type() == QUEEN_BEE && moved.getPiece().color() == BLACK) {
+            newBlack = to;
+            newBlackCount = countNeighbours(gridCopy, to);
+        } else {
+            newBlackCount = blackNeighbours + delta(blackQueen, from, fromEmptied, to, toFilled);
+        }
+        if (moved.getPiece().type() == QUEEN_BEE && moved.getPiece().color() == WHITE) {
+            newWhite = to;
+            newWhiteCount = countNeighbours(gridCopy, to);
+        } else {
+            newWhiteCount = whiteNeighbours + delta(whiteQueen, from, fromEmptied, to, toFilled);
+        }
+        return new QueenSurround(newBlack, newWhite, newBlackCount, newWhiteCount);
+    }
+
+    /**
+     * Updates the counts after a placement.
+     *
+     * @param gridCopy    the grid state after the placement
+     * @param destination the cell the piece was placed on
+     * @param placed      the placed piece
+     * @return the surround of the new grid state
+     */
+    public QueenSurround afterPlace(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate destination, Piece placed) {
+        if (placed.type() == QUEEN_BEE) {
+            if (placed.color() == WHITE)
+                return new QueenSurround(blackQueen, destination, blackNeighbours + delta(blackQueen, null, false, destination, true), countNeighbours(gridCopy, destination));
+            return new QueenSurround(destination, whiteQueen, countNeighbours(gridCopy, destination), whiteNeighbours + delta(whiteQueen, null, false, destination, true));
+        }
+        return new QueenSurround(blackQueen, whiteQueen,
+                blackNeighbours + delta(blackQueen, null, false, destination, true),
+                whiteNeighbours + delta(whiteQueen, null, false, destination, true));
+    }
+
+    /**
+     * @param color a player colour
+     * @return true if the player's queen is on the board with all six neighbours occupied
+     */
+    public boolean isSurrounded(PieceColor color) {
+        return (status & (color == WHITE ? WinStatus.BLACK_WINS : WinStatus.WHITE_WINS)) != 0;
+    }
+
+    /**
+     * @param queen       the cell of a queen that did not move, or null
+     * @param from        the cell a piece left, or null for a placement
+     * @param fromEmptied whether the cell was left empty
+     * @param to          the cell a piece arrived on
+     * @param toFilled    whether the cell was empty before
+     * @return the change of the number of occupied neighbours of the queen
+     */
+    private static int delta(HexCoordinate queen, HexCoordinate from, boolean fromEmptied, HexCoordinate to, boolean toFilled) {
+        if (queen == null)
+            return 0;
+        int delta = 0;
+        if (fromEmptied && queen.isNeighbor(from))
+            delta--;
+        if (toFilled && queen.isNeighbor(to))
+            delta++;
+        return delta;
+    }
+
+    /**
+     * @param gridCopy the grid state to inspect
+     * @param queen    the cell of a queen, or null
+     * @return the number of occupied neighbours of the cell, 0 for null
+     */
+    private static int countNeighbours(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate queen) {
+        if (queen == null)
+            return 0;
+        int count = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            if (gridCopy.containsKey(queen.getNeighbor(direction)))
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.hive.model.grid;
+
+/**
+ * The Zobrist keys of the positions of a line of play, with the number of times each one occurs.
+ * <p>
+ * Keys are pushed as positions are reached and popped as moves are taken back, and every push and pop
+ * updates the count of its key, so asking how often a position occurred is a table lookup. The keys sit
+ * in a ring of fixed capacity and the counts in an open-addressed table twice as large: once the ring is
+ * full, pushing a key forgets the oldest one, so the memory used never grows with the length of the game.
+ * </p>
+ * <p>
+ * A placement puts one more piece on the board for good, so no position before it can occur again;
+ * the game calls {@link #clear()} after one, and the ring only has to hold the moves since the last placement.
+ * </p>
+ */
+public final class RepetitionHistory {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Ring of the pushed keys, oldest at start.
+    private final long[] keys;
+    private final int ringMask;
+    private int start;
+    private int size;
+
+    // Count table, probed linearly from the low bits of the folded key. A count of 0 marks a free slot.
+    private final long[] tableKeys;
+    private final int[] tableCounts;
+    private final int tableMask;
+
+    /**
+     * Creates a history holding the last {@value #DEFAULT_CAPACITY} positions.
+     */
+    public RepetitionHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a history holding a bounded number of positions.
+     *
+     * @param capacity the number of positions kept, rounded up to a power of two
+     */
+    public RepetitionHistory(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        int ringSize = Integer.highestOneBit(capacity - 1) << 1;
+        if (ringSize == 0)
+            ringSize = 1;
+        keys = new long[ringSize];
+        ringMask = ringSize - 1;
+        tableKeys = new long[ringSize * 2];
+        tableCounts = new int[ringSize * 2];
+        tableMask = ringSize * 2 - 1;
+    }
+
+    /**
+     * Records a position reached, forgetting the oldest one if the history is full.
+     *
+     * @param key the Zobrist key of the position
+     * @return the number of times the position occurs, this one included
+     */
+    public int push(long key) {
+        if (size == keys.length) {
+            decrement(keys[start]);
+            start = (start + 1) & ringMask;
+            size--;
+        }
+        keys[(start + size) & ringMask] = key;
+        size++;
+        int slot = find(key);
+        if (tableCounts[slot] == 0)
+            tableKeys[slot] = key;
+        return ++tableCounts[slot];
+    }
+
+    /**
+     * Forgets the last position recorded, when its move is taken back.
+     *
+     * @throws IllegalStateException if the history is empty
+     */
+    public void pop() {
+        if (size == 0)
+            throw new IllegalStateException("No position to pop");
+        size--;
+        decrement(keys[(start + size) & ringMask]);
+    }
+
+    /**
+     * @return the key of the last position recorded
+     * @throws IllegalStateException if the history is empty
+     */
+    public long peek() {
+        if (size == 0)
+            throw new IllegalStateException("No position recorded");
+        return keys[(start + size - 1) & ringMask];
+    }
+
+    /**
+     * @param key the Zobrist key of a position
+     * @return the number of times the position occurs in the history
+     */
+    public int count(long key) {
+        return tableCounts[find(key)];
+    }
+
+    /**
+     * @return the number of positions held
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every position.
+     */
+    public void clear() {
+        while (size > 0)
+            pop();
+        start = 0;
+    }
+
+    /**
+     * Records the positions of another history after those of this one, oldest first.
+     *
+     * @param other the history to copy the keys of
+     */
+    public void pushAll(RepetitionHistory other) {
+        for (int i = 0; i < other.size; i++)
+            push(other.keys[(other.start + i) & other.ringMask]);
+    }
+
+    /**
+     * Lowers the count of a key, freeing its slot when it drops to 0.
+     *
+     * @param key a key of the history
+     */
+    private void decrement(long key) {
+        int slot = find(key);
+        if (--tableCounts[slot] > 0)
+            return;
+        // Backward-shift deletion: move up the entries whose probe sequence crossed the freed slot.
+        int free = slot;
+        for (int next = (free + 1) & tableMask; tableCounts[next] != 0; next = (next + 1) & tableMask) {
+            int home = home(tableKeys[next]);
+            if (((next - home) & tableMask) >= ((next - free) & tableMask)) {
+                tableKeys[free] = tableKeys[next];
+                tableCounts[free] = tableCounts[next];
+                tableCounts[next] = 0;
+                free = next;
+            }
+        }
+    }
+
+    /**
+     * @param key a Zobrist key
+     * @return the slot holding the key, or the free slot where it would go
+     */
+    private int find(long key) {
+        int slot = home(key);
+        while (tableCounts[slot] != 0 && tableKeys[slot] != key)
+            slot = (slot + 1) & tableMask;
+        return slot;
+    }
+
+    /**
+     * @param key a Zobrist key
+     * @return the first slot probed for the key
+     */
+    private int home(long key) {
+        return (int) (key ^ (key >>> 32)) & tableMask;
+    }
+}
@@ -0,0 +1,468 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.logic.Move;
+import com.example.hive.model.logic.MovementAction;
+import com.example.hive.model.logic.PlacementAction;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * A mutable board for search, with make/unmake semantics.
+ * <p>
+ * A {@code SearchBoard} is built once from an {@link ImmutableGrid} or a {@link GameState} and then modified
+ * in place with {@link #doMove(MovementAction)}, {@link #doPlacement(Piece, PlacementAction)},
+ * {@link #doMove(long)} and {@link #doPass()}. Every change is recorded in an undo log, so
+ * {@link #undoMove()} restores the previous position exactly. The Zobrist key, the pieces in hand,
+ * the queen positions and the count of the stacks each colour and type tops are kept up to date on
+ * every push and pop, so search loops read them without scanning the board.
+ * </p>
+ * <p>
+ * The keys of the positions along the line are kept in a {@link RepetitionHistory}, starting with those the
+ * real game recorded, so a search can tell in constant time whether a position repeats an earlier one.
+ * </p>
+ * <p>
+ * Apart from growing the undo log past its initial depth, doing and undoing moves does not allocate.
+ * </p>
+ */
+public class SearchBoard extends BitboardGrid {
+    private static final int INITIAL_UNDO_DEPTH = 64;
+    // Turn at which a player who has not placed the queen yet must place it, as in GameState.
+    private static final int QUEEN_DEADLINE_MOVE = 3;
+    // Slot of the top counts holding the stacks where a piece covers one of the opponent, after the five types.
+    private static final int COVERING = BEETLE.ordinal() + 1;
+    private static final int TOP_SLOTS = COVERING + 1;
+
+    // The hand is indexed by [colour][piece type ordinal], see colorIndex.
+    private final int[][] hand = new int[2][BEETLE.ordinal() + 1];
+    private final int piecesPerPlayer;
+    private final int[] queenCells = {-1, -1};
+    // Stacks topped by each colour and type, then the covering stacks, in rows of TOP_SLOTS per colour.
+    private final int[] topCounts = new int[2 * TOP_SLOTS];
+    private PieceColor turn;
+    private long zobristKey;
+
+    // Undo log: one entry per done move. A placement has no source and a pass has neither end.
+    private HexCoordinate[] undoFrom = new HexCoordinate[INITIAL_UNDO_DEPTH];
+    private HexCoordinate[] undoTo = new HexCoordinate[INITIAL_UNDO_DEPTH];
+    private int undoSize;
+
+    // Keys of the positions reached, the current one last.
+    private final RepetitionHistory history = new RepetitionHistory();
+
+    /**
+     * Constructs an empty search board with full hands.
+     *
+     * @param piecesCount the number of pieces of each type a player starts with
+     * @param turn        the side to move
+     */
+    public SearchBoard(Map<PieceType, Integer> piecesCount, PieceColor turn) {
+        int total = 0;
+        for (Map.Entry<PieceType, Integer> entry : piecesCount.entrySet()) {
+            hand[0][entry.getKey().ordinal()] = entry.getValue();
+            hand[1][entry.getKey().ordinal()] = entry.getValue();
+            total += entry.getValue();
+        }
+        piecesPerPlayer = total;
+        this.turn = turn;
+        zobristKey = Zobrist.turnKey(turn);
+        history.push(zobristKey);
+    }
+
+    /**
+     * Builds a search board from a position snapshot.
+     *
+     * @param immutableGrid the position to copy
+     * @return a search board holding the same pieces, hands and side to move
+     */
+    public static SearchBoard fromGrid(ImmutableGrid immutableGrid) {
+        return of(immutableGrid.getGrid(), immutableGrid.getPiecesCount(), immutableGrid.getTurn(), immutableGrid.getRepetitionHistory());
+    }
+
+    /**
+     * Builds a search board from a game state, for a search rooted at it.
+     *
+     * @param state the position to copy
+     * @return a search board holding the same pieces, hands, side to move and game history
+     */
+    public static SearchBoard fromState(GameState state) {
+        return of(state.getGrid(), new ImmutableGrid().getPiecesCount(), state.getTurn(), state.getRepetitionHistory());
+    }
+
+    /**
+     * @param grid        the stacks to copy
+     * @param piecesCount the number of pieces of each type a player starts with
+     * @param turn        the side to move
+     * @param recorded    the keys the game went through, or null if there are none
+     * @return a search board holding the stacks, the hands left and the history
+     */
+    private static SearchBoard of(PMap<HexCoordinate, PStack<PieceWrapper>> grid, Map<PieceType, Integer> piecesCount,
+                                  PieceColor turn, RepetitionHistory recorded) {
+        SearchBoard board = new SearchBoard(piecesCount, turn);
+        board.copyStacks(grid);
+        board.history.clear();
+        if (recorded != null)
+            board.history.pushAll(recorded);
+        // The game records its position after each move, so the root is usually its last key already.
+        if (board.history.size() == 0 || board.history.peek() != board.zobristKey)
+            board.history.push(board.zobristKey);
+        return board;
+    }
+
+    /**
+     * Pushes a piece and updates the key, the top counts and the queen position.
+     *
+     * @param coordinate the coordinate to push on
+     * @param piece      the piece to push
+     */
+    @Override
+    public void pushPiece(HexCoordinate coordinate, Piece piece) {
+        int cell = index(coordinate);
+        zobristKey ^= Zobrist.pieceKey(codeOf(piece), cell, getHeight(cell));
+        countTop(cell, -1);
+        super.pushPiece(coordinate, piece);
+        countTop(cell, 1);
+        if (piece.type() == QUEEN_BEE)
+            queenCells[colorIndex(piece.color())] = cell;
+    }
+
+    /**
+     * Pops the top piece of a stack and updates the key, the top counts and the queen position.
+     *
+     * @param coordinate the coordinate to pop from
+     * @return the removed piece
+     */
+    @Override
+    public Piece popPiece(HexCoordinate coordinate) {
+        int cell = index(coordinate);
+        countTop(cell, -1);
+        Piece piece = super.popPiece(coordinate);
+        countTop(cell, 1);
+        zobristKey ^= Zobrist.pieceKey(codeOf(piece), cell, getHeight(cell));
+        if (piece.type() == QUEEN_BEE)
+            queenCells[colorIndex(piece.color())] = -1;
+        return piece;
+    }
+
+    /**
+     * Moves the top piece of a stack and passes the turn.
+     *
+     * @param move action containing source and target coordinates
+     */
+    public void doMove(MovementAction move) {
+        move(move.getFrom(), move.getTo());
+    }
+
+    /**
+     * Places a piece from the hand of its owner and passes the turn.
+     *
+     * @param piece           the piece to place
+     * @param placementAction destination coordinate info
+     * @throws IllegalStateException if the owner has no piece of this type left
+     */
+    public void doPlacement(Piece piece, PlacementAction placementAction) {
+        place(piece, placementAction.getDestination());
+    }
+
+    /**
+     * Plays an encoded move or placement, see {@link Move}, and passes the turn.
+     * The coordinates are decoded from the shared table, so nothing is allocated.
+     *
+     * @param move the encoded action
+     * @throws IllegalStateException if a placement takes a piece its owner has no more of
+     */
+    public void doMove(long move) {
+        HexCoordinate to = HexCoordinate.fromPacked(Move.to(move));
+        if (Move.isPlacement(move))
+            place(Move.piece(move), to);
+        else
+            move(HexCoordinate.fromPacked(Move.from(move)), to);
+    }
+
+    /**
+     * Moves the top piece of a stack and passes the turn.
+     *
+     * @param from the cell of the piece
+     * @param to   the destination
+     */
+    private void move(HexCoordinate from, HexCoordinate to) {
+        pushPiece(to, popPiece(from));
+        log(from, to);
+        switchTurn();
+        recordPosition();
+    }
+
+    /**
+     * Places a piece from the hand of its owner and passes the turn.
+     *
+     * @param piece       the piece to place
+     * @param destination the cell to place it on
+     * @throws IllegalStateException if the owner has no piece of this type left
+     */
+    private void place(Piece piece, HexCoordinate destination) {
+        int[] pieces = hand[colorIndex(piece.color())];
+        if (pieces[piece.type().ordinal()] == 0)
+            throw new IllegalStateException("No " + piece.color() + " " + piece.type() + " left to place");
+        pieces[piece.type().ordinal()]--;
+        pushPiece(destination, piece);
+        log(null, destination);
+        switchTurn();
+        recordPosition();
+    }
+
+    /**
+     * Passes the turn without moving, for positions where the side to move has no legal action.
+     */
+    public void doPass() {
+        log(null, null);
+        switchTurn();
+        recordPosition();
+    }
+
+    /**
+     * Reverts the last move, placement or pass.
+     *
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    public void undoMove() {
+        if (undoSize == 0)
+            throw new IllegalStateException("No move to undo");
+        undoSize--;
+        HexCoordinate from = undoFrom[undoSize];
+        HexCoordinate to = undoTo[undoSize];
+        undoFrom[undoSize] = null;
+        undoTo[undoSize] = null;
+        history.pop();
+        switchTurn();
+        if (to == null)
+            return;
+        Piece piece = popPiece(to);
+        if (from != null)
+            pushPiece(from, piece);
+        else
+            hand[colorIndex(piece.color())][piece.type().ordinal()]++;
+    }
+
+    /**
+     * @return the number of times the current position occurred, in the game and along the line searched
+     */
+    public int getRepetitionCount() {
+        return history.count(zobristKey);
+    }
+
+    /**
+     * @return true if the current position occurred before, in the game or along the line searched
+     */
+    public boolean isRepetition() {
+        return getRepetitionCount() > 1;
+    }
+
+    /**
+     * @return the number of moves that can be undone
+     */
+    public int getUndoDepth() {
+        return undoSize;
+    }
+
+    /**
+     * @return the side to move
+     */
+    public PieceColor getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return the Zobrist key of the pieces and the side to move
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @param color the player colour
+     * @param type  the piece type
+     * @return the number of pieces of this type the player still holds
+     */
+    public int getRemainingPiecesToPlace(PieceColor color, PieceType type) {
+        return hand[colorIndex(color)][type.ordinal()];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of pieces the player still holds
+     */
+    public int getRemainingPiecesCount(PieceColor color) {
+        int[] pieces = hand[colorIndex(color)];
+        return pieces[QUEEN_BEE.ordinal()] + pieces[ANT.ordinal()] + pieces[SPIDER.ordinal()]
+                + pieces[GRASSHOPPER.ordinal()] + pieces[BEETLE.ordinal()];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of pieces the player has placed on the board
+     */
+    public int getPlacedPiecesCount(PieceColor color) {
+        return piecesPerPlayer - getRemainingPiecesCount(color);
+    }
+
+    /**
+     * @return the number of pieces placed on the board by both players
+     */
+    public int getPlacedPiecesCount() {
+        return getPlacedPiecesCount(WHITE) + getPlacedPiecesCount(BLACK);
+    }
+
+    /**
+     * Checks the queen rule: a player who has placed three pieces without the queen must place it now.
+     *
+     * @param color the player colour
+     * @return true if the player's next placement must be the queen
+     */
+    public boolean mustPlaceQueen(PieceColor color) {
+        return getPlacedPiecesCount(color) == QUEEN_DEADLINE_MOVE && !isQueenPlaced(color);
+    }
+
+    /**
+     * @param color the player colour
+     * @return true if the player's queen is on the board
+     */
+    public boolean isQueenPlaced(PieceColor color) {
+        return queenCells[colorIndex(color)] >= 0;
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of occupied neighbours of the player's queen, 0 if it is not on the board
+     */
+    public int getQueenNeighbours(PieceColor color) {
+        int cell = queenCells[colorIndex(color)];
+        return cell < 0 ? 0 : Integer.bitCount(getOccupiedNeighbourMask(cell));
+    }
+
+    /**
+     * Returns which queens are surrounded. Draws are not detected, as in {@link GameState#getWinStatus()}.
+     *
+     * @return {@link WinStatus#NONE}, {@link WinStatus#WHITE_WINS}, {@link WinStatus#BLACK_WINS} or {@link WinStatus#STALEMATE}
+     */
+    public int getWinStatus() {
+        return (getQueenNeighbours(BLACK) == 6 ? WinStatus.WHITE_WINS : 0)
+                | (getQueenNeighbours(WHITE) == 6 ? WinStatus.BLACK_WINS : 0);
+    }
+
+    /**
+     * @param color the player colour
+     * @param type  the piece type
+     * @return the number of stacks topped by a piece of this colour and type
+     */
+    public int getTopPieces(PieceColor color, PieceType type) {
+        return topCounts[colorIndex(color) * TOP_SLOTS + type.ordinal()];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the number of stacks where a piece of this colour lies directly on one of the opponent
+     */
+    public int getCoveringPieces(PieceColor color) {
+        return topCounts[colorIndex(color) * TOP_SLOTS + COVERING];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the cell of the player's queen, or -1 if it is not on the board
+     */
+    public int getQueenCell(PieceColor color) {
+        return queenCells[colorIndex(color)];
+    }
+
+    /**
+     * @param color the player colour
+     * @return the coordinate of the player's queen, or null if it is not on the board
+     */
+    public HexCoordinate getQueenCoordinate(PieceColor color) {
+        int cell = queenCells[colorIndex(color)];
+        return cell < 0 ? null : getCoordinate(cell);
+    }
+
+    /**
+     * Copies the stacks of a grid map, taking the pieces out of the hands.
+     *
+     * @param grid the grid map to copy, blank tiles are skipped
+     */
+    private void copyStacks(PMap<HexCoordinate, PStack<PieceWrapper>> grid) {
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
+            PStack<PieceWrapper> stack = entry.getValue();
+            // The stack head is its top, so push from the bottom up.
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                Piece piece = stack.get(i).getPiece();
+                if (piece.type() != BLANK) {
+                    hand[colorIndex(piece.color())][piece.type().ordinal()]--;
+                    pushPiece(entry.getKey(), piece);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the stack of a cell to the top counts, or takes it out.
+     *
+     * @param cell the cell index
+     * @param sign 1 to add the stack, -1 to take it out
+     */
+    private void countTop(int cell, int sign) {
+        long stack = getStack(cell);
+        int height = PackedStack.height(stack);
+        if (height == 0)
+            return;
+        Piece top = pieceOf(PackedStack.codeAt(stack, height - 1));
+        int row = colorIndex(top.color()) * TOP_SLOTS;
+        topCounts[row + top.type().ordinal()] += sign;
+        if (height > 1 && pieceOf(PackedStack.codeAt(stack, height - 2)).color() != top.color())
+            topCounts[row + COVERING] += sign;
+    }
+
+    /**
+     * Appends an entry to the undo log, growing it if needed.
+     *
+     * @param from the source of a movement, or null
+     * @param to   the destination of a movement or placement, or null for a pass
+     */
+    private void log(HexCoordinate from, HexCoordinate to) {
+        if (undoSize == undoFrom.length) {
+            undoFrom = Arrays.copyOf(undoFrom, undoSize * 2);
+            undoTo = Arrays.copyOf(undoTo, undoSize * 2);
+        }
+        undoFrom[undoSize] = from;
+        undoTo[undoSize] = to;
+        undoSize++;
+    }
+
+    /**
+     * Passes the turn to the other player.
+     */
+    private void switchTurn() {
+        turn = turn.getOpposite();
+        zobristKey ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * Records the position reached by a move, after its turn switch.
+     */
+    private void recordPosition() {
+        history.push(zobristKey);
+    }
+
+    /**
+     * @param color a player colour
+     * @return the row of the colour in the per-player tables
+     */
+    private static int colorIndex(PieceColor color) {
+        return color == WHITE ? 1 : 0;
+    }
+}
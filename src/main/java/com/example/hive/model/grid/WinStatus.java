@@ -0,0 +1,84 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.EndGameStatus;
+import com.example.hive.model.enums.PieceColor;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.example.hive.model.enums.PieceColor.*;
+
+/**
+ * End of game status codes, packed into an {@code int} so that a search can test them without
+ * allocating the winner map of {@link ImmutableGrid#checkWin}.
+ * <p>
+ * The low two bits tell which players have won, as the winner map does: a player wins when the
+ * opponent's queen is surrounded, and both bits are set when both queens are, or on a draw. The other
+ * bits tell a draw from a stalemate.
+ * </p>
+ */
+public final class WinStatus {
+    public static final int NONE = 0;
+    // The black queen is surrounded.
+    public static final int WHITE_WINS = 1;
+    // The white queen is surrounded.
+    public static final int BLACK_WINS = 2;
+    // Both queens are surrounded.
+    public static final int STALEMATE = WHITE_WINS | BLACK_WINS;
+    public static final int DRAW_BY_NO_MOVES = STALEMATE | 4;
+    public static final int DRAW_BY_REPETITION = STALEMATE | 8;
+
+    private WinStatus() {
+    }
+
+    /**
+     * @param status a status code
+     * @param color  a player colour
+     * @return true if the player is marked as a winner, as in the winner map; both players are on a draw
+     */
+    public static boolean isWinner(int status, PieceColor color) {
+        return (status & (color == WHITE ? WHITE_WINS : BLACK_WINS)) != 0;
+    }
+
+    /**
+     * @param status a status code
+     * @param color  a player colour
+     * @return true if the player alone has won
+     */
+    public static boolean isWinOf(int status, PieceColor color) {
+        return status == (color == WHITE ? WHITE_WINS : BLACK_WINS);
+    }
+
+    /**
+     * @param status a status code
+     * @return true if the game is over
+     */
+    public static boolean isOver(int status) {
+        return status != NONE;
+    }
+
+    /**
+     * @param status a status code
+     * @return the matching end game status
+     */
+    public static EndGameStatus toEndGameStatus(int status) {
+        return switch (status) {
+            case NONE -> EndGameStatus.NONE;
+            case STALEMATE -> EndGameStatus.STALEMATE;
+            case DRAW_BY_NO_MOVES -> EndGameStatus.DRAW_BY_NO_MOVES;
+            case DRAW_BY_REPETITION -> EndGameStatus.DRAW_BY_REPETITION;
+            default -> EndGameStatus.WIN;
+        };
+    }
+
+    /**
+     * @param status a status code
+     * @return a new winner map, for the callers of {@link ImmutableGrid#checkWin}
+     */
+    public static Map<PieceColor, Boolean> toWinnerMap(int status) {
+        Map<PieceColor, Boolean> winner = new EnumMap<>(PieceColor.class);
+        winner.put(WHITE, isWinner(status, WHITE));
+        winner.put(BLACK, isWinner(status, BLACK));
+        return winner;
+    }
+}
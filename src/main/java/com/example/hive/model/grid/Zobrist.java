@@ -0,0 +1,136 @@
+package com.example.hive.model.grid;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.logic.MovementAction;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import java.util.SplittableRandom;
+
+import static com.example.hive.model.enums.PieceType.BLANK;
+
+/**
+ * 64-bit Zobrist keys for Hive positions.
+ * <p>
+ * A position key is the XOR of one random key per (piece code, cell, stack level) of every
+ * piece on the board, plus {@link #BLACK_TO_MOVE} when it is black's turn.
+ * Cells are the slots of the {@link BitboardGrid} window, so a key never depends on how far
+ * the hive drifted from the origin, only on the layout inside the window.
+ * Because XOR is its own inverse, moving or placing a piece updates a key in O(1).
+ * </p>
+ */
+public final class Zobrist {
+    // Key of the side to move, mixed in when black is to move.
+    public static final long BLACK_TO_MOVE;
+
+    private static final int CODES = 11;
+    private static final long[] KEYS = new long[CODES * BitboardGrid.CELLS * BitboardGrid.MAX_HEIGHT];
+
+    static {
+        // Fixed seed so keys are identical between runs.
+        SplittableRandom random = new SplittableRandom(0x48495645L);
+        for (int i = 0; i < KEYS.length; i++)
+            KEYS[i] = random.nextLong();
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a piece standing at a given level of a cell.
+     *
+     * @param code  the piece code, as in {@link BitboardGrid#codeOf(Piece)}
+     * @param cell  the cell index inside the bitboard window
+     * @param level the stack level, 0 being the ground
+     * @return the Zobrist key of the piece
+     */
+    public static long pieceKey(int code, int cell, int level) {
+        return KEYS[(code * BitboardGrid.CELLS + cell) * BitboardGrid.MAX_HEIGHT + level];
+    }
+
+    /**
+     * Returns the key of a piece standing at a given level of a coordinate.
+     *
+     * @param piece      a coloured, non-blank piece
+     * @param coordinate the coordinate of the stack
+     * @param level      the stack level, 0 being the ground
+     * @return the Zobrist key of the piece
+     */
+    public static long pieceKey(Piece piece, HexCoordinate coordinate, int level) {
+        return pieceKey(BitboardGrid.codeOf(piece), BitboardGrid.index(coordinate), level);
+    }
+
+    /**
+     * @param turn the side to move
+     * @return the key contribution of the side to move
+     */
+    public static long turnKey(PieceColor turn) {
+        return turn == PieceColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * Computes the key of a position from scratch.
+     *
+     * @param grid the grid map, blank tiles are ignored
+     * @param turn the side to move
+     * @return the Zobrist key of the position
+     */
+    public static long hash(PMap<HexCoordinate, PStack<PieceWrapper>> grid, PieceColor turn) {
+        long key = turnKey(turn);
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
+            PStack<PieceWrapper> stack = entry.getValue();
+            int level = 0;
+            // The stack head is its top, so walk from the bottom up.
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                Piece piece = stack.get(i).getPiece();
+                if (piece.type() != BLANK)
+                    key ^= pieceKey(piece, entry.getKey(), level++);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Updates a key for a piece movement. The side to move is not changed.
+     *
+     * @param key  the key of the position before the move
+     * @param grid the grid map before the move
+     * @param move the movement to apply
+     * @return the key of the position after the move
+     */
+    public static long move(long key, PMap<HexCoordinate, PStack<PieceWrapper>> grid, MovementAction move) {
+        PStack<PieceWrapper> source = grid.get(move.getFrom());
+        Piece piece = source.get(0).getPiece();
+        key ^= pieceKey(piece, move.getFrom(), height(source) - 1);
+        return key ^ pieceKey(piece, move.getTo(), height(grid.get(move.getTo())));
+    }
+
+    /**
+     * Updates a key for a piece placement. The side to move is not changed.
+     *
+     * @param key         the key of the position before the placement
+     * @param grid        the grid map before the placement
+     * @param piece       the placed piece
+     * @param destination the coordinate the piece is placed on
+     * @return the key of the position after the placement
+     */
+    public static long place(long key, PMap<HexCoordinate, PStack<PieceWrapper>> grid, Piece piece, HexCoordinate destination) {
+        return key ^ pieceKey(piece, destination, height(grid.get(destination)));
+    }
+
+    /**
+     * @param stack a grid stack, or null for an absent cell
+     * @return the number of pieces in the stack, blank tiles excluded
+     */
+    private static int height(PStack<PieceWrapper> stack) {
+        if (stack == null)
+            return 0;
+        int height = 0;
+        for (PieceWrapper pieceWrapper : stack) {
+            if (pieceWrapper.getPiece().type() != BLANK)
+                height++;
+        }
+        return height;
+    }
+}
@@ -0,0 +1,707 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.enums.EndGameStatus;
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.GameModel;
+import com.example.hive.model.grid.GameState;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.ImmutableGrid;
+import com.example.hive.model.grid.Piece;
+import com.example.hive.model.grid.PieceWrapper;
+import com.example.hive.model.grid.SearchBoard;
+import com.example.hive.model.grid.WinStatus;
+import com.example.hive.model.utils.Pair;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * Plays seeded random games and compares, at every position, fast generators and win checks against
+ * a reference oracle, so that an optimised engine can be adopted once it agrees on thousands of games.
+ * <p>
+ * The oracle rebuilds everything from the grid map of each position, with none of the engine's
+ * validator, bitboard or cached zones: the One-Hive rule is a flood fill of the hive with the piece
+ * lifted, a slide checks the two cells shared by its ends as a set, the placements are a plain scan of
+ * the empty neighbours of the hive, and the queens and hands are counted in the stacks rather than taken
+ * from the state. The beetle keeps the engine's rule, which bars a climb onto a stack one piece higher
+ * than its own and checks no gate otherwise. The random games follow the oracle's actions, so a faulty
+ * candidate never changes the positions visited.
+ * </p>
+ * <p>
+ * Actions are compared as sets of encoded moves, see {@link Move}, existence queries are compared
+ * with the oracle's actions of each player, and win checks with the surrounded queens of the oracle and a
+ * draw when neither player has an action. The first divergence stops the run
+ * and is reported with the game seed and ply, which {@link #replay(long, int)} turns back into the position.
+ * </p>
+ * <p>
+ * Runs headless from {@link #main(String[])}:
+ * {@code DifferentialHarness <games> [seed] [max plies]}.
+ * </p>
+ */
+public final class DifferentialHarness {
+    private static final PieceType[] PLACEABLE_TYPES = {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE};
+    // A player without its queen has only placed pieces; the fourth must be the queen.
+    private static final int QUEEN_DEADLINE = 3;
+
+    /**
+     * A generator under test: appends every encoded legal action of the side to move.
+     */
+    @FunctionalInterface
+    public interface ActionGenerator {
+        void generate(GameState state, MoveList moves);
+    }
+
+    /**
+     * A win check under test.
+     */
+    @FunctionalInterface
+    public interface WinChecker {
+        /**
+         * @param state the position
+         * @return the {@link WinStatus} code of the position; repetitions are not compared
+         */
+        int getWinStatus(GameState state);
+
+        /**
+         * Called before the first position of each game, for a check that follows the game.
+         */
+        default void newGame() {
+        }
+
+        /**
+         * Called with each action played, before the position it leads to is checked.
+         *
+         * @param state the position the action is played from
+         * @param move  the encoded action, or {@link StagedMoveSource#NO_MOVE} for a pass
+         */
+        default void played(GameState state, long move) {
+        }
+    }
+
+    /**
+     * Plays the games of the harness on a {@link GameModel}, to check {@link ImmutableGrid#checkWin}
+     * with the queen counts and the action probe the game relies on.
+     */
+    private static final class GameModelWinChecker implements WinChecker {
+        private GameModel gameModel = new GameModel();
+
+        @Override
+        public int getWinStatus(GameState state) {
+            // A simulated check neither records the position for repetitions nor passes the turn.
+            return toWinStatus(gameModel.checkWin(true));
+        }
+
+        @Override
+        public void newGame() {
+            gameModel = new GameModel();
+        }
+
+        @Override
+        public void played(GameState state, long move) {
+            if (move == StagedMoveSource.NO_MOVE)
+                gameModel.advanceTurn();
+            else if (Move.isPlacement(move))
+                gameModel.placePiece(state.getTurn(), PieceWrapper.of(Move.piece(move)), (PlacementAction) Move.toAction(move));
+            else
+                gameModel.movePiece((MovementAction) Move.toAction(move));
+        }
+
+        /**
+         * @param result the winner map and end of game status of a check
+         * @return the matching status code
+         */
+        private static int toWinStatus(Pair<Map<PieceColor, Boolean>, EndGameStatus> result) {
+            return switch (result.getValue()) {
+                case DRAW_BY_NO_MOVES -> WinStatus.DRAW_BY_NO_MOVES;
+                case DRAW_BY_REPETITION -> WinStatus.DRAW_BY_REPETITION;
+                default -> (result.getKey().get(WHITE) ? WinStatus.WHITE_WINS : 0)
+                        | (result.getKey().get(BLACK) ? WinStatus.BLACK_WINS : 0);
+            };
+        }
+    }
+
+    /**
+     * An existence query under test.
+     */
+    @FunctionalInterface
+    public interface ActionQuery {
+        /**
+         * @param state the position
+         * @param color a player colour, the side to move or not
+         * @return true if the player has at least one legal action
+         */
+        boolean hasAnyLegalAction(GameState state, PieceColor color);
+    }
+
+    /**
+     * The first position where a candidate disagreed with the oracle.
+     *
+     * @param candidate the name of the candidate
+     * @param gameSeed  the seed of the game, for {@link #replay(long, int)}
+     * @param ply       the number of actions played before the position
+     * @param line      the encoded actions played, a pass being {@link StagedMoveSource#NO_MOVE}
+     * @param missing   the actions of the oracle the candidate did not generate
+     * @param extra     the actions the candidate generated and the oracle did not
+     * @param detail    a description of a win check or existence query divergence, or null for an action divergence
+     */
+    public record Divergence(String candidate, long gameSeed, int ply, long[] line, long[] missing, long[] extra, String detail) {
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append("Divergence of ").append(candidate).append(" in game seed ").append(gameSeed)
+                    .append(" at ply ").append(ply).append(System.lineSeparator());
+            for (int i = 0; i < line.length; i++)
+                text.append("  ").append(i + 1).append(". ").append(describe(line[i])).append(System.lineSeparator());
+            if (detail != null)
+                text.append("  ").append(detail).append(System.lineSeparator());
+            for (long move : missing)
+                text.append("  missing: ").append(describe(move)).append(System.lineSeparator());
+            for (long move : extra)
+                text.append("  extra: ").append(describe(move)).append(System.lineSeparator());
+            text.append("Replay with: DifferentialHarness replay ").append(gameSeed).append(' ').append(ply);
+            return text.toString();
+        }
+    }
+
+    private final int maxPlies;
+    private final Map<String, ActionGenerator> generators = new LinkedHashMap<>();
+    private final Map<String, WinChecker> winCheckers = new LinkedHashMap<>();
+    // The win checks that also detect a draw; the others are only compared on the surrounded queens.
+    private final Set<String> drawCheckers = new HashSet<>();
+    private final Map<String, ActionQuery> actionQueries = new LinkedHashMap<>();
+    private long positions;
+
+    /**
+     * Creates a harness with no candidate.
+     *
+     * @param maxPlies the number of actions after which a game is cut short
+     */
+    public DifferentialHarness(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Creates a harness checking the generators and the win checks the game uses today.
+     *
+     * @param gameModel the game model whose validator is checked; its cached move sets carry over between positions
+     * @param maxPlies  the number of actions after which a game is cut short
+     * @return the harness
+     */
+    public static DifferentialHarness withEngineCandidates(GameModel gameModel, int maxPlies) {
+        MovementValidator validator = new MovementValidator(new ImmutableGrid());
+        DifferentialHarness harness = new DifferentialHarness(maxPlies);
+        harness.addGenerator("generateLegalActions", gameModel::generateLegalActions);
+        harness.addGenerator("stagedActions", (state, moves) -> {
+            StagedMoveSource source = validator.stagedActions(state);
+            for (long move = source.next(); move != StagedMoveSource.NO_MOVE; move = source.next())
+                moves.add(move);
+        });
+        harness.addGenerator("SearchMoveGenerator", (state, moves) ->
+                new SearchMoveGenerator(SearchBoard.fromState(state)).generateLegalActions(moves));
+        harness.addWinChecker("GameState.getWinStatus", GameState::getWinStatus, false);
+        harness.addWinChecker("SearchBoard.getWinStatus", state -> SearchBoard.fromState(state).getWinStatus(), false);
+        harness.addWinChecker("ImmutableGrid.checkWin", new GameModelWinChecker(), true);
+        harness.addActionQuery("hasAnyLegalAction", gameModel::hasAnyLegalAction);
+        return harness;
+    }
+
+    /**
+     * Registers a generator to compare with the oracle.
+     *
+     * @param name      the name reported on a divergence
+     * @param generator the generator
+     */
+    public void addGenerator(String name, ActionGenerator generator) {
+        generators.put(name, generator);
+    }
+
+    /**
+     * Registers a win check to compare with the oracle.
+     *
+     * @param name         the name reported on a divergence
+     * @param checker      the win check
+     * @param detectsDraws true if the check reports a draw when neither player has an action,
+     *                     false if it only tells which queens are surrounded
+     */
+    public void addWinChecker(String name, WinChecker checker, boolean detectsDraws) {
+        winCheckers.put(name, checker);
+        if (detectsDraws)
+            drawCheckers.add(name);
+    }
+
+    /**
+     * Registers an existence query to compare with the oracle, for both players of every position.
+     *
+     * @param name  the name reported on a divergence
+     * @param query the existence query
+     */
+    public void addActionQuery(String name, ActionQuery query) {
+        actionQueries.put(name, query);
+    }
+
+    /**
+     * @return the number of positions compared so far
+     */
+    public long getPositions() {
+        return positions;
+    }
+
+    /**
+     * Plays random games and compares every candidate at every position.
+     *
+     * @param games the number of games
+     * @param seed  the seed the game seeds are drawn from
+     * @return the first divergence, or null if every candidate agreed everywhere
+     */
+    public Divergence run(int games, long seed) {
+        Random seeds = new Random(seed);
+        for (int game = 0; game < games; game++) {
+            Divergence divergence = play(seeds.nextLong());
+            if (divergence != null)
+                return divergence;
+        }
+        return null;
+    }
+
+    /**
+     * Plays one random game, comparing the candidates at every position.
+     *
+     * @param gameSeed the seed of the random choices
+     * @return the first divergence, or null if the candidates agreed until the end of the game
+     */
+    public Divergence play(long gameSeed) {
+        Random random = new Random(gameSeed);
+        GameState state = GameState.initial();
+        MoveList expected = new MoveList();
+        MoveList actual = new MoveList();
+        long[] line = new long[maxPlies];
+        for (WinChecker checker : winCheckers.values())
+            checker.newGame();
+        for (int ply = 0; ply <= maxPlies; ply++) {
+            positions++;
+            expected.clear();
+            generateReference(state, expected);
+            long[] sortedExpected = sorted(expected);
+            PieceColor turn = state.getTurn();
+            boolean turnHasAction = sortedExpected.length > 0;
+            boolean opponentHasAction = false;
+            if (!turnHasAction || !actionQueries.isEmpty()) {
+                actual.clear();
+                generateReference(state.pass(), actual);
+                opponentHasAction = !actual.isEmpty();
+            }
+
+            int surroundStatus = getSurroundStatus(state.getGrid());
+            int winStatus = surroundStatus == WinStatus.NONE && !turnHasAction && !opponentHasAction
+                    ? WinStatus.DRAW_BY_NO_MOVES : surroundStatus;
+            for (Map.Entry<String, WinChecker> checker : winCheckers.entrySet()) {
+                int expectedStatus = drawCheckers.contains(checker.getKey()) ? winStatus : surroundStatus;
+                int actualStatus = checker.getValue().getWinStatus(state);
+                if (actualStatus != expectedStatus) {
+                    String detail = "oracle: " + describeStatus(expectedStatus) + ", candidate: " + describeStatus(actualStatus);
+                    return new Divergence(checker.getKey(), gameSeed, ply, Arrays.copyOf(line, ply), new long[0], new long[0], detail);
+                }
+            }
+            if (winStatus != WinStatus.NONE)
+                return null;
+
+            for (Map.Entry<String, ActionGenerator> generator : generators.entrySet()) {
+                actual.clear();
+                generator.getValue().generate(state, actual);
+                long[] sortedActual = sorted(actual);
+                if (!Arrays.equals(sortedExpected, sortedActual)) {
+                    return new Divergence(generator.getKey(), gameSeed, ply, Arrays.copyOf(line, ply),
+                            difference(sortedExpected, sortedActual), difference(sortedActual, sortedExpected), null);
+                }
+            }
+
+            for (Map.Entry<String, ActionQuery> query : actionQueries.entrySet()) {
+                if (query.getValue().hasAnyLegalAction(state, turn) != turnHasAction
+                        || query.getValue().hasAnyLegalAction(state, turn.getOpposite()) != opponentHasAction) {
+                    String detail = "oracle: " + turn + " has an action " + turnHasAction + ", "
+                            + turn.getOpposite() + " has an action " + opponentHasAction;
+                    return new Divergence(query.getKey(), gameSeed, ply, Arrays.copyOf(line, ply), new long[0], new long[0], detail);
+                }
+            }
+
+            if (ply == maxPlies)
+                return null;
+            line[ply] = turnHasAction ? sortedExpected[random.nextInt(sortedExpected.length)] : StagedMoveSource.NO_MOVE;
+            for (WinChecker checker : winCheckers.values())
+                checker.played(state, line[ply]);
+            state = turnHasAction ? state.apply(line[ply]) : state.pass();
+        }
+        return null;
+    }
+
+    /**
+     * Replays a game of the harness up to a ply, to inspect the position of a divergence.
+     *
+     * @param gameSeed the seed of the game
+     * @param ply      the number of actions to play
+     * @return the position reached, or the last one of the game if it ended before
+     */
+    public static GameState replay(long gameSeed, int ply) {
+        Random random = new Random(gameSeed);
+        GameState state = GameState.initial();
+        MoveList moves = new MoveList();
+        for (int i = 0; i < ply && getSurroundStatus(state.getGrid()) == WinStatus.NONE; i++) {
+            moves.clear();
+            generateReference(state, moves);
+            long[] sortedMoves = sorted(moves);
+            state = sortedMoves.length == 0 ? state.pass() : state.apply(sortedMoves[random.nextInt(sortedMoves.length)]);
+        }
+        return state;
+    }
+
+    /**
+     * Generates the legal actions of the side to move from the grid map alone.
+     *
+     * @param state the position
+     * @param moves the list to fill
+     */
+    static void generateReference(GameState state, MoveList moves) {
+        PMap<HexCoordinate, PStack<PieceWrapper>> grid = state.getGrid();
+        PieceColor turn = state.getTurn();
+        boolean queenPlaced = findQueen(grid, turn) != null;
+        // No piece may move before its queen is placed.
+        if (queenPlaced) {
+            for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
+                Piece piece = entry.getValue().get(0).getPiece();
+                if (piece.color() != turn || isPinned(grid, entry.getKey()))
+                    continue;
+                for (HexCoordinate to : referenceDestinations(grid, entry.getKey(), piece.type()))
+                    moves.add(Move.movement(entry.getKey().pack(), to.pack(), piece));
+            }
+        }
+
+        int placedByTurn = 0;
+        int placed = 0;
+        Map<PieceType, Integer> hand = new ImmutableGrid().getPiecesCount();
+        for (PStack<PieceWrapper> stack : grid.values()) {
+            for (PieceWrapper wrapper : stack) {
+                placed++;
+                if (wrapper.getPiece().color() == turn) {
+                    placedByTurn++;
+                    hand.merge(wrapper.getPiece().type(), -1, Integer::sum);
+                }
+            }
+        }
+        boolean mustPlaceQueen = !queenPlaced && placedByTurn == QUEEN_DEADLINE;
+        Set<HexCoordinate> cells = new LinkedHashSet<>();
+        if (grid.isEmpty())
+            cells.add(ImmutableGrid.ORIGIN);
+        for (HexCoordinate coord : grid.keySet()) {
+            for (HexCoordinate neighbor : coord.getNeighbors()) {
+                if (!grid.containsKey(neighbor) && (placed < 2 || touchesOnly(grid, neighbor, turn)))
+                    cells.add(neighbor);
+            }
+        }
+        for (PieceType type : PLACEABLE_TYPES) {
+            if (hand.getOrDefault(type, 0) <= 0 || (type != QUEEN_BEE && mustPlaceQueen))
+                continue;
+            for (HexCoordinate cell : cells)
+                moves.add(Move.placement(cell.pack(), Piece.of(type, turn)));
+        }
+    }
+
+    /**
+     * @param grid the grid map
+     * @param from the cell of the moving piece, which is not pinned
+     * @param type the type of the moving piece
+     * @return the cells the piece can move to
+     */
+    private static Set<HexCoordinate> referenceDestinations(PMap<HexCoordinate, PStack<PieceWrapper>> grid, HexCoordinate from, PieceType type) {
+        // The occupied cells once the piece is lifted.
+        Set<HexCoordinate> occupied = new HashSet<>(grid.keySet());
+        if (grid.get(from).size() == 1)
+            occupied.remove(from);
+        Set<HexCoordinate> destinations = new LinkedHashSet<>();
+        switch (type) {
+            case QUEEN_BEE -> destinations.addAll(slides(occupied, from));
+            case ANT -> {
+                Queue<HexCoordinate> queue = new ArrayDeque<>();
+                queue.add(from);
+                while (!queue.isEmpty()) {
+                    for (HexCoordinate next : slides(occupied, queue.poll())) {
+                        if (!next.equals(from) && destinations.add(next))
+                            queue.add(next);
+                    }
+                }
+            }
+            case SPIDER -> addSpiderWalks(occupied, new ArrayList<>(List.of(from)), destinations);
+            case GRASSHOPPER -> {
+                for (HexCoordinate direction : HexCoordinate.DIRECTIONS) {
+                    HexCoordinate to = from.add(direction);
+                    if (!occupied.contains(to))
+                        continue;
+                    while (occupied.contains(to))
+                        to = to.add(direction);
+                    destinations.add(to);
+                }
+            }
+            case BEETLE -> {
+                for (HexCoordinate to : from.getNeighbors()) {
+                    // The engine bars a climb onto a stack exactly one piece higher and checks no gate otherwise.
+                    if (height(grid, to) == height(grid, from) + 1)
+                        continue;
+                    if (occupied.contains(to) || occupied.isEmpty() || touches(occupied, to))
+                        destinations.add(to);
+                }
+            }
+            default -> {
+            }
+        }
+        return destinations;
+    }
+
+    /**
+     * Walks the paths of exactly three slides that never come back to a cell, as a spider does.
+     *
+     * @param occupied     the occupied cells, without the spider
+     * @param path         the cells walked so far, from the start
+     * @param destinations the set the ends of the paths are added to
+     */
+    private static void addSpiderWalks(Set<HexCoordinate> occupied, List<HexCoordinate> path, Set<HexCoordinate> destinations) {
+        if (path.size() == 4) {
+            destinations.add(path.get(3));
+            return;
+        }
+        for (HexCoordinate next : slides(occupied, path.get(path.size() - 1))) {
+            if (path.contains(next))
+                continue;
+            path.add(next);
+            addSpiderWalks(occupied, path, destinations);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * Finds the slides from a cell: to an empty neighbour, between two shared cells exactly one of which is occupied.
+     *
+     * @param occupied the occupied cells, without the moving piece
+     * @param cell     the cell slid from
+     * @return the cells reached by one slide
+     */
+    private static Set<HexCoordinate> slides(Set<HexCoordinate> occupied, HexCoordinate cell) {
+        Set<HexCoordinate> targets = new HashSet<>();
+        for (HexCoordinate neighbor : cell.getNeighbors()) {
+            if (occupied.contains(neighbor))
+                continue;
+            Set<HexCoordinate> shared = new HashSet<>(cell.getNeighbors());
+            shared.retainAll(neighbor.getNeighbors());
+            shared.retainAll(occupied);
+            if (shared.size() == 1)
+                targets.add(neighbor);
+        }
+        return targets;
+    }
+
+    /**
+     * Checks the One-Hive rule with a flood fill of the hive once the piece is lifted.
+     *
+     * @param grid the grid map
+     * @param cell the cell of the piece
+     * @return true if the piece is alone on its cell and the rest of the hive is not in one piece without it
+     */
+    private static boolean isPinned(PMap<HexCoordinate, PStack<PieceWrapper>> grid, HexCoordinate cell) {
+        if (height(grid, cell) > 1 || grid.size() == 1)
+            return false;
+        Set<HexCoordinate> rest = new HashSet<>(grid.keySet());
+        rest.remove(cell);
+        Set<HexCoordinate> reached = new HashSet<>();
+        Queue<HexCoordinate> queue = new ArrayDeque<>();
+        HexCoordinate start = rest.iterator().next();
+        reached.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            for (HexCoordinate neighbor : queue.poll().getNeighbors()) {
+                if (rest.contains(neighbor) && reached.add(neighbor))
+                    queue.add(neighbor);
+            }
+        }
+        return reached.size() != rest.size();
+    }
+
+    /**
+     * @param occupied a set of occupied cells
+     * @param cell     a cell
+     * @return true if the cell has an occupied neighbour
+     */
+    private static boolean touches(Set<HexCoordinate> occupied, HexCoordinate cell) {
+        for (HexCoordinate neighbor : cell.getNeighbors()) {
+            if (occupied.contains(neighbor))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param grid the grid map
+     * @param cell a cell
+     * @return the number of pieces on the cell
+     */
+    private static int height(PMap<HexCoordinate, PStack<PieceWrapper>> grid, HexCoordinate cell) {
+        PStack<PieceWrapper> stack = grid.get(cell);
+        return stack == null ? 0 : stack.size();
+    }
+
+    /**
+     * @param grid  the grid map
+     * @param cell  an empty cell
+     * @param color a player colour
+     * @return true if the cell touches at least one top piece, all of the colour
+     */
+    private static boolean touchesOnly(PMap<HexCoordinate, PStack<PieceWrapper>> grid, HexCoordinate cell, PieceColor color) {
+        boolean touches = false;
+        for (HexCoordinate neighbor : cell.getNeighbors()) {
+            PStack<PieceWrapper> stack = grid.get(neighbor);
+            if (stack == null)
+                continue;
+            if (stack.get(0).getPiece().color() != color)
+                return false;
+            touches = true;
+        }
+        return touches;
+    }
+
+    /**
+     * Finds which queens are surrounded by looking for them in every stack, without the queen coordinates of the state.
+     *
+     * @param grid the grid map
+     * @return {@link WinStatus#NONE}, {@link WinStatus#WHITE_WINS}, {@link WinStatus#BLACK_WINS} or {@link WinStatus#STALEMATE}
+     */
+    static int getSurroundStatus(PMap<HexCoordinate, PStack<PieceWrapper>> grid) {
+        int status = WinStatus.NONE;
+        if (isSurrounded(grid, findQueen(grid, BLACK)))
+            status |= WinStatus.WHITE_WINS;
+        if (isSurrounded(grid, findQueen(grid, WHITE)))
+            status |= WinStatus.BLACK_WINS;
+        return status;
+    }
+
+    /**
+     * @param grid  the grid map
+     * @param color a player colour
+     * @return the cell of the player's queen, whether covered or not, or null if it is not on the board
+     */
+    private static HexCoordinate findQueen(PMap<HexCoordinate, PStack<PieceWrapper>> grid, PieceColor color) {
+        Piece queen = Piece.of(QUEEN_BEE, color);
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
+            for (PieceWrapper wrapper : entry.getValue()) {
+                if (wrapper.getPiece().equals(queen))
+                    return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param grid the grid map
+     * @param cell a cell, or null
+     * @return true if the cell is given and its six neighbours are occupied
+     */
+    private static boolean isSurrounded(PMap<HexCoordinate, PStack<PieceWrapper>> grid, HexCoordinate cell) {
+        if (cell == null)
+            return false;
+        for (HexCoordinate neighbor : cell.getNeighbors()) {
+            if (!grid.containsKey(neighbor))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param moves a list of encoded moves
+     * @return the moves in ascending order
+     */
+    private static long[] sorted(MoveList moves) {
+        long[] array = moves.toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * @param from a sorted array
+     * @param minus a sorted array
+     * @return the elements of from missing in minus
+     */
+    private static long[] difference(long[] from, long[] minus) {
+        return Arrays.stream(from).filter(move -> Arrays.binarySearch(minus, move) < 0).toArray();
+    }
+
+    /**
+     * @param status a status code
+     * @return the name of the status
+     */
+    private static String describeStatus(int status) {
+        return switch (status) {
+            case WinStatus.NONE -> "none";
+            case WinStatus.WHITE_WINS -> "white wins";
+            case WinStatus.BLACK_WINS -> "black wins";
+            case WinStatus.STALEMATE -> "stalemate";
+            case WinStatus.DRAW_BY_NO_MOVES -> "draw by no moves";
+            case WinStatus.DRAW_BY_REPETITION -> "draw by repetition";
+            default -> "unknown status " + status;
+        };
+    }
+
+    /**
+     * @param move an encoded action or a pass
+     * @return a readable form of the action
+     */
+    private static String describe(long move) {
+        return move == StagedMoveSource.NO_MOVE ? "pass" : Move.toString(move);
+    }
+
+    /**
+     * Runs the harness from the command line and exits with status 1 on a divergence.
+     *
+     * @param args the number of games, then optionally the seed and the maximum plies per game;
+     *             or {@code replay <game seed> <ply>} to print the actions of the position of a divergence
+     */
+    public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals("replay")) {
+            GameState state = replay(Long.parseLong(args[1]), Integer.parseInt(args[2]));
+            MoveList moves = new MoveList();
+            generateReference(state, moves);
+            System.out.println(state.getTurn() + " to move, " + state.getGrid().size() + " occupied cells");
+            for (long move : sorted(moves))
+                System.out.println(describe(move));
+            return;
+        }
+        if (args.length < 1) {
+            System.err.println("Usage: DifferentialHarness <games> [seed] [max plies] | replay <game seed> <ply>");
+            System.exit(2);
+        }
+        int games = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0L;
+        int maxPlies = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        DifferentialHarness harness = withEngineCandidates(new GameModel(), maxPlies);
+        long start = System.nanoTime();
+        Divergence divergence = harness.run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Positions compared: %d in %.3f s%n", harness.getPositions(), seconds);
+        if (divergence != null) {
+            System.out.println(divergence);
+            System.exit(1);
+        }
+        System.out.println("No divergence in " + games + " games");
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.Piece;
+
+/**
+ * Helpers for moves encoded into a single {@code long}.
+ * <p>
+ * The low {@value #COORDINATE_BITS} bits hold the packed destination, as in
+ * {@link HexCoordinate#pack(int, int)}, followed by the packed origin, the type ordinal
+ * and the colour ordinal of the moving piece, and the placement flag. Placements have no origin.
+ * </p>
+ * <p>
+ * Generators fill {@link MoveList} buffers with encoded moves; {@link #toAction(long)} turns one back
+ * into a {@link MoveAction} where an object is needed, such as the game view.
+ * </p>
+ */
+public final class Move {
+    private static final int COORDINATE_BITS = 24;
+    private static final int TYPE_BITS = 3;
+    private static final int COLOR_BITS = 2;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    private static final int FROM_SHIFT = COORDINATE_BITS;
+    private static final int TYPE_SHIFT = FROM_SHIFT + COORDINATE_BITS;
+    private static final int COLOR_SHIFT = TYPE_SHIFT + TYPE_BITS;
+    private static final int PLACEMENT_SHIFT = COLOR_SHIFT + COLOR_BITS;
+
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final PieceColor[] COLORS = PieceColor.values();
+
+    private Move() {
+    }
+
+    /**
+     * Encodes the movement of a piece.
+     *
+     * @param from  the packed origin
+     * @param to    the packed destination
+     * @param piece the moving piece
+     * @return the encoded move
+     */
+    public static long movement(int from, int to, Piece piece) {
+        return to | ((long) from << FROM_SHIFT) | kind(piece);
+    }
+
+    /**
+     * Encodes the placement of a piece.
+     *
+     * @param to    the packed destination
+     * @param piece the placed piece
+     * @return the encoded move
+     */
+    public static long placement(int to, Piece piece) {
+        return to | kind(piece) | (1L << PLACEMENT_SHIFT);
+    }
+
+    /**
+     * @param piece a piece
+     * @return the type and colour bits of the piece
+     */
+    private static long kind(Piece piece) {
+        return ((long) piece.type().ordinal() << TYPE_SHIFT) | ((long) piece.color().ordinal() << COLOR_SHIFT);
+    }
+
+    /**
+     * @param move an encoded move
+     * @return true if the move places a piece from the hand
+     */
+    public static boolean isPlacement(long move) {
+        return (move >>> PLACEMENT_SHIFT & 1) != 0;
+    }
+
+    /**
+     * @param move an encoded move
+     * @return the packed origin, meaningless for a placement
+     */
+    public static int from(long move) {
+        return (int) (move >>> FROM_SHIFT & COORDINATE_MASK);
+    }
+
+    /**
+     * @param move an encoded move
+     * @return the packed destination
+     */
+    public static int to(long move) {
+        return (int) (move & COORDINATE_MASK);
+    }
+
+    /**
+     * @param move an encoded move
+     * @return the type of the moving or placed piece
+     */
+    public static PieceType type(long move) {
+        return TYPES[(int) (move >>> TYPE_SHIFT) & ((1 << TYPE_BITS) - 1)];
+    }
+
+    /**
+     * @param move an encoded move
+     * @return the colour of the moving or placed piece
+     */
+    public static PieceColor color(long move) {
+        return COLORS[(int) (move >>> COLOR_SHIFT) & ((1 << COLOR_BITS) - 1)];
+    }
+
+    /**
+     * @param move an encoded move
+     * @return the moving or placed piece
+     */
+    public static Piece piece(long move) {
+        return Piece.of(type(move), color(move));
+    }
+
+    /**
+     * Decodes a move into an action object.
+     *
+     * @param move an encoded move
+     * @return a {@link PlacementAction} or a {@link MovementAction}
+     */
+    public static MoveAction toAction(long move) {
+        HexCoordinate to = HexCoordinate.fromPacked(to(move));
+        if (isPlacement(move))
+            return new PlacementAction(to);
+        return new MovementAction(HexCoordinate.fromPacked(from(move)), to);
+    }
+
+    /**
+     * @param move an encoded move
+     * @return a readable form of the move, for logs and debugging
+     */
+    public static String toString(long move) {
+        String piece = color(move) + " " + type(move) + " ";
+        if (isPlacement(move))
+            return piece + "-> " + HexCoordinate.fromPacked(to(move));
+        return piece + HexCoordinate.fromPacked(from(move)) + " -> " + HexCoordinate.fromPacked(to(move));
+    }
+}
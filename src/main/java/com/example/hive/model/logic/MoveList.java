@@ -0,0 +1,135 @@
+package com.example.hive.model.logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable buffer of encoded moves, see {@link Move}.
+ * <p>
+ * Generators append to a list instead of returning a new collection, so a search can keep one list per
+ * ply and {@link #clear()} it between positions: once the buffer has grown to the largest move count seen,
+ * generating moves allocates nothing.
+ * </p>
+ */
+public final class MoveList {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] moves;
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    public MoveList() {
+        moves = new long[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Appends an encoded move.
+     *
+     * @param move the encoded move
+     */
+    public void add(long move) {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index the index of the move, from 0 to {@link #size()} excluded
+     * @return the encoded move at this index
+     */
+    public long get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        return moves[index];
+    }
+
+    /**
+     * @return the number of moves in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the list holds no move
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param move an encoded move
+     * @return true if the list holds this move
+     */
+    public boolean contains(long move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Exchanges two moves, for a search ordering the list in place.
+     *
+     * @param i the index of a move
+     * @param j the index of another move
+     */
+    public void swap(int i, int j) {
+        if (i >= size || j >= size)
+            throw new IndexOutOfBoundsException("Index " + Math.max(i, j) + " out of bounds for size " + size);
+        long move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    /**
+     * Empties the list, keeping its buffer.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Shrinks the list to its first moves, dropping those appended after.
+     *
+     * @param size the new size, at most the current one
+     */
+    public void truncate(int size) {
+        if (size > this.size)
+            throw new IndexOutOfBoundsException("Size " + size + " exceeds " + this.size);
+        this.size = size;
+    }
+
+    /**
+     * @return a copy of the moves, in order
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @param from the index of the first move to copy
+     * @return a copy of the moves from this index on, in order
+     */
+    public long[] toArray(int from) {
+        if (from > size)
+            throw new IndexOutOfBoundsException("Index " + from + " exceeds " + size);
+        return Arrays.copyOfRange(moves, from, size);
+    }
+
+    /**
+     * Decodes the moves into action objects, for callers that work with {@link MoveAction}s.
+     *
+     * @return a new list of actions, in the order of the moves
+     */
+    public List<MoveAction> toActions() {
+        List<MoveAction> actions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            actions.add(Move.toAction(moves[i]));
+        return actions;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.BitboardGrid;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.PieceWrapper;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The moves of the unpinned pieces of one grid, carried over to the next grid when they cannot have changed.
+ * <p>
+ * Grids derived from each other by moves and placements share the stacks of every untouched cell, so the
+ * cells that changed between two grids are found by comparing stacks by identity. A piece keeps its moves
+ * when its own stack is the same and no changed cell lies in its footprint. The walks of the queen, the
+ * spider and the ant record the cells they read, see {@link SlideGraph#getFootprint()}. The beetle reads
+ * the cells within two of its own, the neighbours of its targets included, and the grasshopper the three
+ * lines through its cell, widened by one. Pins are global, so they are checked on each grid, never cached.
+ * </p>
+ * <p>
+ * Sibling positions of a search differ from each other by a few cells, so most of their move sets are shared.
+ * A cache is confined to one thread: the validator keeps one chain of caches per thread simulating.
+ * </p>
+ */
+final class MoveSetCache {
+    // Grids further apart than this are unlikely to share much, and are rebuilt from scratch.
+    private static final int MAX_CHANGED_CELLS = 8;
+    // The One-Hive rule reads the size of hives this small, so their move sets are never reused.
+    private static final int MIN_REUSE_SIZE = 3;
+
+    /**
+     * The moves of the top piece of a stack.
+     *
+     * @param stack     the stack the moves were generated for, compared by identity
+     * @param type      the type of the top piece
+     * @param moves     the encoded moves
+     * @param footprint bitset of the cells the moves depend on, by bitboard cell index,
+     *                  or null to use the reach of the piece type
+     */
+    record Entry(PStack<PieceWrapper> stack, PieceType type, long[] moves, long[] footprint) {
+    }
+
+    private final PMap<HexCoordinate, PStack<PieceWrapper>> grid;
+    private final Map<HexCoordinate, Entry> entries;
+
+    /**
+     * Creates an empty cache for a grid.
+     *
+     * @param grid the grid the moves are generated on
+     */
+    MoveSetCache(PMap<HexCoordinate, PStack<PieceWrapper>> grid) {
+        this(grid, new HashMap<>());
+    }
+
+    private MoveSetCache(PMap<HexCoordinate, PStack<PieceWrapper>> grid, Map<HexCoordinate, Entry> entries) {
+        this.grid = grid;
+        this.entries = entries;
+    }
+
+    /**
+     * @return the grid of the cache, compared by identity
+     */
+    PMap<HexCoordinate, PStack<PieceWrapper>> grid() {
+        return grid;
+    }
+
+    /**
+     * Builds the cache of another grid, keeping the entries its changes cannot affect.
+     *
+     * @param next the next grid
+     * @return a cache for the next grid
+     */
+    MoveSetCache advance(PMap<HexCoordinate, PStack<PieceWrapper>> next) {
+        if (grid.size() < MIN_REUSE_SIZE || next.size() < MIN_REUSE_SIZE)
+            return new MoveSetCache(next);
+        List<HexCoordinate> changed = new ArrayList<>();
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> cell : next.entrySet()) {
+            if (grid.get(cell.getKey()) != cell.getValue() && changed.size() <= MAX_CHANGED_CELLS)
+                changed.add(cell.getKey());
+        }
+        for (HexCoordinate coordinate : grid.keySet()) {
+            if (!next.containsKey(coordinate) && changed.size() <= MAX_CHANGED_CELLS)
+                changed.add(coordinate);
+        }
+        if (changed.size() > MAX_CHANGED_CELLS)
+            return new MoveSetCache(next);
+
+        Map<HexCoordinate, Entry> kept = new HashMap<>();
+        for (Map.Entry<HexCoordinate, Entry> entry : entries.entrySet()) {
+            Entry moves = entry.getValue();
+            if (next.get(entry.getKey()) == moves.stack() && !isAffected(moves, entry.getKey(), changed))
+                kept.put(entry.getKey(), moves);
+        }
+        return new MoveSetCache(next, kept);
+    }
+
+    /**
+     * @param coordinate the coordinate of a piece
+     * @param stack      the stack of the piece on the grid of the cache
+     * @return the cached moves of the piece, or null if they have to be generated
+     */
+    long[] get(HexCoordinate coordinate, PStack<PieceWrapper> stack) {
+        Entry entry = entries.get(coordinate);
+        return entry != null && entry.stack() == stack ? entry.moves() : null;
+    }
+
+    /**
+     * Stores the moves of an unpinned piece of the grid of the cache.
+     *
+     * @param coordinate the coordinate of the piece
+     * @param stack      the stack of the piece
+     * @param moves      the encoded moves
+     * @param footprint  bitset of the cells the moves depend on, or null to use the reach of the piece type
+     */
+    void put(HexCoordinate coordinate, PStack<PieceWrapper> stack, long[] moves, long[] footprint) {
+        entries.put(coordinate, new Entry(stack, stack.get(0).getPiece().type(), moves, footprint));
+    }
+
+    /**
+     * @param entry      the cached moves of a piece
+     * @param coordinate the coordinate of the piece
+     * @param changed    the cells that changed
+     * @return true if a changed cell is within the footprint of the moves
+     */
+    private static boolean isAffected(Entry entry, HexCoordinate coordinate, List<HexCoordinate> changed) {
+        long[] footprint = entry.footprint();
+        for (HexCoordinate cell : changed) {
+            boolean affected;
+            if (footprint != null) {
+                // The window wraps, so a far cell may share a bit with the footprint: a needless miss at worst.
+                int index = BitboardGrid.index(cell);
+                affected = (footprint[index >>> 6] & (1L << index)) != 0;
+            } else {
+                int dq = cell.getQ() - coordinate.getQ();
+                int dr = cell.getR() - coordinate.getR();
+                affected = switch (entry.type()) {
+                    case BEETLE -> coordinate.distance(cell) <= 2;
+                    case GRASSHOPPER -> Math.abs(dq) <= 1 || Math.abs(dr) <= 1 || Math.abs(dq + dr) <= 1;
+                    default -> true;
+                };
+            }
+            if (affected)
+                return true;
+        }
+        return false;
+    }
+}
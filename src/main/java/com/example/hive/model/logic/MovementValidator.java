@@ -3,13 +3,16 @@ package com.example.hive.model.logic;
 import static com.example.hive.model.enums.PieceColor.*;
 import static com.example.hive.model.enums.PieceType.*;
 
+import com.example.hive.model.grid.BitboardGrid;
 import com.example.hive.model.grid.Piece;
 import com.example.hive.model.grid.PieceWrapper;
 import com.example.hive.model.enums.PieceColor;
 import com.example.hive.model.enums.PieceType;
 import com.example.hive.model.grid.GameModel;
+import com.example.hive.model.grid.GameState;
 import com.example.hive.model.grid.HexCoordinate;
 import com.example.hive.model.grid.ImmutableGrid;
+import com.example.hive.model.grid.PlacementZones;
 import com.example.hive.model.utils.Pair;
 import org.pcollections.ConsPStack;
 import org.pcollections.PMap;
@@ -22,8 +25,32 @@ import java.util.*;
  * This class is used to check whether the hive remains connected after a move or placement.
  */
 public class MovementValidator {
+    // Piece types a player holds in hand, in the order placements are generated.
+    private static final PieceType[] PLACEABLE_TYPES = {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE};
+
     private ImmutableGrid immutableGrid;
 
+    // Articulation points of the last grid checked, shared by all the move checks on that grid.
+    private volatile HiveAnalysis hiveAnalysis;
+    // Move sets of the pieces of the last grid each thread generated on, carried over to the grids that follow it.
+    // Threads simulating in parallel work on unrelated grids, so each keeps its own chain.
+    private final ThreadLocal<MoveSetCache> moveSetCache = new ThreadLocal<>();
+
+    /**
+     * The One-Hive facts of one grid map, computed once and read by every move check on it.
+     *
+     * @param grid               the analysed grid map, compared by identity
+     * @param bitboard           the bitboard of the grid, only read once built
+     * @param articulationPoints bitset of the cells whose removal splits the hive, by bitboard cell index
+     * @param connected          whether the hive is in one piece
+     */
+    private record HiveAnalysis(PMap<HexCoordinate, PStack<PieceWrapper>> grid, BitboardGrid bitboard, long[] articulationPoints, boolean connected) {
+        boolean isArticulationPoint(HexCoordinate coord) {
+            int cell = BitboardGrid.index(coord);
+            return (articulationPoints[cell >>> 6] & (1L << cell)) != 0;
+        }
+    }
+
     /**
      * Constructs a new MovementValidator with the given immutable grid.
      *
@@ -44,8 +71,9 @@ public class MovementValidator {
 
     /**
      * Retrieves a list of valid placement actions for the current player's turn.
-     * A placement is valid if the tile is blank and adjacent to another piece of its
-     * color but not adjacent to the opponent's pieces.
+     * A placement is valid if the tile is on the frontier and adjacent to another piece of its
+     * color but not adjacent to the opponent's pieces: past the opening, the cells of the player's
+     * placement zone that are not in the opponent's.
      *
      * @param gameModel The current game model.
      * @param gridCopy A copy of the game grid.
@@ -56,16 +84,75 @@ public class MovementValidator {
         boolean stillLeft = gameModel.isStillLeftPanelPiece(currentTurn);
         if (!stillLeft)
             return null;
-        List<PlacementAction> placements = new ArrayList<>();
-        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
-            HexCoordinate coord = entry.getKey();
-            PieceWrapper tile = entry.getValue().get(0);
-            assert tile != null;
-            if (tile.getPiece().type() == BLANK && isValidPlacement(gameModel, gridCopy, coord, currentTurn)) {
-                placements.add(new PlacementAction(coord));
-            }
-        }
+        return toPlacementActions(placementCells(gameModel, gridCopy, currentTurn));
+    }
+
+    /**
+     * Retrieves a list of valid placement actions for the side to move of a game state.
+     * Only the state is read, so this is safe to call on simulated states.
+     *
+     * @param gameState The game state to inspect.
+     * @return A list of valid placement actions, or null if the side to move has no piece left to place.
+     */
+    public List<PlacementAction> getValidPlacements(GameState gameState) {
+        PieceColor currentTurn = gameState.getTurn();
+        if (gameState.getRemainingPiecesCount(currentTurn) == 0)
+            return null;
+        return toPlacementActions(placementCells(gameState, currentTurn));
+    }
+
+    /**
+     * Returns the cells where a player may place a piece on a grid of the game model.
+     * During the opening every frontier cell is valid; later the cells come from the placement zones.
+     *
+     * @param gameModel The current game model.
+     * @param gridCopy A copy of the game grid.
+     * @param currentTurn The player placing a piece.
+     * @return The placement cells of the player.
+     */
+    private Collection<HexCoordinate> placementCells(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        if (gameModel.getPlacedPiecesCount() < 2)
+            return immutableGrid.getFrontier(gridCopy);
+        return immutableGrid.getPlacementZones(gridCopy).getPlacements(currentTurn);
+    }
 
+    /**
+     * Returns the cells where a player may place a piece on a simulated position of the game model,
+     * read from the frontier and the zones the position carries.
+     *
+     * @param gameModel The current game model.
+     * @param position The position to inspect.
+     * @param currentTurn The player placing a piece.
+     * @return The placement cells of the player.
+     */
+    private static Collection<HexCoordinate> placementCells(GameModel gameModel, ImmutableGrid position, PieceColor currentTurn) {
+        if (gameModel.getPlacedPiecesCount() < 2)
+            return position.getFrontier();
+        return position.getPlacementZones().getPlacements(currentTurn);
+    }
+
+    /**
+     * Returns the cells where the side to move of a game state may place a piece.
+     * During the opening every frontier cell is valid; later the cells come from the placement zones.
+     *
+     * @param gameState The game state to inspect.
+     * @param currentTurn The side to move.
+     * @return The placement cells of the player.
+     */
+    private static Collection<HexCoordinate> placementCells(GameState gameState, PieceColor currentTurn) {
+        if (gameState.getPlacedPiecesCount() < 2)
+            return gameState.getFrontier();
+        return gameState.getPlacementZones().getPlacements(currentTurn);
+    }
+
+    /**
+     * @param cells The placement cells.
+     * @return One placement action per cell.
+     */
+    private static List<PlacementAction> toPlacementActions(Collection<HexCoordinate> cells) {
+        List<PlacementAction> placements = new ArrayList<>(cells.size());
+        for (HexCoordinate coord : cells)
+            placements.add(new PlacementAction(coord));
         return placements;
     }
 
@@ -79,35 +166,39 @@ public class MovementValidator {
      * @return True if the placement is valid, false otherwise.
      */
     public boolean isValidPlacement(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord, PieceColor currentTurn) {
-        // The coordinate must exist in the grid.
-        if (!gridCopy.containsKey(coord)) {
-            return false;
-        }
-        PieceWrapper tile = gridCopy.get(coord).get(0);
-        // The tile must be blank.
-        if (tile.getPiece().type() != BLANK) {
+        // The tile must be an empty cell touching the hive.
+        if (!ImmutableGrid.isFrontier(gridCopy, coord)) {
             return false;
         }
         // For the first move, allow placement.
         if (gameModel.getPlacedPiecesCount() < 2) {
             return true;
         }
-        boolean hasAdjacentPiece = false;
-        boolean isTouchingOpponent = false;
-        for (HexCoordinate neighbor : coord.getNeighbors()) {
-            if (gridCopy.containsKey(neighbor)) {
-                PStack<PieceWrapper> neighborStack = gridCopy.get(neighbor);
-                if (!neighborStack.isEmpty() && neighborStack.get(0).getPiece().type() != BLANK) {
-                    hasAdjacentPiece = true;
-
-                    PieceColor neighborColor = neighborStack.get(0).getPiece().color();
-                    if (neighborColor != currentTurn) {
-                        isTouchingOpponent = true;
-                    }
-                }
+        return isValidPlacement(BitboardGrid.fromGrid(gridCopy), coord, currentTurn);
+    }
+
+    /**
+     * Checks the neighbourhood rule of a placement on a bitboard:
+     * the tile must touch a piece of its color and no piece of the opponent.
+     *
+     * @param bitboard The bitboard of the game grid.
+     * @param coord The frontier coordinate of the piece to place.
+     * @param currentTurn The current player's turn.
+     * @return True if the placement is valid, false otherwise.
+     */
+    private boolean isValidPlacement(BitboardGrid bitboard, HexCoordinate coord, PieceColor currentTurn) {
+        int cell = BitboardGrid.index(coord);
+        int neighbours = bitboard.getOccupiedNeighbourMask(cell);
+        if (neighbours == 0) {
+            return false;
+        }
+        boolean isWhiteTurn = currentTurn == WHITE;
+        for (int direction = 0; direction < 6; direction++) {
+            if ((neighbours & (1 << direction)) != 0 && bitboard.isWhite(BitboardGrid.neighbour(cell, direction)) != isWhiteTurn) {
+                return false;
             }
         }
-        return hasAdjacentPiece && !isTouchingOpponent;
+        return true;
     }
 
     /**
@@ -119,17 +210,104 @@ public class MovementValidator {
      * @return A list of valid movement actions for the piece at the given coordinate.
      */
     public List<MovementAction> getValidMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from) {
-        PieceWrapper wrapper = gridCopy.get(from).get(0);
-        if (wrapper == null || wrapper.getPiece() == null) return Collections.emptyList();
+        MoveList moves = new MoveList();
+        addValidMoves(gridCopy, from, moves);
+        return toMovementActions(moves);
+    }
+
+    /**
+     * Appends the encoded valid moves of the piece at the given coordinate.
+     *
+     * @param gridCopy A copy of the game grid.
+     * @param from The coordinate of the piece to move.
+     * @param moves The list to fill.
+     */
+    public void addValidMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, MoveList moves) {
+        generateValidMoves(gridCopy, from, moves);
+    }
+
+    /**
+     * Counts the valid moves of the piece at the given coordinate, without building any list.
+     *
+     * @param gridCopy A copy of the game grid.
+     * @param from The coordinate of the piece to move.
+     * @return The number of valid moves of the piece, 0 for an empty cell.
+     */
+    public int countValidMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from) {
+        return generateValidMoves(gridCopy, from, null);
+    }
+
+    /**
+     * Generates the valid moves of the piece at the given coordinate.
+     *
+     * @param gridCopy A copy of the game grid.
+     * @param from The coordinate of the piece to move.
+     * @param moves The list to fill, or null to only count the moves.
+     * @return The number of valid moves.
+     */
+    private int generateValidMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, MoveList moves) {
+        PStack<PieceWrapper> stack = gridCopy.get(from);
+        if (stack == null) return 0;
+        PieceWrapper wrapper = stack.get(0);
+        if (wrapper == null || wrapper.getPiece() == null) return 0;
         Piece piece = wrapper.getPiece();
-        return switch (piece.type()) {
-            case QUEEN_BEE -> getValidQueenMoves(gridCopy, from);
-            case ANT -> getValidAntMoves(gridCopy, from);
-            case SPIDER -> getValidSpiderMoves(gridCopy, from);
-            case GRASSHOPPER -> getValidGrasshopperMoves(gridCopy, from);
-            case BEETLE -> getValidBeetleMoves(gridCopy, from);
-            default -> Collections.emptyList();
+        if (isPinned(gridCopy, from)) return 0;
+
+        MoveSetCache cache = moveSets(gridCopy);
+        long[] pieceMoves = cache.get(from, stack);
+        if (pieceMoves != null) {
+            if (moves != null) {
+                for (long move : pieceMoves)
+                    moves.add(move);
+            }
+            return pieceMoves.length;
+        }
+
+        int first = moves == null ? 0 : moves.size();
+        // Sliding pieces record the cells their walk read; the others fall back to the reach of their type.
+        SlideGraph graph = null;
+        int count = switch (piece.type()) {
+            case QUEEN_BEE -> (graph = slideGraph(gridCopy, from)).addNeighbours(moves);
+            case ANT -> (graph = slideGraph(gridCopy, from)).addReachable(moves);
+            case SPIDER -> (graph = slideGraph(gridCopy, from)).addSpiderDestinations(moves);
+            case GRASSHOPPER -> addGrasshopperMoves(gridCopy, from, piece, moves);
+            case BEETLE -> addBeetleMoves(gridCopy, from, piece, moves);
+            default -> 0;
         };
+        // Counting keeps no move, so it leaves the cache as it is and allocates nothing for it.
+        if (moves != null)
+            cache.put(from, stack, moves.toArray(first), graph == null ? null : graph.getFootprint());
+        return count;
+    }
+
+    /**
+     * Returns the move set cache of a grid, carrying over the move sets of the previous grid that still hold.
+     *
+     * @param gridCopy A copy of the game grid.
+     * @return The move set cache of the grid.
+     */
+    private MoveSetCache moveSets(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        MoveSetCache cache = moveSetCache.get();
+        if (cache == null || cache.grid() != gridCopy) {
+            cache = cache == null ? new MoveSetCache(gridCopy) : cache.advance(gridCopy);
+            moveSetCache.set(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Decodes a list of encoded movements.
+     *
+     * @param moves The encoded movements.
+     * @return A list of movement actions, in the same order.
+     */
+    private static List<MovementAction> toMovementActions(MoveList moves) {
+        List<MovementAction> actions = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            long move = moves.get(i);
+            actions.add(new MovementAction(HexCoordinate.fromPacked(Move.from(move)), HexCoordinate.fromPacked(Move.to(move))));
+        }
+        return actions;
     }
 
     /**
@@ -140,8 +318,17 @@ public class MovementValidator {
      * @return True if the piece can be removed, false otherwise.
      */
     private boolean canRemove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate paramCoords) {
-        int numPieces = gridCopy.get(paramCoords).size();
-        return numPieces > 1;
+        return height(gridCopy, paramCoords) > 0;
+    }
+
+    /**
+     * @param gridCopy A copy of the game grid.
+     * @param coord The coordinate to check.
+     * @return The number of pieces stacked on the coordinate, 0 for an empty cell.
+     */
+    private int height(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        PStack<PieceWrapper> stack = gridCopy.get(coord);
+        return stack == null ? 0 : stack.size();
     }
 
     /**
@@ -172,7 +359,7 @@ public class MovementValidator {
         if (from.equals(to)) return false;  // Can't slide to the same tile.
 
         Set<HexCoordinate> visited = new HashSet<>();
-        Queue<HexCoordinate> queue = new LinkedList<>();
+        Queue<HexCoordinate> queue = new ArrayDeque<>();
 
         queue.add(from);
         visited.add(from);
@@ -180,10 +367,10 @@ public class MovementValidator {
         while (!queue.isEmpty()) {
             HexCoordinate current = queue.poll();
 
-            for (HexCoordinate neighbor : current.getNeighbors()) {
-                if (!visited.contains(neighbor) && gridCopy.containsKey(neighbor) && gridCopy.get(neighbor).get(0).getPiece().type() == BLANK) {
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate neighbor = current.getNeighbor(direction);
+                if (isBlank(gridCopy, neighbor) && visited.add(neighbor)) {
                     queue.add(neighbor);
-                    visited.add(neighbor);
 
                     if (neighbor.equals(to)) return true;  // Found a valid sliding path
                 }
@@ -197,93 +384,80 @@ public class MovementValidator {
     }
 
     /**
-     * Checks whether the hive remains connected after a piece is removed or moved.
+     * Returns the One-Hive facts of a grid, computing them on the first check of a new grid.
      *
-     * @param gameGrid A copy of the game grid.
-     * @param from The current position of the piece.
-     * @param to The target position of the piece.
-     * @return True if the hive remains connected after the move, false otherwise.
+     * @param gridCopy A copy of the game grid.
+     * @return The articulation points and connectivity of the grid.
      */
-    private boolean isConnectedAfterRemoval(PMap<HexCoordinate, PStack<PieceWrapper>> gameGrid, HexCoordinate from, HexCoordinate to) {
-        PStack<PieceWrapper> stack = gameGrid.get(from);
-        PieceWrapper piece = stack.get(0);
-        gameGrid = gameGrid.plus(from, stack.minus(piece));
-
-        boolean pieceRemoved = checkHiveConnectivity(gameGrid);
-
-        stack = gameGrid.get(to);
-        stack = stack.plus(piece);
-        gameGrid = gameGrid.plus(to, stack);
-        boolean pieceMoved = checkHiveConnectivity(gameGrid);
-
-        boolean pieceHasFreedom = hasFreedom(gameGrid, to);
+    private HiveAnalysis analyse(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
+        HiveAnalysis analysis = hiveAnalysis;
+        if (analysis == null || analysis.grid() != gridCopy) {
+            long[] articulationPoints = new long[BitboardGrid.WORDS];
+            BitboardGrid bitboard = BitboardGrid.fromGrid(gridCopy);
+            boolean connected = bitboard.findArticulationPoints(articulationPoints);
+            analysis = new HiveAnalysis(gridCopy, bitboard, articulationPoints, connected);
+            hiveAnalysis = analysis;
+        }
+        return analysis;
+    }
 
-        return pieceRemoved && pieceMoved && pieceHasFreedom;
+    /**
+     * Returns the sliding graph of a piece, lifted from the grid.
+     *
+     * @param gridCopy A copy of the game grid.
+     * @param from The coordinate of the sliding piece, alone on its cell.
+     * @return The sliding graph of the piece.
+     */
+    private SlideGraph slideGraph(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from) {
+        return new SlideGraph(analyse(gridCopy).bitboard(), from);
     }
 
     /**
-     * Checks the connectivity of the hive using a flood-fill (DFS/BFS) algorithm.
+     * Checks whether the top piece at a coordinate is pinned by the One-Hive rule:
+     * it is alone on its cell and lifting it would split the hive.
      *
      * @param gridCopy A copy of the game grid.
-     * @return True if the entire hive is connected, otherwise false.
+     * @param coord The coordinate of the piece.
+     * @return True if the piece cannot move without splitting the hive, false otherwise.
      */
-    // Very similar to Graph Theory, when finding connectivity components (DFS/BFS).
-    // The graph of the Hive grid, must be one connectivity component at all time.
-    private boolean checkHiveConnectivity(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy) {
-        Queue<PieceWrapper> queue;
-        Set<HexCoordinate> visited = new HashSet<>();
-        List<HexCoordinate> toVisit = new ArrayList<>();
-        HexCoordinate startingCoordinate = null;
-
-        Iterator<PMap.Entry<HexCoordinate, PStack<PieceWrapper>>> iterator = gridCopy.entrySet().iterator();
-        while (iterator.hasNext() && startingCoordinate == null) {
-            PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry = iterator.next();
-            PieceWrapper pieceWrapper = entry.getValue().get(0);
-            if (pieceWrapper != null && pieceWrapper.getPiece().type() != BLANK)
-                startingCoordinate = entry.getKey();
-            else if (pieceWrapper == null) {
-                System.out.println("NULL COORD: " + entry.getKey());
-            }
-        }
+    public boolean isPinned(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        HiveAnalysis analysis = analyse(gridCopy);
+        return !analysis.connected() || (height(gridCopy, coord) == 1 && analysis.isArticulationPoint(coord));
+    }
 
-        toVisit.add(startingCoordinate);
-        visited.add(startingCoordinate);
-
-        while (!toVisit.isEmpty()) {
-            HexCoordinate current = toVisit.remove(toVisit.size() - 1);
-
-            for (HexCoordinate neighbor : current.getNeighbors()) {
-                if (!visited.contains(neighbor) && gridCopy.containsKey(neighbor)) {
-                    PieceWrapper neighborTile = gridCopy.get(neighbor).get(0);
-                    queue = new LinkedList<>();
-
-
-                    if (neighborTile != null && neighborTile.getPiece().type() != BLANK) {
-                        toVisit.add(neighbor);
-                        visited.add(neighbor);
-
-                        PStack<PieceWrapper> stack = gridCopy.get(neighbor);
-                        PieceWrapper pieceWrapper = stack.get(0);
-                        gridCopy = gridCopy.plus(neighbor, stack.minus(pieceWrapper));
-                        queue.add(pieceWrapper);
-                        while (gridCopy.get(neighbor).size() > 1) {
-                            visited.add(neighbor);
-                            stack = gridCopy.get(neighbor);
-                            pieceWrapper = stack.get(0);
-                            gridCopy = gridCopy.plus(neighbor, stack.minus(pieceWrapper));
-                            queue.add(pieceWrapper);
-                        }
-                        while (!(queue.isEmpty())) {
-                            stack = gridCopy.get(neighbor).plus(queue.poll());
-                            gridCopy = gridCopy.plus(neighbor, stack);
-                        }
-                    }
-                }
-            }
+    /**
+     * Checks whether the hive remains connected after a piece is removed or moved.
+     * Lifting the piece keeps the hive whole unless it empties an articulation point, and the hive
+     * stays whole after landing if the target touches what remains of it, so no traversal is needed.
+     *
+     * @param gameGrid A copy of the game grid.
+     * @param from The current position of the piece.
+     * @param to The target position of the piece.
+     * @return True if the hive remains connected after the move, false otherwise.
+     */
+    private boolean isConnectedAfterRemoval(PMap<HexCoordinate, PStack<PieceWrapper>> gameGrid, HexCoordinate from, HexCoordinate to) {
+        if (isPinned(gameGrid, from)) {
+            return false;
+        }
+        PStack<PieceWrapper> fromStack = gameGrid.get(from);
+        boolean fromEmptied = fromStack.size() == 1;
+        // Occupied neighbours of the target once the piece has left its cell.
+        int neighbours = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            HexCoordinate neighbor = to.getNeighbor(direction);
+            if (gameGrid.containsKey(neighbor) && !(fromEmptied && neighbor.equals(from)))
+                neighbours++;
+        }
+        boolean hiveLeft = !fromEmptied || gameGrid.size() > 1;
+        if (hiveLeft && neighbours == 0 && !gameGrid.containsKey(to)) {
+            return false;
         }
 
-        // Check if all pieces are visited (meaning they are all connected).
-        return visited.size() == immutableGrid.getTotalOccupiedTiles(gridCopy);
+        return switch (fromStack.get(0).getPiece().type()) {
+            case BEETLE, GRASSHOPPER -> true;
+            case QUEEN_BEE, SPIDER, ANT -> neighbours <= 4;
+            default -> false;
+        };
     }
 
     /**
@@ -295,22 +469,33 @@ public class MovementValidator {
      * @return True if the move is valid, false otherwise.
      */
     public boolean isValidMove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, HexCoordinate to) {
-        PieceType pieceType = gridCopy.get(from).get(0).getPiece().type();;
+        PStack<PieceWrapper> fromStack = gridCopy.get(from);
+        if (fromStack == null || fromStack.isEmpty()) {
+            return false;
+        }
+        Piece piece = fromStack.get(0).getPiece();
+        PieceType pieceType = piece.type();
+        if (pieceType == QUEEN_BEE || pieceType == ANT || pieceType == SPIDER) {
+            // Sliding pieces are only valid along their sliding graph, walked until it reaches the target.
+            if (gridCopy.containsKey(to) || !isBlank(gridCopy, to) || isPinned(gridCopy, from))
+                return false;
+            SlideGraph graph = slideGraph(gridCopy, from);
+            int target = BitboardGrid.index(to);
+            return switch (pieceType) {
+                case QUEEN_BEE -> graph.hasSlideTo(target);
+                case ANT -> graph.isReachable(target);
+                default -> graph.isSpiderDestination(target);
+            };
+        }
         if (gridCopy.containsKey(to)) {
-            if (pieceType != BEETLE && gridCopy.get(to).get(0).getPiece().type() != BLANK) {
+            if (pieceType != BEETLE) {
                 return false;
             }
-        }
-
-        PStack<PieceWrapper> fromStack = gridCopy.get(from);
-        PStack<PieceWrapper> toStack = gridCopy.get(to);
-        if (fromStack == null || fromStack.isEmpty() || toStack == null || toStack.isEmpty()) {
+        } else if (!isBlank(gridCopy, to)) {
+            // An empty target must touch the hive.
             return false;
         }
 
-        if (pieceType != BEETLE && pieceType != GRASSHOPPER && !canSlide(gridCopy, from, to)) {
-            return false;
-        }
         if (!hasFreedomToMove(gridCopy, from, to)) {
             return false;
         }
@@ -318,310 +503,429 @@ public class MovementValidator {
     }
 
     /**
-     * Returns a list of valid movements for the Bee piece from its current position.
-     * The Bee can move one tile in any direction.
+     * @param gridCopy A copy of the current game grid.
+     * @param coord The coordinate to check.
+     * @return True if the coordinate holds a piece.
+     */
+    private boolean isOccupied(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        return gridCopy.containsKey(coord);
+    }
+
+    /**
+     * @param gridCopy A copy of the current game grid.
+     * @param coord The coordinate to check.
+     * @return True if the coordinate is an empty cell on the frontier of the hive.
+     */
+    private boolean isBlank(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
+        return ImmutableGrid.isFrontier(gridCopy, coord);
+    }
+
+    /**
+     * Appends the valid movements of the Grasshopper piece from its current position.
+     * The Grasshopper must jump over exactly one piece.
      *
-     * @param pieceCoordinate The current position of the Bee piece.
-     * @return A list of valid movement tiles for the Bee.
+     * @param pieceCoordinate The current position of the Grasshopper piece.
+     * @param piece The Grasshopper piece.
+     * @param moves The list to fill, or null to only count the moves.
+     * @return The number of moves.
      */
-    private List<MovementAction> getValidQueenMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate) {
-        List<MovementAction> validMovements = new ArrayList<>();
-        // Bee can move one tile in any direction.
+    private int addGrasshopperMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate, Piece piece, MoveList moves) {
+        int count = 0;
+        // Grasshopper must jump over pieces in a straight line.
         if (hasFreedom(gridCopy, pieceCoordinate)) {
-            for (HexCoordinate neighbor : pieceCoordinate.getNeighbors()) {
-                if (isValidMove(gridCopy, pieceCoordinate, neighbor)) {
-                    validMovements.add(new MovementAction(pieceCoordinate, neighbor));
+            for (HexCoordinate direction : HexCoordinate.DIRECTIONS) {
+                HexCoordinate targetCoordinate = pieceCoordinate.add(direction);
+                if (isOccupied(gridCopy, targetCoordinate)) {
+                    do targetCoordinate = targetCoordinate.add(direction);
+                    while (isOccupied(gridCopy, targetCoordinate));
+                    if (isValidMove(gridCopy, pieceCoordinate, targetCoordinate)) {
+                        count++;
+                        if (moves != null)
+                            moves.add(Move.movement(pieceCoordinate.pack(), targetCoordinate.pack(), piece));
+                    }
                 }
             }
         }
-        return validMovements;
+        return count;
     }
 
     /**
-     * Returns a list of valid movements for the Ant piece from its current position.
-     * The Ant can move any number of tiles in a straight line ("sliding").
+     * Checks if the source coordinate from a move is pinning an opponent's piece (restricting its mobility) that
+     * is surrounding the opponent's queen.
      *
-     * @param pieceCoordinate The current position of the Ant piece.
-     * @return A list of valid movement tiles for the Ant.
+     * @param gridCopy A copy of the current game grid.
+     * @param move The move to check.
+     * @param queenNeighbors The neighboring coordinates surrounding the opponent's Queen.
+     * @return True if the move is pinning an opponent's piece, false otherwise.
      */
-    private List<MovementAction> getValidAntMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate) {
-        List<MovementAction> validMovements = new ArrayList<>();
-        // Ant can move any number of tiles in a straight line ("sliding").
-        Queue<HexCoordinate> queue = new LinkedList<>();
-        Set<HexCoordinate> visited = new HashSet<>();
-        if (hasFreedom(gridCopy, pieceCoordinate)) {
-
-            queue.add(pieceCoordinate);
-            visited.add(pieceCoordinate);
-            while (!queue.isEmpty()) {
-                HexCoordinate coord = queue.poll();
-                for (HexCoordinate neighbor : coord.getNeighbors()) {
-                    if (!visited.contains(neighbor)) {
-                        visited.add(neighbor);
-                        if (isValidMove(gridCopy, pieceCoordinate, neighbor)) {
-                            queue.add(neighbor);
-                            validMovements.add(new MovementAction(pieceCoordinate, neighbor));
-                        }
+    public boolean isPinning(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, MoveAction move, Set<HexCoordinate> queenNeighbors) {
+        if (!move.isPlacement()) {
+            if (queenNeighbors.contains(((MovementAction) move).getFrom()) && isOccupied(gridCopy, ((MovementAction) move).getFrom()))
+                return true;
+            HexCoordinate from = ((MovementAction) move).getFrom();
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate neighbor = from.getNeighbor(direction);
+                // Piece at neighbor is directly surrounding the queen.
+                if (isOccupied(gridCopy, neighbor) && queenNeighbors.contains(neighbor)) {
+                    // Connectivity rule: the neighbor is pinned if lifting it would split the hive.
+                    if (isPinned(gridCopy, neighbor)) {
+                        return true;
                     }
                 }
-
             }
-
-
         }
-        return validMovements;
+        return false;
     }
 
     /**
-     * Returns a list of valid Spider moves for a given position.
+     * Checks if a Beetle has freedom to move to the target position.
      *
-     * @param gridCopy A copy of the game grid.
-     * @param pieceCoordinate The current position of the Spider.
-     * @return A list of valid Spider movement actions.
+     * @param gridCopy A copy of the current game grid.
+     * @param from The current position of the Beetle.
+     * @param to The target position to check.
+     * @return True if the Beetle can move to the target, false otherwise.
      */
-    private List<MovementAction> getValidSpiderMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate) {
-        List<MovementAction> validMovements = new ArrayList<>();
-
-        if (!hasFreedom(gridCopy, pieceCoordinate)) {
-            return validMovements;
+    private boolean isFreedomToMoveBeetle(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, HexCoordinate to) {
+        if (height(gridCopy, to) == height(gridCopy, from) + 1) {
+            if (!canSlide(gridCopy, from, to))
+                return false;
         }
 
-        Set<HexCoordinate> visited = new HashSet<>();
-        visited.add(pieceCoordinate);
-
-        spiderDFS(gridCopy, pieceCoordinate, pieceCoordinate, 0, visited, validMovements);
-        return validMovements;
+        return hasFreedomToMove(gridCopy, from, to);
     }
 
     /**
-     * Performs a depth-first search to find all possible movement actions for a Spider.
+     * Appends the valid movements of the Beetle piece from its current position.
+     * The Beetle moves one tile, and may climb onto the hive.
      *
-     * @param gridCopy A copy of the current game grid.
-     * @param from The current position of the Spider.
-     * @param current The current position being explored.
-     * @param depth The current depth of the search.
-     * @param visited A set of visited coordinates to avoid revisiting.
-     * @param results A list to store the found movement actions.
-     */
-    private void spiderDFS(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy,
-                           HexCoordinate from,
-                           HexCoordinate current,
-                           int depth,
-                           Set<HexCoordinate> visited,
-                           List<MovementAction> results) {
-        if (depth == 3) {
-            results.add(new MovementAction(from, current));
-            return;
-        }
-
-        PieceWrapper pieceWrapper = gridCopy.get(from).get(0);
-        gridCopy.plus(from, gridCopy.get(from).minus(pieceWrapper));
-        Set<HexCoordinate> commonFreeTiles = getCommonFreeTiles(gridCopy, current);
-        gridCopy.plus(from, gridCopy.get(from).plus(pieceWrapper));
-
-        for (HexCoordinate neighbor : commonFreeTiles) {
-            if (!visited.contains(neighbor) && isValidMove(gridCopy, from, neighbor)) {
-                visited.add(neighbor);
-                spiderDFS(gridCopy, from, neighbor, depth + 1, visited, results);
-                visited.remove(neighbor);
+     * @param pieceCoordinate The current position of the Beetle piece.
+     * @param piece The Beetle piece.
+     * @param moves The list to fill, or null to only count the moves.
+     * @return The number of moves.
+     */
+    private int addBeetleMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate, Piece piece, MoveList moves) {
+        int count = 0;
+        if (hasFreedom(gridCopy, pieceCoordinate)) {
+            for (int direction = 0; direction < 6; direction++) {
+                HexCoordinate neighbor = pieceCoordinate.getNeighbor(direction);
+                if (isFreedomToMoveBeetle(gridCopy, pieceCoordinate, neighbor) && isValidMove(gridCopy, pieceCoordinate, neighbor)) {
+                    count++;
+                    if (moves != null)
+                        moves.add(Move.movement(pieceCoordinate.pack(), neighbor.pack(), piece));
+                }
             }
         }
+        return count;
     }
 
     /**
-     * Returns the common free tiles around the surrounding neighbors of a coordinate.
+     * Returns a list of legal moves for the current turn, based on the grid state.
      *
      * @param gridCopy A copy of the current game grid.
-     * @param coord The coordinate to check surrounding neighbors.
-     * @return A set of common free tiles around the neighbors of the coordinate.
+     * @param currentTurn The color of the current player (WHITE or BLACK).
+     * @return A list of legal movement actions for the current player.
      */
-    private Set<HexCoordinate> getCommonFreeTiles(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate coord) {
-        Set<HexCoordinate> neighbors = new HashSet<>();
-        Set<HexCoordinate> freeTilesSurroundingCoord = new HashSet<>();
-        Set<HexCoordinate> commonFreeTiles = new HashSet<>();
+    public List<MovementAction> getLegalMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        MoveList moves = new MoveList();
+        generateMoves(gridCopy, currentTurn, moves);
+        return toMovementActions(moves);
+    }
 
-        for (HexCoordinate coordinate : coord.getNeighbors()) {
-            if (gridCopy.containsKey(coordinate) && gridCopy.get(coordinate) != null && gridCopy.get(coordinate).get(0).getPiece().type() != BLANK) {
-                neighbors.add(coordinate);
+    /**
+     * Appends the encoded legal movements of the current player.
+     *
+     * @param gridCopy A copy of the current game grid.
+     * @param currentTurn The color of the current player (WHITE or BLACK).
+     * @param moves The list to fill.
+     */
+    public void generateMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn, MoveList moves) {
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
+            PieceWrapper piece = entry.getValue().get(0);
+            if (piece != null && piece.getPiece().color() == currentTurn) {
+                addValidMoves(gridCopy, entry.getKey(), moves);
             }
         }
+    }
 
-        for (HexCoordinate coordinate : coord.getNeighbors()) {
-            if (gridCopy.containsKey(coordinate) && gridCopy.get(coordinate) != null && gridCopy.get(coordinate).get(0).getPiece().type() == BLANK) {
-                freeTilesSurroundingCoord.add(coordinate);
-            }
-        }
+    /**
+     * Appends the encoded placements of the side to move of a game state, one per destination and
+     * piece type left in the hand. Only the queen is offered when it must be placed now.
+     *
+     * @param gameState The game state to inspect.
+     * @param moves The list to fill.
+     */
+    public void generatePlacements(GameState gameState, MoveList moves) {
+        PieceColor currentTurn = gameState.getTurn();
+        if (gameState.getRemainingPiecesCount(currentTurn) == 0)
+            return;
+        int[] hand = new int[BEETLE.ordinal() + 1];
+        for (PieceType type : PLACEABLE_TYPES)
+            hand[type.ordinal()] = gameState.getRemainingPiecesToPlace(currentTurn, type);
+        addPlacements(placementCells(gameState, currentTurn), currentTurn, hand, gameState.mustPlaceQueen(currentTurn), moves);
+    }
 
+    /**
+     * Appends the encoded placements of a player on a grid, one per destination and piece type left
+     * in the player's hand in the game model. Only the queen is offered when it must be placed now.
+     *
+     * @param gameModel The current game model.
+     * @param gridCopy A copy of the game grid.
+     * @param currentTurn The player placing a piece.
+     * @param moves The list to fill.
+     */
+    public void generatePlacements(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn, MoveList moves) {
+        if (!gameModel.isStillLeftPanelPiece(currentTurn))
+            return;
+        int[] hand = new int[BEETLE.ordinal() + 1];
+        for (PieceType type : PLACEABLE_TYPES)
+            hand[type.ordinal()] = gameModel.getRemainingPiecesToPlace(currentTurn, type);
+        boolean mustPlaceQueen = gameModel.getMoveCount(currentTurn) == 3 && !gameModel.isQueenPlaced(currentTurn);
+        addPlacements(placementCells(gameModel, gridCopy, currentTurn), currentTurn, hand, mustPlaceQueen, moves);
+    }
 
-        for (HexCoordinate neighbor : neighbors) {
-            for (HexCoordinate neighborOfNeighbor : neighbor.getNeighbors()) {
-                if (gridCopy.containsKey(neighborOfNeighbor) && gridCopy.get(neighborOfNeighbor) != null && gridCopy.get(neighborOfNeighbor).get(0).getPiece().type() == BLANK && freeTilesSurroundingCoord.contains(neighborOfNeighbor)) {
-                    commonFreeTiles.add(neighborOfNeighbor);
-                }
+    /**
+     * Appends one encoded placement per valid destination and placeable piece type.
+     *
+     * @param cells The valid destinations.
+     * @param currentTurn The player placing a piece.
+     * @param hand The number of pieces left in the player's hand, by type ordinal.
+     * @param mustPlaceQueen Whether the queen is the only piece the player may place.
+     * @param moves The list to fill.
+     */
+    private static void addPlacements(Collection<HexCoordinate> cells, PieceColor currentTurn, int[] hand, boolean mustPlaceQueen, MoveList moves) {
+        int first = moves.size();
+        int last = -1;
+        for (PieceType type : PLACEABLE_TYPES) {
+            if (hand[type.ordinal()] == 0 || (type != QUEEN_BEE && mustPlaceQueen))
+                continue;
+            Piece piece = Piece.of(type, currentTurn);
+            if (last < 0) {
+                for (HexCoordinate coord : cells)
+                    moves.add(Move.placement(coord.pack(), piece));
+                last = moves.size();
+            } else {
+                // The destinations do not depend on the piece, so they are copied from the first type.
+                for (int i = first; i < last; i++)
+                    moves.add(Move.placement(Move.to(moves.get(i)), piece));
             }
         }
+    }
 
-        return commonFreeTiles;
+    /**
+     * Returns a lazy source of the legal actions of the side to move of a game state.
+     * Until the player's queen is placed, only the placements are generated.
+     *
+     * @param gameState The game state to inspect.
+     * @return A source generating the movements piece by piece, cheapest first, then the placements.
+     */
+    public StagedMoveSource stagedActions(GameState gameState) {
+        PieceColor currentTurn = gameState.getTurn();
+        return new StagedMoveSource(this, gameState.getGrid(), currentTurn, gameState.isQueenPlaced(currentTurn), moves -> generatePlacements(gameState, moves));
+    }
 
+    /**
+     * Returns a lazy source of the legal actions of a player on a grid.
+     * Until the player's queen is placed, only the placements are generated.
+     *
+     * @param gameModel The current game model.
+     * @param gridCopy A copy of the game grid.
+     * @param currentTurn The player whose actions are generated.
+     * @return A source generating the movements piece by piece, cheapest first, then the placements.
+     */
+    public StagedMoveSource stagedActions(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        return new StagedMoveSource(this, gridCopy, currentTurn, gameModel.canMovePieces(currentTurn), moves -> generatePlacements(gameModel, gridCopy, currentTurn, moves));
     }
 
     /**
-     * Returns a list of valid movements for the Grasshopper piece from its current position.
-     * The Grasshopper must jump over exactly one piece.
+     * Checks whether a player of a game state has at least one legal action, stopping at the first one.
+     * Placements are checked first, as finding one is a lookup in the placement zones; then the pieces
+     * are tried from the cheapest to generate, as in {@link StagedMoveSource}. A player whose queen is
+     * not placed yet may not move.
      *
-     * @param pieceCoordinate The current position of the Grasshopper piece.
-     * @return A list of valid movement tiles for the Grasshopper.
+     * @param gameState The game state to inspect.
+     * @param color The player to check, who need not be the side to move.
+     * @return True if the player can move or place a piece.
      */
-    private List<MovementAction> getValidGrasshopperMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate) {
-        List<MovementAction> validMovements = new ArrayList<>();
-        // Grasshopper must jump over pieces in a straight line.
-        if (hasFreedom(gridCopy, pieceCoordinate)) {
-            for (HexCoordinate direction : HexCoordinate.DIRECTIONS) {
-                HexCoordinate targetCoordinate = pieceCoordinate.add(direction);
-                if (gridCopy.get(targetCoordinate) != null && Objects.requireNonNull(gridCopy.get(targetCoordinate).get(0)).getPiece().type() != BLANK) {
-                    do targetCoordinate = targetCoordinate.add(direction);
-                    while (gridCopy.get(targetCoordinate) != null && Objects.requireNonNull(gridCopy.get(targetCoordinate).get(0)).getPiece().type() != BLANK);
-                    if (isValidMove(gridCopy, pieceCoordinate, targetCoordinate))
-                        validMovements.add(new MovementAction(pieceCoordinate, targetCoordinate));
-                }
-            }
+    public boolean hasAnyLegalAction(GameState gameState, PieceColor color) {
+        if (gameState.getRemainingPiecesCount(color) > 0) {
+            if (gameState.getPlacedPiecesCount() < 2 ? !gameState.getFrontier().isEmpty() : gameState.getPlacementZones().hasPlacement(color))
+                return true;
         }
-        return validMovements;
+        return gameState.isQueenPlaced(color) && hasAnyMove(gameState.getGrid(), color);
     }
 
     /**
-     * Checks if the source coordinate from a move is pinning an opponent's piece (restricting its mobility) that
-     * is surrounding the opponent's queen.
+     * Checks whether a player has at least one legal action on a grid, stopping at the first one.
+     * Placements are checked first: a lookup in the placement zones on the current grid, or else a
+     * scan of the neighbours of the player's pieces up to the first valid cell, so the zones of another
+     * grid are never built for this check. Then the pieces are tried from the cheapest to generate,
+     * as in {@link StagedMoveSource}. A player whose queen is not placed yet may not move, as in
+     * {@link GameModel#canMovePieces(PieceColor)}.
      *
-     * @param gridCopy A copy of the current game grid.
-     * @param move The move to check.
-     * @param queenNeighbors The neighboring coordinates surrounding the opponent's Queen.
-     * @return True if the move is pinning an opponent's piece, false otherwise.
+     * @param gameModel The current game model.
+     * @param gridCopy A copy of the game grid.
+     * @param color The player to check.
+     * @return True if the player can move or place a piece.
      */
-    public boolean isPinning(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, MoveAction move, Set<HexCoordinate> queenNeighbors) {
-        if (!move.isPlacement()) {
-            if (queenNeighbors.contains(((MovementAction) move).getFrom()) && gridCopy.get(((MovementAction) move).getFrom()).size() > 1)
+    public boolean hasAnyLegalAction(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor color) {
+        if (gameModel.isStillLeftPanelPiece(color)) {
+            // During the opening every frontier cell is valid, and a frontier is never empty.
+            if (gameModel.getPlacedPiecesCount() < 2)
+                return true;
+            PlacementZones zones = immutableGrid.findPlacementZones(gridCopy);
+            if (zones != null ? zones.hasPlacement(color) : PlacementZones.hasPlacement(gridCopy, color))
                 return true;
-            for (HexCoordinate neighbor : ((MovementAction) move).getFrom().getNeighbors()) {
-                if (gridCopy.containsKey(neighbor)) {
-                    // Piece at neighbor is directly surrounding the queen.
-                    if (queenNeighbors.contains(neighbor)) {
-                        // Connectivity rule: test if moving 'move.getFrom()' disconnects the neighbor.
-                        if (gridCopy.get(neighbor).get(0).getPiece().type() != BLANK) {
-                            if (!testConnectivityWithout(gridCopy, neighbor)) {
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
         }
-        return false;
+        return gameModel.canMovePieces(color) && hasAnyMove(gridCopy, color);
     }
 
     /**
-     * Tests if the grid remains connected after removing a specific piece.
+     * Tries the player's pieces in the order of {@link StagedMoveSource}, counting the moves of each
+     * without listing them, and stops at the first piece that has one.
      *
-     * @param gridCopy A copy of the current game grid.
-     * @param toRemove The coordinate of the piece to remove.
-     * @return True if the grid remains connected after removal, false otherwise.
+     * @param gridCopy A copy of the game grid.
+     * @param color The player to check.
+     * @return True if one of the player's pieces has a legal move; the later pieces are not looked at.
      */
-    private boolean testConnectivityWithout(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate toRemove) {
-        PMap<HexCoordinate, PStack<PieceWrapper>> modifiedGrid = gridCopy;
-        modifiedGrid = modifiedGrid.minus(toRemove);
-
-        Optional<HexCoordinate> start = modifiedGrid.keySet().stream().findFirst();
-        if (start.isEmpty()) return true; // empty grid is trivially connected.
-
-        Set<HexCoordinate> visited = new HashSet<>();
-        Deque<HexCoordinate> stack = new ArrayDeque<>();
-        stack.push(start.get());
-
-        while (!stack.isEmpty()) {
-            HexCoordinate current = stack.pop();
-            if (visited.add(current)) {
-                for (HexCoordinate neighbor : current.getNeighbors()) {
-                    if (modifiedGrid.containsKey(neighbor) && !visited.contains(neighbor)) {
-                        stack.push(neighbor);
-                    }
-                }
+    private boolean hasAnyMove(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor color) {
+        for (PieceType type : StagedMoveSource.STAGES) {
+            for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
+                Piece top = entry.getValue().get(0).getPiece();
+                if (top.color() == color && top.type() == type && generateValidMoves(gridCopy, entry.getKey(), null) > 0)
+                    return true;
             }
         }
+        return false;
+    }
 
-        return visited.size() == modifiedGrid.size();
+    /**
+     * Appends every encoded legal action of the side to move of a game state: movements, then placements.
+     * Until the player's queen is placed its pieces may not move, as in {@link GameModel#canMovePieces(PieceColor)},
+     * and only the placements are appended.
+     *
+     * @param gameState The game state to inspect.
+     * @param moves The list to fill.
+     */
+    public void generateLegalActions(GameState gameState, MoveList moves) {
+        if (gameState.isQueenPlaced(gameState.getTurn()))
+            generateMoves(gameState.getGrid(), gameState.getTurn(), moves);
+        generatePlacements(gameState, moves);
     }
 
     /**
-     * Checks if a Beetle has freedom to move to the target position.
+     * Returns every legal movement and placement of the current player, decoded once into actions.
      *
+     * @param gameModel The current game model.
      * @param gridCopy A copy of the current game grid.
-     * @param from The current position of the Beetle.
-     * @param to The target position to check.
-     * @return True if the Beetle can move to the target, false otherwise.
+     * @param currentTurn The color of the current player (WHITE or BLACK).
+     * @return The movement actions followed by the placement actions; empty placements if the hand is empty.
      */
-    private boolean isFreedomToMoveBeetle(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate from, HexCoordinate to) {
-        if (gridCopy.get(to).size() == gridCopy.get(from).size() + 1) {
-            if (!canSlide(gridCopy, from, to))
-                return false;
-        }
-
-        return hasFreedomToMove(gridCopy, from, to);
+    public List<MoveAction> getLegalActions(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        MoveList moves = new MoveList();
+        generateMoves(gridCopy, currentTurn, moves);
+        List<MoveAction> actions = moves.toActions();
+        List<PlacementAction> placements = getValidPlacements(gameModel, gridCopy, currentTurn);
+        if (placements != null)
+            actions.addAll(placements);
+        return actions;
     }
 
     /**
-     * Returns a list of valid movements for the Beetle piece from its current position.
-     * The Beetle shares the same movement rules as the Ant piece.
+     * Returns every legal movement and placement of a player on a simulated position, decoded once into actions.
      *
-     * @param pieceCoordinate The current position of the Beetle piece.
-     * @return A list of valid movement tiles for the Beetle.
+     * @param gameModel The current game model.
+     * @param position The position to inspect, which carries its placement zones.
+     * @param currentTurn The color of the player.
+     * @return The movement actions followed by the placement actions; empty placements if the hand is empty.
      */
-    private List<MovementAction> getValidBeetleMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, HexCoordinate pieceCoordinate) {
-        List<MovementAction> validMovements = new ArrayList<>();
-
-        if (hasFreedom(gridCopy, pieceCoordinate)) {
-            for (HexCoordinate neighbor : pieceCoordinate.getNeighbors()) {
-                if (isFreedomToMoveBeetle(gridCopy, pieceCoordinate, neighbor) && isValidMove(gridCopy, pieceCoordinate, neighbor))
-                    validMovements.add(new MovementAction(pieceCoordinate, neighbor));
-            }
-        }
-        return validMovements;
+    public List<MoveAction> getLegalActions(GameModel gameModel, ImmutableGrid position, PieceColor currentTurn) {
+        MoveList moves = new MoveList();
+        generateMoves(position.getGrid(), currentTurn, moves);
+        List<MoveAction> actions = moves.toActions();
+        if (gameModel.isStillLeftPanelPiece(currentTurn))
+            actions.addAll(toPlacementActions(placementCells(gameModel, position, currentTurn)));
+        return actions;
     }
 
     /**
-     * Returns a list of legal moves for the current turn, based on the grid state.
+     * Counts the total number of legal moves and placements for the current player.
      *
+     * @param gameModel The current game model.
      * @param gridCopy A copy of the current game grid.
      * @param currentTurn The color of the current player (WHITE or BLACK).
-     * @return A list of legal movement actions for the current player.
+     * @return The total number of legal moves and placements.
      */
-    public List<MovementAction> getLegalMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
-        List<MovementAction> legalMoves = new ArrayList<>();
-        List<MovementAction> possibleMoves;
+    public int countTotalLegalMoves(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        return countMoves(gridCopy, currentTurn, null) + countPlacements(gameModel, gridCopy, currentTurn);
+    }
+
+    /**
+     * Counts the total number of legal moves and placements of a player on a simulated position.
+     *
+     * @param gameModel The current game model.
+     * @param position The position to inspect, which carries its placement zones.
+     * @param currentTurn The color of the player.
+     * @return The total number of legal moves and placements.
+     */
+    public int countTotalLegalMoves(GameModel gameModel, ImmutableGrid position, PieceColor currentTurn) {
+        return countMoves(position.getGrid(), currentTurn, null) + countPlacements(gameModel, position, currentTurn);
+    }
 
+    /**
+     * Counts the legal movements of a player, in total and per piece type, without building any list.
+     *
+     * @param gridCopy A copy of the current game grid.
+     * @param currentTurn The color of the player.
+     * @param countsByType If not null, receives the movement count of each piece type, by type ordinal.
+     * @return The number of legal movements of the player.
+     */
+    public int countMoves(PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn, int[] countsByType) {
+        if (countsByType != null)
+            Arrays.fill(countsByType, 0);
+        int total = 0;
         for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : gridCopy.entrySet()) {
-            PieceWrapper piece = entry.getValue().get(0);
-            if (piece != null && ((currentTurn == WHITE && piece.getPiece().color() == WHITE) || (currentTurn == BLACK && piece.getPiece().color() == BLACK))) {
-                possibleMoves = getValidMoves(gridCopy, entry.getKey());
-                legalMoves.addAll(possibleMoves);
+            Piece piece = entry.getValue().get(0).getPiece();
+            if (piece.color() == currentTurn) {
+                int count = generateValidMoves(gridCopy, entry.getKey(), null);
+                if (countsByType != null)
+                    countsByType[piece.type().ordinal()] += count;
+                total += count;
             }
         }
-        return legalMoves;
+        return total;
     }
 
     /**
-     * Counts the total number of legal moves and placements for the current player.
+     * Counts the cells where a player may place a piece, as listed by
+     * {@link #getValidPlacements(GameModel, PMap, PieceColor)}, without building any list.
      *
      * @param gameModel The current game model.
      * @param gridCopy A copy of the current game grid.
-     * @param currentTurn The color of the current player (WHITE or BLACK).
-     * @return The total number of legal moves and placements.
+     * @param currentTurn The color of the player.
+     * @return The number of valid placement cells, 0 if the hand is empty.
      */
-    public int countTotalLegalMoves(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
-        List<MovementAction> legalMoves = getLegalMoves(gridCopy, currentTurn);
-        List<PlacementAction> legalPlacements = getValidPlacements(gameModel, gridCopy, currentTurn);
-        int numLegalMoves = legalMoves != null ? legalMoves.size() : 0;
-        int numLegalPlacements = legalPlacements != null ? legalPlacements.size() : 0;
-        return numLegalMoves + numLegalPlacements;
+    public int countPlacements(GameModel gameModel, PMap<HexCoordinate, PStack<PieceWrapper>> gridCopy, PieceColor currentTurn) {
+        if (!gameModel.isStillLeftPanelPiece(currentTurn))
+            return 0;
+        if (gameModel.getPlacedPiecesCount() < 2)
+            return immutableGrid.getFrontier(gridCopy).size();
+        return immutableGrid.getPlacementZones(gridCopy).countPlacements(currentTurn);
+    }
+
+    /**
+     * Counts the cells where a player may place a piece on a simulated position, without building any list.
+     *
+     * @param gameModel The current game model.
+     * @param position The position to inspect, which carries its placement zones.
+     * @param currentTurn The color of the player.
+     * @return The number of valid placement cells, 0 if the hand is empty.
+     */
+    private static int countPlacements(GameModel gameModel, ImmutableGrid position, PieceColor currentTurn) {
+        if (!gameModel.isStillLeftPanelPiece(currentTurn))
+            return 0;
+        if (gameModel.getPlacedPiecesCount() < 2)
+            return position.getFrontier().size();
+        return position.getPlacementZones().countPlacements(currentTurn);
     }
 
     /**
@@ -642,24 +946,11 @@ public class MovementValidator {
         for (PieceType pieceType : PieceType.values()) {
             if (pieceType != BLANK) {
                 gridCopy = gameModel.getGrid();
-                PieceWrapper pieceWrapper = new PieceWrapper(new Piece(pieceType, color));
-                PStack<PieceWrapper> stack = gridCopy.get(coordinate).plus(pieceWrapper);
+                // The piece is hypothetical, so the first tile of its kind names it whether or not one is left in hand.
+                PieceWrapper pieceWrapper = PieceWrapper.of(Piece.of(pieceType, color));
+                PStack<PieceWrapper> stack = gridCopy.getOrDefault(coordinate, ConsPStack.empty()).plus(pieceWrapper);
                 gridCopy = gridCopy.plus(coordinate, stack);
 
-                List<HexCoordinate> neighborsToAdd = new ArrayList<>();
-                Set<HexCoordinate> neighboors = coordinate.getNeighbors();
-                for (HexCoordinate neighbor : neighboors) {
-                    if (!gridCopy.containsKey(neighbor)) {
-                        neighborsToAdd.add(neighbor);
-                    }
-                }
-
-                for (HexCoordinate neighbor : neighborsToAdd) {
-                    stack = ConsPStack.empty();
-                    stack = stack.plus(new PieceWrapper(new Piece(BLANK, NONE)));
-                    gridCopy = gridCopy.plus(neighbor, stack);
-                }
-
                 List<MovementAction> legalMoves = getLegalMoves(gridCopy, color);
                 for (MovementAction movementAction : legalMoves) {
                     if (movementAction.getFrom() == coordinate) {
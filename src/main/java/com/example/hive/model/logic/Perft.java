@@ -0,0 +1,183 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.grid.GameModel;
+import com.example.hive.model.grid.GameState;
+import com.example.hive.model.grid.WinStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Counts the leaf nodes of the game tree to a fixed depth, to benchmark the move generator and to
+ * catch regressions: any change to the generation must keep the counts of a position the same.
+ * <p>
+ * Every legal movement and placement is a node, and so is a pass when the side to move has none.
+ * As in the game, a player has no movement until its queen is placed.
+ * A position where a queen is surrounded, or where both players had to pass in a row, ends the game
+ * and has no children. Draws by repetition are ignored, since they depend on the history of the game.
+ * </p>
+ * <p>
+ * Runs headless from {@link #main(String[])}:
+ * {@code Perft <depth> [random plies] [seed]} plays the given number of random actions from the
+ * initial position, then prints the count of every root action, their total and the nodes per second.
+ * </p>
+ */
+public final class Perft {
+    private final GameModel gameModel;
+    // One move buffer per ply, reused by every node at that ply.
+    private MoveList[] buffers = new MoveList[0];
+
+    /**
+     * Creates a perft counter generating the actions with the validator of a game model.
+     *
+     * @param gameModel the game model whose move generator is measured
+     */
+    public Perft(GameModel gameModel) {
+        this.gameModel = gameModel;
+    }
+
+    /**
+     * Counts the leaf nodes below a position.
+     *
+     * @param state the root position
+     * @param depth the number of plies to play, 0 counting the root itself
+     * @return the number of positions reached after exactly depth plies
+     */
+    public long perft(GameState state, int depth) {
+        ensureBuffers(depth);
+        return count(state, depth, false);
+    }
+
+    /**
+     * Counts the leaf nodes below each action of a position.
+     *
+     * @param state the root position
+     * @param depth the number of plies to play, at least 1
+     * @return the count of every root action, in generation order; a pass is keyed by {@link StagedMoveSource#NO_MOVE}
+     */
+    public Map<Long, Long> divide(GameState state, int depth) {
+        if (depth < 1)
+            throw new IllegalArgumentException("Divide needs a depth of at least 1, got " + depth);
+        ensureBuffers(depth);
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        if (isGameOver(state))
+            return counts;
+        MoveList moves = new MoveList();
+        gameModel.generateLegalActions(state, moves);
+        if (moves.isEmpty()) {
+            counts.put(StagedMoveSource.NO_MOVE, count(state.pass(), depth - 1, true));
+            return counts;
+        }
+        for (int i = 0; i < moves.size(); i++)
+            counts.put(moves.get(i), count(state.apply(moves.get(i)), depth - 1, false));
+        return counts;
+    }
+
+    /**
+     * @param state  the position
+     * @param depth  the remaining plies
+     * @param passed whether the position was reached by a pass
+     * @return the number of leaf nodes below the position
+     */
+    private long count(GameState state, int depth, boolean passed) {
+        if (depth == 0)
+            return 1;
+        if (isGameOver(state))
+            return 0;
+        MoveList moves = buffers[depth - 1];
+        moves.clear();
+        gameModel.generateLegalActions(state, moves);
+        if (moves.isEmpty())
+            return passed ? 0 : count(state.pass(), depth - 1, true);
+        // The children of the last ply are the leaves themselves.
+        if (depth == 1)
+            return moves.size();
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++)
+            nodes += count(state.apply(moves.get(i)), depth - 1, false);
+        return nodes;
+    }
+
+    /**
+     * @param state a position
+     * @return true if a queen is surrounded
+     */
+    private static boolean isGameOver(GameState state) {
+        return WinStatus.isOver(state.getWinStatus());
+    }
+
+    /**
+     * Makes sure there is one move buffer per ply.
+     *
+     * @param depth the deepest ply to search
+     */
+    private void ensureBuffers(int depth) {
+        if (buffers.length >= depth)
+            return;
+        MoveList[] grown = new MoveList[depth];
+        System.arraycopy(buffers, 0, grown, 0, buffers.length);
+        for (int i = buffers.length; i < depth; i++)
+            grown[i] = new MoveList();
+        buffers = grown;
+    }
+
+    /**
+     * Plays random legal actions from the initial position, passing when there is none.
+     *
+     * @param gameModel the game model generating the actions
+     * @param plies     the number of actions to play
+     * @param seed      the seed of the random choices
+     * @return the position reached, or the last one before the game ended
+     */
+    public static GameState randomPosition(GameModel gameModel, int plies, long seed) {
+        Random random = new Random(seed);
+        GameState state = GameState.initial();
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < plies && !isGameOver(state); ply++) {
+            moves.clear();
+            gameModel.generateLegalActions(state, moves);
+            GameState next = moves.isEmpty() ? state.pass() : state.apply(moves.get(random.nextInt(moves.size())));
+            if (isGameOver(next))
+                break;
+            state = next;
+        }
+        return state;
+    }
+
+    /**
+     * Runs a perft divide from the command line.
+     *
+     * @param args the depth, then optionally the number of random plies to play first and their seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: Perft <depth> [random plies] [seed]");
+            System.exit(2);
+        }
+        int depth = Integer.parseInt(args[0]);
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+
+        GameModel gameModel = new GameModel();
+        GameState root = randomPosition(gameModel, plies, seed);
+        Perft perft = new Perft(gameModel);
+
+        long start = System.nanoTime();
+        Map<Long, Long> counts = perft.divide(root, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : counts.entrySet()) {
+            String action = entry.getKey() == StagedMoveSource.NO_MOVE ? "pass" : Move.toString(entry.getKey());
+            System.out.println(action + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        double seconds = elapsed / 1e9;
+        System.out.println();
+        System.out.println("Root actions: " + counts.size());
+        System.out.println("Nodes: " + total);
+        System.out.printf("Time: %.3f s%n", seconds);
+        System.out.printf("Nodes/s: %.0f%n", seconds > 0 ? total / seconds : 0.0);
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Map;
 public class PlayerState {
     private final PieceColor color;
     private final Map<PieceType, Integer> remainingPieces;
+    private int remainingTotal;
     private boolean queenPlaced;
     private int moveCount;
 
@@ -33,6 +34,8 @@ public class PlayerState {
         this.color = color;
         remainingPieces = new HashMap<>();
         remainingPieces.putAll(initialPieces);
+        for (int count : initialPieces.values())
+            remainingTotal += count;
         queenPlaced = false;
         moveCount = 0;
     }
@@ -53,7 +56,16 @@ public class PlayerState {
      * @return the number of pieces placed by the player.
      */
     public int getPlacedPiecesCount() {
-        return TOTAL_PIECES_AMOUNT - remainingPieces.values().stream().mapToInt(Integer::intValue).sum();
+        return TOTAL_PIECES_AMOUNT - remainingTotal;
+    }
+
+    /**
+     * Gets the total number of pieces the player can still place.
+     *
+     * @return the number of pieces left in the player's hand.
+     */
+    public int getRemainingPiecesCount() {
+        return remainingTotal;
     }
 
     /**
@@ -78,6 +90,8 @@ public class PlayerState {
             remainingPieces.put(type, currentAmount - 1);
             if (currentAmount == 0) {
                 remainingPieces.remove(type);
+            } else {
+                remainingTotal--;
             }
         }
     }
@@ -0,0 +1,252 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.BitboardGrid;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.ImmutableGrid;
+import com.example.hive.model.grid.Piece;
+import com.example.hive.model.grid.SearchBoard;
+
+import java.util.Arrays;
+
+import static com.example.hive.model.enums.PieceColor.*;
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * Generates the legal actions of a {@link SearchBoard} in place, with the rules of {@link MovementValidator}.
+ * <p>
+ * The One-Hive rule is read from one articulation point search per call. Queens, ants and spiders walk a
+ * {@link SlideGraph} lifted again for each piece, grasshoppers jump along the occupied cells, and beetles
+ * step onto their six neighbours, except onto a stack exactly one piece higher than their own, which the
+ * validator bars too. The placements are the empty cells touching the player and not the opponent, taken
+ * from one bitset of the cells touching each colour.
+ * </p>
+ * <p>
+ * A generator reads the board it was built for, as the board stands at each call, and keeps its buffers
+ * between calls, so a search doing and undoing moves on the board generates without allocating once its
+ * move lists have grown. One generator is used by one thread.
+ * </p>
+ */
+public final class SearchMoveGenerator {
+    private static final PieceType[] PLACEABLE_TYPES = {QUEEN_BEE, ANT, SPIDER, GRASSHOPPER, BEETLE};
+
+    private final SearchBoard board;
+    private final SlideGraph graph;
+    private final long[] articulationPoints = new long[BitboardGrid.WORDS];
+    // Empty cells touching a top piece of each colour, and the placement cells taken from them.
+    private final long[] touchingWhite = new long[BitboardGrid.WORDS];
+    private final long[] touchingBlack = new long[BitboardGrid.WORDS];
+    private final long[] placementCells = new long[BitboardGrid.WORDS];
+    // Packed coordinate of each empty cell found touching the hive, by cell index.
+    private final int[] packedCells = new int[BitboardGrid.CELLS];
+
+    /**
+     * Creates the generator of a board.
+     *
+     * @param board the board to read, which may change between calls
+     */
+    public SearchMoveGenerator(SearchBoard board) {
+        this.board = board;
+        graph = new SlideGraph(board);
+    }
+
+    /**
+     * Appends every encoded legal action of the side to move: movements, then placements.
+     * Until the player's queen is placed its pieces may not move, and only the placements are appended.
+     *
+     * @param moves the list to fill
+     */
+    public void generateLegalActions(MoveList moves) {
+        PieceColor turn = board.getTurn();
+        if (board.isQueenPlaced(turn))
+            addMoves(turn, moves);
+        addPlacements(turn, moves);
+    }
+
+    /**
+     * Counts the legal movements and placement cells of a player, as
+     * {@link MovementValidator#countTotalLegalMoves} does, without building any list.
+     *
+     * @param color the player, the side to move or not
+     * @return the number of movements and placement cells
+     */
+    public int countTotalLegalMoves(PieceColor color) {
+        int placements = 0;
+        if (board.getRemainingPiecesCount(color) > 0) {
+            findPlacementCells(color);
+            for (long word : placementCells)
+                placements += Long.bitCount(word);
+        }
+        return addMoves(color, null) + placements;
+    }
+
+    /**
+     * Appends the movements of the pieces a player tops, or only counts them.
+     *
+     * @param color the player
+     * @param moves the list to fill, or null to only count the moves
+     * @return the number of movements
+     */
+    private int addMoves(PieceColor color, MoveList moves) {
+        // A split hive pins every piece, as in MovementValidator.isPinned.
+        if (!board.findArticulationPoints(articulationPoints))
+            return 0;
+        boolean white = color == WHITE;
+        int occupiedCells = board.getTotalOccupiedTiles();
+        int count = 0;
+        for (int cell = board.nextOccupied(-1); cell >= 0; cell = board.nextOccupied(cell)) {
+            if (board.isWhite(cell) != white)
+                continue;
+            int height = board.getHeight(cell);
+            if (height == 1 && (articulationPoints[cell >>> 6] & (1L << cell)) != 0)
+                continue;
+            HexCoordinate from = board.getCoordinate(cell);
+            Piece piece = board.getTopPiece(cell);
+            count += switch (piece.type()) {
+                case QUEEN_BEE -> lift(from).addNeighbours(moves);
+                case ANT -> lift(from).addReachable(moves);
+                case SPIDER -> lift(from).addSpiderDestinations(moves);
+                case GRASSHOPPER -> addJumps(cell, from.pack(), piece, moves);
+                case BEETLE -> addSteps(cell, from.pack(), piece, height, occupiedCells, moves);
+                default -> 0;
+            };
+        }
+        return count;
+    }
+
+    /**
+     * @param from the coordinate of a sliding piece, alone on its cell
+     * @return the sliding graph, lifted for the piece
+     */
+    private SlideGraph lift(HexCoordinate from) {
+        graph.lift(from);
+        return graph;
+    }
+
+    /**
+     * Appends the jumps of a grasshopper over each line of pieces next to it.
+     *
+     * @param cell   the cell of the grasshopper
+     * @param origin the packed coordinate of the cell
+     * @param piece  the grasshopper
+     * @param moves  the list to fill, or null to only count the moves
+     * @return the number of moves
+     */
+    private int addJumps(int cell, int origin, Piece piece, MoveList moves) {
+        int count = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            int next = BitboardGrid.neighbour(cell, direction);
+            if (!board.isOccupied(next))
+                continue;
+            int packed = HexCoordinate.packedNeighbor(origin, direction);
+            do {
+                next = BitboardGrid.neighbour(next, direction);
+                packed = HexCoordinate.packedNeighbor(packed, direction);
+            } while (board.isOccupied(next));
+            count++;
+            if (moves != null)
+                moves.add(Move.movement(origin, packed, piece));
+        }
+        return count;
+    }
+
+    /**
+     * Appends the steps of a beetle. An empty destination must still touch the hive once the beetle
+     * has left, unless the beetle was the whole hive.
+     *
+     * @param cell          the cell of the beetle
+     * @param origin        the packed coordinate of the cell
+     * @param piece         the beetle
+     * @param height        the height of the stack the beetle tops
+     * @param occupiedCells the number of occupied cells of the board
+     * @param moves         the list to fill, or null to only count the moves
+     * @return the number of moves
+     */
+    private int addSteps(int cell, int origin, Piece piece, int height, int occupiedCells, MoveList moves) {
+        boolean leavesEmpty = height == 1;
+        boolean hiveLeft = !leavesEmpty || occupiedCells > 1;
+        int count = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            int to = BitboardGrid.neighbour(cell, direction);
+            int toHeight = board.getHeight(to);
+            if (toHeight == height + 1)
+                continue;
+            // The beetle's own cell is one of the neighbours, and no longer counts once emptied.
+            if (toHeight == 0 && hiveLeft
+                    && Integer.bitCount(board.getOccupiedNeighbourMask(to)) - (leavesEmpty ? 1 : 0) == 0)
+                continue;
+            count++;
+            if (moves != null)
+                moves.add(Move.movement(origin, HexCoordinate.packedNeighbor(origin, direction), piece));
+        }
+        return count;
+    }
+
+    /**
+     * Appends one placement per placement cell and piece type left in the hand of the side to move.
+     * Only the queen is offered when it must be placed now.
+     *
+     * @param turn  the side to move
+     * @param moves the list to fill
+     */
+    private void addPlacements(PieceColor turn, MoveList moves) {
+        if (board.getRemainingPiecesCount(turn) == 0)
+            return;
+        boolean mustPlaceQueen = board.mustPlaceQueen(turn);
+        int first = moves.size();
+        int last = -1;
+        for (PieceType type : PLACEABLE_TYPES) {
+            if (board.getRemainingPiecesToPlace(turn, type) == 0 || (type != QUEEN_BEE && mustPlaceQueen))
+                continue;
+            Piece piece = Piece.of(type, turn);
+            if (last < 0) {
+                findPlacementCells(turn);
+                for (int word = 0; word < BitboardGrid.WORDS; word++) {
+                    for (long bits = placementCells[word]; bits != 0; bits &= bits - 1)
+                        moves.add(Move.placement(packedCells[(word << 6) | Long.numberOfTrailingZeros(bits)], piece));
+                }
+                last = moves.size();
+            } else {
+                // The destinations do not depend on the piece, so they are copied from the first type.
+                for (int i = first; i < last; i++)
+                    moves.add(Move.placement(Move.to(moves.get(i)), piece));
+            }
+        }
+    }
+
+    /**
+     * Fills the placement cells of a player. During the opening every empty cell touching the hive is
+     * valid, or the origin on an empty board; later only those touching the player and not the opponent.
+     *
+     * @param color the player
+     */
+    private void findPlacementCells(PieceColor color) {
+        Arrays.fill(placementCells, 0L);
+        int cell = board.nextOccupied(-1);
+        if (cell < 0) {
+            int origin = BitboardGrid.index(ImmutableGrid.ORIGIN);
+            placementCells[origin >>> 6] = 1L << origin;
+            packedCells[origin] = ImmutableGrid.ORIGIN.pack();
+            return;
+        }
+        Arrays.fill(touchingWhite, 0L);
+        Arrays.fill(touchingBlack, 0L);
+        for (; cell >= 0; cell = board.nextOccupied(cell)) {
+            long[] touching = board.isWhite(cell) ? touchingWhite : touchingBlack;
+            int packed = board.getCoordinate(cell).pack();
+            for (int direction = 0; direction < 6; direction++) {
+                int next = BitboardGrid.neighbour(cell, direction);
+                if (board.isOccupied(next))
+                    continue;
+                touching[next >>> 6] |= 1L << next;
+                packedCells[next] = HexCoordinate.packedNeighbor(packed, direction);
+            }
+        }
+        long[] own = color == WHITE ? touchingWhite : touchingBlack;
+        long[] other = color == WHITE ? touchingBlack : touchingWhite;
+        boolean opening = board.getPlacedPiecesCount() < 2;
+        for (int word = 0; word < BitboardGrid.WORDS; word++)
+            placementCells[word] = opening ? own[word] | other[word] : own[word] & ~other[word];
+    }
+}
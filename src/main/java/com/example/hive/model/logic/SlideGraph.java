@@ -0,0 +1,344 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.grid.BitboardGrid;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.Piece;
+
+import java.util.Arrays;
+
+/**
+ * The sliding graph of one piece: the empty cells around the hive it can crawl through once lifted,
+ * and the slides between them.
+ * <p>
+ * The moving piece is lifted first, so it never slides along itself. A slide from a cell to an
+ * empty neighbour passes between the two cells they share. Exactly one of them must be occupied:
+ * two occupied cells form a gate the piece cannot squeeze through, and two empty cells would
+ * leave the piece out of contact with the hive. Each edge is read from the bitboard in O(1),
+ * so the graph needs no other setup than the lifting.
+ * </p>
+ * <p>
+ * Queen moves are the edges of the start cell, ant moves are a single flood fill,
+ * and spider moves are the ends of the walks of exactly three edges. Moves are appended to a
+ * {@link MoveList} already encoded, without allocating a coordinate or an action per move, or
+ * only counted when no list is given. To check a single destination, the walks stop as soon as they reach it.
+ * </p>
+ * <p>
+ * A graph can be kept for a board and lifted again for each piece with {@link #lift(HexCoordinate)},
+ * so generating the moves of a whole side reuses its buffers.
+ * </p>
+ */
+public final class SlideGraph {
+    // Number of slides of a spider move.
+    private static final int SPIDER_STEPS = 3;
+
+    private final BitboardGrid board;
+    private int lifted = -1;
+    // Packed coordinate and piece of the lifted cell, shared by every move of the graph.
+    private int origin;
+    private Piece piece;
+    // Bitset of cells by index, cleared and reused by each walk over the graph.
+    private final long[] visited = new long[BitboardGrid.WORDS];
+    // Bitset of the cells whose slides were read, for the footprint of the walks.
+    private final long[] read = new long[BitboardGrid.WORDS];
+    // Queue of the flood fills, with the packed coordinates alongside; grown when full.
+    private int[] cells = new int[16];
+    private int[] packedCells = new int[16];
+    // Path of the spider walks, one entry per slide.
+    private final int[] pathCells = new int[SPIDER_STEPS];
+    private final int[] pathPacked = new int[SPIDER_STEPS];
+    private final int[] pathMasks = new int[SPIDER_STEPS];
+    private final int[] pathDirections = new int[SPIDER_STEPS];
+
+    /**
+     * Builds the sliding graph of the piece at a coordinate.
+     *
+     * @param board  the bitboard of the position, which is only read
+     * @param lifted the coordinate of the moving piece, alone on its cell
+     */
+    public SlideGraph(BitboardGrid board, HexCoordinate lifted) {
+        this(board);
+        lift(lifted);
+    }
+
+    /**
+     * Builds the sliding graph of a board with no piece lifted yet, see {@link #lift(HexCoordinate)}.
+     *
+     * @param board the bitboard of the position, which is only read
+     */
+    public SlideGraph(BitboardGrid board) {
+        this.board = board;
+    }
+
+    /**
+     * Lifts another piece of the board and forgets the walks made for the previous one.
+     *
+     * @param lifted the coordinate of the moving piece, alone on its cell
+     */
+    public void lift(HexCoordinate lifted) {
+        this.lifted = BitboardGrid.index(lifted);
+        origin = lifted.pack();
+        piece = board.getTopPiece(this.lifted);
+        Arrays.fill(read, 0L);
+    }
+
+    /**
+     * @param cell the cell index
+     * @return true if a piece other than the lifted one stands on the cell
+     */
+    private boolean isOccupied(int cell) {
+        return cell != lifted && board.isOccupied(cell);
+    }
+
+    /**
+     * Returns the slides out of an empty cell as a six bit mask,
+     * bit {@code d} standing for {@link HexCoordinate#DIRECTIONS}{@code [d]}.
+     *
+     * @param cell the cell index
+     * @return the mask of the directions the lifted piece can slide to
+     */
+    public int getSlideMask(int cell) {
+        read[cell >>> 6] |= 1L << cell;
+        int mask = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            if (isOccupied(BitboardGrid.neighbour(cell, direction)))
+                continue;
+            // The directions are listed around the hexagon, so the shared cells are the adjacent directions.
+            boolean left = isOccupied(BitboardGrid.neighbour(cell, (direction + 5) % 6));
+            boolean right = isOccupied(BitboardGrid.neighbour(cell, (direction + 1) % 6));
+            if (left != right)
+                mask |= 1 << direction;
+        }
+        return mask;
+    }
+
+    /**
+     * Appends the moves of one slide from the lifted piece: the queen moves.
+     *
+     * @param moves the list to fill, or null to only count the moves
+     * @return the number of moves
+     */
+    public int addNeighbours(MoveList moves) {
+        int mask = getSlideMask(lifted);
+        if (moves != null) {
+            for (int direction = 0; direction < 6; direction++) {
+                if ((mask & (1 << direction)) != 0)
+                    moves.add(Move.movement(origin, HexCoordinate.packedNeighbor(origin, direction), piece));
+            }
+        }
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * @param target the cell index of a destination
+     * @return true if the lifted piece reaches the destination in one slide: a queen move
+     */
+    public boolean hasSlideTo(int target) {
+        int mask = getSlideMask(lifted);
+        for (int direction = 0; direction < 6; direction++) {
+            if ((mask & (1 << direction)) != 0 && BitboardGrid.neighbour(lifted, direction) == target)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Flood fills the graph from the lifted piece until it reaches a destination: an ant move.
+     *
+     * @param target the cell index of the destination
+     * @return true if the destination is reached by any number of slides
+     */
+    public boolean isReachable(int target) {
+        if (target == lifted)
+            return false;
+        Arrays.fill(visited, 0L);
+        visited[lifted >>> 6] |= 1L << lifted;
+        cells[0] = lifted;
+        int size = 1;
+        for (int head = 0; head < size; head++) {
+            int cell = cells[head];
+            int mask = getSlideMask(cell);
+            for (int direction = 0; direction < 6; direction++) {
+                if ((mask & (1 << direction)) == 0)
+                    continue;
+                int next = BitboardGrid.neighbour(cell, direction);
+                if (next == target)
+                    return true;
+                if ((visited[next >>> 6] & (1L << next)) != 0)
+                    continue;
+                visited[next >>> 6] |= 1L << next;
+                if (size == cells.length)
+                    cells = Arrays.copyOf(cells, size * 2);
+                cells[size++] = next;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the paths of exactly three slides from the lifted piece, as {@link #addSpiderDestinations(MoveList)}
+     * does, until one ends on a destination: a spider move.
+     *
+     * @param target the cell index of the destination
+     * @return true if a path of three slides ends on the destination
+     */
+    public boolean isSpiderDestination(int target) {
+        int[] cells = pathCells;
+        int[] masks = pathMasks;
+        int[] directions = pathDirections;
+        cells[0] = lifted;
+        directions[0] = 0;
+        masks[0] = getSlideMask(lifted);
+
+        int depth = 0;
+        while (depth >= 0) {
+            int direction = directions[depth]++;
+            if (direction == 6) {
+                depth--;
+                continue;
+            }
+            if ((masks[depth] & (1 << direction)) == 0)
+                continue;
+            int next = BitboardGrid.neighbour(cells[depth], direction);
+            if (isOnPath(cells, depth, next))
+                continue;
+            if (depth == SPIDER_STEPS - 1) {
+                if (next == target)
+                    return true;
+                continue;
+            }
+            depth++;
+            cells[depth] = next;
+            masks[depth] = getSlideMask(next);
+            directions[depth] = 0;
+        }
+        return false;
+    }
+
+    /**
+     * Flood fills the graph from the lifted piece and appends a move to every cell reached by any
+     * number of slides: the ant moves.
+     *
+     * @param moves the list to fill, or null to only count the moves
+     * @return the number of moves
+     */
+    public int addReachable(MoveList moves) {
+        Arrays.fill(visited, 0L);
+        visited[lifted >>> 6] |= 1L << lifted;
+        int[] packed = packedCells;
+        cells[0] = lifted;
+        packed[0] = origin;
+        int size = 1;
+        for (int head = 0; head < size; head++) {
+            int cell = cells[head];
+            int mask = getSlideMask(cell);
+            for (int direction = 0; direction < 6; direction++) {
+                if ((mask & (1 << direction)) == 0)
+                    continue;
+                int next = BitboardGrid.neighbour(cell, direction);
+                if ((visited[next >>> 6] & (1L << next)) != 0)
+                    continue;
+                visited[next >>> 6] |= 1L << next;
+                if (size == cells.length) {
+                    cells = Arrays.copyOf(cells, size * 2);
+                    packed = packedCells = Arrays.copyOf(packed, size * 2);
+                }
+                cells[size] = next;
+                packed[size] = HexCoordinate.packedNeighbor(packed[head], direction);
+                if (moves != null)
+                    moves.add(Move.movement(origin, packed[size], piece));
+                size++;
+            }
+        }
+        return size - 1;
+    }
+
+    /**
+     * Walks every path of exactly three slides from the lifted piece that never comes back to a
+     * cell of the path, without recursion, and appends a move to each distinct end: the spider moves.
+     * A path is at most four cells long, so it is checked by a scan; the visited buffer only keeps
+     * each end once.
+     *
+     * @param moves the list to fill, or null to only count the moves
+     * @return the number of moves
+     */
+    public int addSpiderDestinations(MoveList moves) {
+        Arrays.fill(visited, 0L);
+        int[] cells = pathCells;
+        int[] packed = pathPacked;
+        int[] masks = pathMasks;
+        int[] directions = pathDirections;
+        cells[0] = lifted;
+        packed[0] = origin;
+        directions[0] = 0;
+        masks[0] = getSlideMask(lifted);
+
+        int depth = 0;
+        while (depth >= 0) {
+            int direction = directions[depth]++;
+            if (direction == 6) {
+                depth--;
+                continue;
+            }
+            if ((masks[depth] & (1 << direction)) == 0)
+                continue;
+            int next = BitboardGrid.neighbour(cells[depth], direction);
+            if (isOnPath(cells, depth, next))
+                continue;
+            if (depth == SPIDER_STEPS - 1) {
+                if ((visited[next >>> 6] & (1L << next)) == 0) {
+                    visited[next >>> 6] |= 1L << next;
+                    if (moves != null)
+                        moves.add(Move.movement(origin, HexCoordinate.packedNeighbor(packed[depth], direction), piece));
+                }
+                continue;
+            }
+            depth++;
+            cells[depth] = next;
+            packed[depth] = HexCoordinate.packedNeighbor(packed[depth - 1], direction);
+            masks[depth] = getSlideMask(next);
+            directions[depth] = 0;
+        }
+        // Only the ends are marked, so the visited bits count the destinations.
+        int count = 0;
+        for (long word : visited)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * @param cells the cells of the path
+     * @param depth the index of the last cell of the path
+     * @param cell  the cell index
+     * @return true if the cell is on the path
+     */
+    private static boolean isOnPath(int[] cells, int depth, int cell) {
+        for (int i = 0; i <= depth; i++) {
+            if (cells[i] == cell)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the footprint of the walks made so far: every cell whose content they depend on. Each
+     * slide mask reads a cell and its six neighbours, so the footprint is the cells whose slides were
+     * read, widened by one cell. The moves found stay the same on any grid that differs from this one
+     * outside the footprint only.
+     *
+     * @return a new bitset of cells by index
+     */
+    public long[] getFootprint() {
+        long[] footprint = new long[BitboardGrid.WORDS];
+        for (int word = 0; word < BitboardGrid.WORDS; word++) {
+            for (long bits = read[word]; bits != 0; bits &= bits - 1) {
+                int cell = (word << 6) | Long.numberOfTrailingZeros(bits);
+                footprint[cell >>> 6] |= 1L << cell;
+                for (int direction = 0; direction < 6; direction++) {
+                    int neighbour = BitboardGrid.neighbour(cell, direction);
+                    footprint[neighbour >>> 6] |= 1L << neighbour;
+                }
+            }
+        }
+        return footprint;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.hive.model.logic;
+
+import com.example.hive.model.enums.PieceColor;
+import com.example.hive.model.enums.PieceType;
+import com.example.hive.model.grid.HexCoordinate;
+import com.example.hive.model.grid.PieceWrapper;
+import org.pcollections.PMap;
+import org.pcollections.PStack;
+
+import java.util.function.Consumer;
+
+import static com.example.hive.model.enums.PieceType.*;
+
+/**
+ * A lazy source of the legal actions of one player, generated stage by stage as they are consumed.
+ * <p>
+ * Pieces are visited from the cheapest to generate to the most expensive: queens, beetles and
+ * grasshoppers look at their six neighbours only, spiders walk three slides and ants flood the whole
+ * rim of the hive. The moves of a piece are only generated once the previous piece is used up, and
+ * placements come last. A caller that stops at the first move it is looking for, such as an existence
+ * or a winning move query, pays for a fraction of the full generation.
+ * </p>
+ * <p>
+ * Moves are returned encoded, see {@link Move}. A source reads one grid and is used by one thread.
+ * A player whose queen is not placed yet may not move, and only gets the placements.
+ * </p>
+ */
+public final class StagedMoveSource {
+    /**
+     * Returned by {@link #next()} once every action has been returned. No encoded move is negative.
+     */
+    public static final long NO_MOVE = -1L;
+
+    // Piece types in the order their moves are generated.
+    static final PieceType[] STAGES = {QUEEN_BEE, BEETLE, GRASSHOPPER, SPIDER, ANT};
+
+    private final MovementValidator validator;
+    private final PMap<HexCoordinate, PStack<PieceWrapper>> grid;
+    private final Consumer<MoveList> placements;
+
+    // Coordinates of the player's top pieces, ordered by stage.
+    private final HexCoordinate[] pieces;
+    private final int pieceCount;
+    private int nextPiece;
+    private boolean placementsGenerated;
+
+    // Moves of the current piece, or the placements, and the next one to return.
+    private final MoveList buffer = new MoveList();
+    private int cursor;
+
+    /**
+     * Creates a source of the actions of a player.
+     *
+     * @param validator  the validator generating the moves of each piece
+     * @param grid       the grid to generate on
+     * @param color      the player whose actions are generated
+     * @param canMove    whether the player's queen is placed, so that its pieces may move
+     * @param placements fills a list with the player's placements, called once after all the pieces
+     */
+    StagedMoveSource(MovementValidator validator, PMap<HexCoordinate, PStack<PieceWrapper>> grid, PieceColor color, boolean canMove, Consumer<MoveList> placements) {
+        this.validator = validator;
+        this.grid = grid;
+        this.placements = placements;
+
+        int[] stageSizes = new int[STAGES.length + 1];
+        int[] stageOf = new int[BEETLE.ordinal() + 1];
+        for (int stage = 0; stage < STAGES.length; stage++)
+            stageOf[STAGES[stage].ordinal()] = stage;
+        int count = 0;
+        for (PStack<PieceWrapper> stack : grid.values()) {
+            if (canMove && stack.get(0).getPiece().color() == color) {
+                stageSizes[stageOf[stack.get(0).getPiece().type().ordinal()] + 1]++;
+                count++;
+            }
+        }
+        // Counting sort: stageSizes becomes the first slot of each stage.
+        for (int stage = 1; stage <= STAGES.length; stage++)
+            stageSizes[stage] += stageSizes[stage - 1];
+        pieces = new HexCoordinate[count];
+        for (PMap.Entry<HexCoordinate, PStack<PieceWrapper>> entry : grid.entrySet()) {
+            PieceWrapper top = entry.getValue().get(0);
+            if (canMove && top.getPiece().color() == color)
+                pieces[stageSizes[stageOf[top.getPiece().type().ordinal()]]++] = entry.getKey();
+        }
+        pieceCount = count;
+    }
+
+    /**
+     * Returns the next action, generating the moves of the next piece or the placements when needed.
+     *
+     * @return the next encoded action, or {@link #NO_MOVE} once all have been returned
+     */
+    public long next() {
+        while (cursor == buffer.size()) {
+            buffer.clear();
+            cursor = 0;
+            if (nextPiece < pieceCount) {
+                validator.addValidMoves(grid, pieces[nextPiece++], buffer);
+            } else if (!placementsGenerated) {
+                placementsGenerated = true;
+                placements.accept(buffer);
+            } else {
+                return NO_MOVE;
+            }
+        }
+        return buffer.get(cursor++);
+    }
+
+    /**
+     * Checks whether the player has at least one action, generating no more than the first one.
+     *
+     * @return true if an action remains to be returned
+     */
+    public boolean hasNext() {
+        if (cursor < buffer.size())
+            return true;
+        long move = next();
+        if (move == NO_MOVE)
+            return false;
+        // Step back over the move so that the next call to next returns it.
+        cursor--;
+        return true;
+    }
+}